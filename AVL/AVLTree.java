@@ -1,6 +1,16 @@
 package AVL;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AVL tree is an implementation of a self-balancing
@@ -10,11 +20,12 @@ import java.util.List;
  * @author Arjun Passi
  *
  */
-public class AVLTree <T extends Comparable<? super T>>{
+public class AVLTree <T extends Comparable<? super T>> implements Iterable<T>{
 	
 	/**
 	 * This class represents an AVLTreeNode that stores
-	 * the data element, both its children, and the height.
+	 * the data element, both its children, the height and
+	 * the number of nodes in its subtree.
 	 * @author Arjun Passi
 	 *
 	 */
@@ -32,6 +43,9 @@ public class AVLTree <T extends Comparable<? super T>>{
 		/** Reference to the height of the node*/
 		private int mHeight;
 		
+		/** Reference to the number of nodes in the subtree of the node*/
+		private int mCount;
+		
 		/**
 		 * Constructs a new AVL tree node.
 		 * @param element
@@ -43,15 +57,366 @@ public class AVLTree <T extends Comparable<? super T>>{
 			mLeft = left;
 			mRight = right;
 			mHeight = 0;
+			mCount = 1;
+		}
+	}
+	
+	/**
+	 * This class represents an iterator over the elements of
+	 * the tree in ascending or descending order. It holds the
+	 * path to the next element on a stack, so it uses memory
+	 * proportional to the height of the tree.
+	 * @author Arjun Passi
+	 *
+	 */
+	private class TreeIterator implements Iterator<T>{
+		
+		/** Reference to the nodes whose element and far subtree
+		 * are still to be visited, the next one on top */
+		private final AVLTreeNode[] mStack;
+		
+		/** Reference to the number of nodes on the stack */
+		private int mTop;
+		
+		/** Reference to the flag set for descending order */
+		private final boolean mDescending;
+		
+		/** Reference to the exclusive upper bound, or null */
+		private final T mHigh;
+		
+		/** Reference to the number of modifications expected */
+		private final int mExpectedModCount;
+		
+		/**
+		 * Constructs a new iterator.
+		 * @param descending : true for descending order
+		 * @param low : inclusive lower bound, or null
+		 * @param high : exclusive upper bound, or null
+		 */
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		public TreeIterator(boolean descending, T low, T high){
+			mStack = (AVLTreeNode[]) new AVLTree.AVLTreeNode[height(mRoot) + 1];
+			mDescending = descending;
+			mHigh = high;
+			mExpectedModCount = mModCount;
+			
+			//Push the path to the first element at least low
+			AVLTreeNode n = mRoot;
+			while(n != null){
+				if(low == null || descending || n.mData.compareTo(low) >= 0){
+					mStack[mTop++] = n;
+					n = descending ? n.mRight : n.mLeft;
+				}
+				else
+					n = n.mRight;
+			}
+		}
+		
+		public boolean hasNext(){
+			return mTop > 0 && (mHigh == null || mStack[mTop - 1].mData.compareTo(mHigh) < 0);
+		}
+		
+		public T next(){
+			if(mModCount != mExpectedModCount)
+				throw new ConcurrentModificationException();
+			if(!hasNext())
+				throw new NoSuchElementException("There is no next!");
+			
+			AVLTreeNode n = mStack[--mTop];
+			
+			for(AVLTreeNode child = mDescending ? n.mLeft : n.mRight; child != null;
+					child = mDescending ? child.mRight : child.mLeft)
+				mStack[mTop++] = child;
+			
+			return n.mData;
+		}
+	}
+	
+	/**
+	 * This class represents a spliterator over the elements of
+	 * the tree in ascending order. It covers an optional head
+	 * element followed by the elements of a subtree, all larger
+	 * than the head. Splitting hands the head and the left subtree
+	 * to a new spliterator and keeps the root of the subtree as
+	 * the head of its right subtree, so the parts stay balanced
+	 * like the tree and their sizes are known exactly.
+	 * @author Arjun Passi
+	 *
+	 */
+	private class TreeSpliterator implements Spliterator<T>{
+		
+		/** Reference to the node of the element covered first, or null */
+		private AVLTreeNode mHead;
+		
+		/** Reference to the subtree covered after the head */
+		private AVLTreeNode mSubTree;
+		
+		/** Reference to the number of elements not yet visited */
+		private int mRemaining;
+		
+		/** Reference to the path to the next element once traversal started */
+		private AVLTreeNode[] mStack;
+		
+		/** Reference to the number of nodes on the stack */
+		private int mTop;
+		
+		/** Reference to the number of modifications expected */
+		private final int mExpectedModCount;
+		
+		/**
+		 * Constructs a new spliterator.
+		 * @param head : node of the first element, or null
+		 * @param subTree : subtree covered after the head
+		 * @param expectedModCount
+		 */
+		public TreeSpliterator(AVLTreeNode head, AVLTreeNode subTree, int expectedModCount){
+			mHead = head;
+			mSubTree = subTree;
+			mRemaining = count(subTree) + ((head == null) ? 0 : 1);
+			mExpectedModCount = expectedModCount;
+		}
+		
+		public Spliterator<T> trySplit(){
+			AVLTreeNode n = mSubTree;
+			
+			//Parts are not split once traversal started
+			if(mStack != null || n == null || n.mLeft == null)
+				return null;
+			
+			TreeSpliterator prefix = new TreeSpliterator(mHead, n.mLeft, mExpectedModCount);
+			mHead = n;
+			mSubTree = n.mRight;
+			mRemaining -= prefix.mRemaining;
+			return prefix;
+		}
+		
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		public boolean tryAdvance(Consumer<? super T> action){
+			if(action == null)
+				throw new NullPointerException();
+			
+			if(mHead != null){
+				T data = mHead.mData;
+				mHead = null;
+				mRemaining--;
+				action.accept(data);
+				return true;
+			}
+			
+			if(mStack == null){
+				mStack = (AVLTreeNode[]) new AVLTree.AVLTreeNode[height(mSubTree) + 1];
+				for(AVLTreeNode n = mSubTree; n != null; n = n.mLeft)
+					mStack[mTop++] = n;
+			}
+			
+			if(mTop == 0)
+				return false;
+			
+			AVLTreeNode n = mStack[--mTop];
+			for(AVLTreeNode child = n.mRight; child != null; child = child.mLeft)
+				mStack[mTop++] = child;
+			
+			mRemaining--;
+			action.accept(n.mData);
+			
+			if(mModCount != mExpectedModCount)
+				throw new ConcurrentModificationException();
+			return true;
+		}
+		
+		public void forEachRemaining(Consumer<? super T> action){
+			if(action == null)
+				throw new NullPointerException();
+			
+			if(mStack != null){
+				while(tryAdvance(action));
+				return;
+			}
+			
+			if(mHead != null)
+				action.accept(mHead.mData);
+			forEach(mSubTree, action);
+			
+			mHead = null;
+			mSubTree = null;
+			mRemaining = 0;
+			
+			if(mModCount != mExpectedModCount)
+				throw new ConcurrentModificationException();
+		}
+		
+		/**
+		 * Helper method that passes the elements of a subtree
+		 * to the action in order.
+		 */
+		private void forEach(AVLTreeNode n, Consumer<? super T> action){
+			while(n != null){
+				forEach(n.mLeft, action);
+				action.accept(n.mData);
+				n = n.mRight;
+			}
+		}
+		
+		public long estimateSize(){
+			return mRemaining;
+		}
+		
+		public int characteristics(){
+			return SIZED | SUBSIZED | SORTED | DISTINCT | ORDERED | NONNULL;
+		}
+		
+		public Comparator<? super T> getComparator(){
+			//Elements are sorted by their natural order
+			return null;
 		}
 	}
 	
+	/**
+	 * This class represents the task that builds the subtree
+	 * of a range of sorted elements, building the two halves
+	 * in parallel while the range is large.
+	 * @author Arjun Passi
+	 *
+	 */
+	@SuppressWarnings("serial")
+	private class BuildTask extends RecursiveTask<AVLTreeNode>{
+		
+		/** Reference to the sorted elements */
+		private final Object[] mElements;
+		
+		/** Reference to the first index of the range */
+		private final int mFrom;
+		
+		/** Reference to the index after the range */
+		private final int mTo;
+		
+		public BuildTask(Object[] elements, int from, int to){
+			mElements = elements;
+			mFrom = from;
+			mTo = to;
+		}
+		
+		@Override
+		protected AVLTreeNode compute(){
+			if(mTo - mFrom < PARALLEL_THRESHOLD)
+				return build(mElements, mFrom, mTo);
+			
+			int middle = (mFrom + mTo) >>> 1;
+			BuildTask left = new BuildTask(mElements, mFrom, middle);
+			left.fork();
+			AVLTreeNode right = new BuildTask(mElements, middle + 1, mTo).compute();
+			
+			return createNode(mElements[middle], left.join(), right);
+		}
+	}
+	
+	/**
+	 * This class represents the result of splitting a subtree
+	 * by a key: the subtrees of the smaller and larger elements
+	 * and the node holding the key, if any.
+	 * @author Arjun Passi
+	 *
+	 */
+	private class Split{
+		
+		/** Reference to the subtree of the smaller elements */
+		private AVLTreeNode mLeft;
+		
+		/** Reference to the detached node holding the key, or null */
+		private AVLTreeNode mFound;
+		
+		/** Reference to the subtree of the larger elements */
+		private AVLTreeNode mRight;
+	}
+	
+	/**
+	 * This class represents the task that combines a subtree
+	 * of this tree with a subtree of another tree, recursing on
+	 * both halves in parallel while the subtrees are large. The
+	 * nodes of this tree are reused; the other tree is only read.
+	 * @author Arjun Passi
+	 *
+	 */
+	@SuppressWarnings("serial")
+	private class SetTask extends RecursiveTask<AVLTreeNode>{
+		
+		/** Reference to the operation performed */
+		private final int mOperation;
+		
+		/** Reference to the subtree of this tree */
+		private final AVLTreeNode mMine;
+		
+		/** Reference to the subtree of the other tree */
+		private final AVLTreeNode mOther;
+		
+		public SetTask(int operation, AVLTreeNode mine, AVLTreeNode other){
+			mOperation = operation;
+			mMine = mine;
+			mOther = other;
+		}
+		
+		@Override
+		protected AVLTreeNode compute(){
+			AVLTreeNode mine = mMine;
+			AVLTreeNode other = mOther;
+			
+			if(mine == null)
+				return (mOperation == UNION) ? copy(other) : null;
+			if(other == null)
+				return (mOperation == INTERSECT) ? null : mine;
+			
+			Split split = split(mine, other.mData);
+			SetTask left = new SetTask(mOperation, split.mLeft, other.mLeft);
+			SetTask right = new SetTask(mOperation, split.mRight, other.mRight);
+			AVLTreeNode l, r;
+			
+			if(count(mine) + count(other) >= PARALLEL_THRESHOLD){
+				left.fork();
+				r = right.compute();
+				l = left.join();
+			}
+			else{
+				l = left.compute();
+				r = right.compute();
+			}
+			
+			switch(mOperation){
+			case UNION:
+				AVLTreeNode middle = (split.mFound != null) ? split.mFound
+						: new AVLTreeNode(other.mData, null, null);
+				return AVLTree.this.join(l, middle, r);
+			case INTERSECT:
+				return (split.mFound != null) ? AVLTree.this.join(l, split.mFound, r)
+						: AVLTree.this.join(l, r);
+			default:
+				return AVLTree.this.join(l, r);
+			}
+		}
+	}
+	
+	/** Reference to the codes of the set operations */
+	private static final int UNION = 0;
+	private static final int INTERSECT = 1;
+	private static final int DIFFERENCE = 2;
+	
+	/** Reference to the number of elements below which subtrees
+	 * are built or combined sequentially */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+	
 	/** Reference to the root of the tree*/
 	private AVLTreeNode mRoot;
 	
 	/** Reference to the size of the tree*/
 	private int mSize;
 	
+	/** Reference to the number of structural modifications,
+	 * used to detect iterators that are out of date */
+	private int mModCount;
+	
+	/** Reference to the nodes on the path of the last insert
+	 * or remove, reused between calls */
+	private AVLTreeNode[] mPath;
+	
 	/**
 	 * Constructs a new AVL tree
 	 */
@@ -60,6 +425,122 @@ public class AVLTree <T extends Comparable<? super T>>{
 		mSize = 0;
 	}
 	
+	/**
+	 * Method that builds a tree holding the elements of a
+	 * sorted list in linear time, instead of inserting them one
+	 * at a time. The tree is perfectly balanced.
+	 * 
+	 * Throws an IllegalArgumentException if the list is null,
+	 * holds a null element or is not strictly increasing.
+	 * 
+	 * @param sorted : elements in strictly increasing order
+	 * @return tree of the elements
+	 */
+	public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(List<? extends T> sorted){
+		return fromSorted(sorted, false);
+	}
+	
+	/**
+	 * Method that builds a tree holding the elements of a
+	 * sorted list, building large subtrees in parallel with
+	 * the common fork-join pool if requested.
+	 * 
+	 * @param sorted : elements in strictly increasing order
+	 * @param parallel : true to build subtrees in parallel
+	 * @return tree of the elements
+	 * @see #fromSorted(List)
+	 */
+	public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(List<? extends T> sorted,
+			boolean parallel){
+		if(sorted == null)
+			throw new IllegalArgumentException("List is null");
+		
+		return build(sorted.toArray(), parallel);
+	}
+	
+	/**
+	 * Method that builds a tree holding the elements of a
+	 * sorted array in linear time.
+	 * 
+	 * @param sorted : elements in strictly increasing order
+	 * @return tree of the elements
+	 * @see #fromSorted(List)
+	 */
+	public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(T[] sorted){
+		return fromSorted(sorted, false);
+	}
+	
+	/**
+	 * Method that builds a tree holding the elements of a
+	 * sorted array, building large subtrees in parallel with
+	 * the common fork-join pool if requested.
+	 * 
+	 * @param sorted : elements in strictly increasing order
+	 * @param parallel : true to build subtrees in parallel
+	 * @return tree of the elements
+	 * @see #fromSorted(List)
+	 */
+	public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(T[] sorted, boolean parallel){
+		if(sorted == null)
+			throw new IllegalArgumentException("Array is null");
+		
+		return build(sorted, parallel);
+	}
+	
+	/**
+	 * Helper method that checks the elements and builds
+	 * the tree.
+	 * @param elements
+	 * @param parallel
+	 * @return tree of the elements
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends Comparable<? super T>> AVLTree<T> build(Object[] elements, boolean parallel){
+		for(int i = 0; i < elements.length; i++){
+			if(elements[i] == null)
+				throw new IllegalArgumentException("Element is null");
+			if(i > 0 && ((T) elements[i]).compareTo((T) elements[i - 1]) <= 0)
+				throw new IllegalArgumentException("Elements are not strictly increasing");
+		}
+		
+		AVLTree<T> tree = new AVLTree<T>();
+		
+		if(parallel && elements.length >= PARALLEL_THRESHOLD)
+			tree.mRoot = ForkJoinPool.commonPool().invoke(tree.new BuildTask(elements, 0, elements.length));
+		else
+			tree.mRoot = tree.build(elements, 0, elements.length);
+		
+		tree.mSize = elements.length;
+		return tree;
+	}
+	
+	/**
+	 * Helper method that builds the subtree of a range of
+	 * sorted elements, rooted at the middle element.
+	 * @param elements
+	 * @param from : first index of the range
+	 * @param to : index after the range
+	 * @return root of the subtree, null for an empty range
+	 */
+	private AVLTreeNode build(Object[] elements, int from, int to){
+		if(from >= to)
+			return null;
+		
+		int middle = (from + to) >>> 1;
+		return createNode(elements[middle], build(elements, from, middle), build(elements, middle + 1, to));
+	}
+	
+	/**
+	 * Helper method that creates a node with the provided
+	 * children and computes its height and subtree size.
+	 */
+	@SuppressWarnings("unchecked")
+	private AVLTreeNode createNode(Object data, AVLTreeNode left, AVLTreeNode right){
+		AVLTreeNode n = new AVLTreeNode((T) data, left, right);
+		update(n);
+		return n;
+	}
+	
 	/**
 	 * The "find" method allows to search a desired
 	 * data element in the tree.
@@ -68,28 +549,31 @@ public class AVLTree <T extends Comparable<? super T>>{
 	 * otherwise null.
 	 */
 	public T find(T data){
-		if(data == null)
-			return null;
-		return find(mRoot, data);
+		AVLTreeNode n = node(data);
+		return (n == null) ? null : n.mData;
 	}
 	
 	/**
-	 * This method recursively finds the provided
-	 * data element in the tree.
-	 * @param n
+	 * Helper method to find the node holding the provided
+	 * data element, comparing once per level.
 	 * @param data
-	 * @return
+	 * @return node of the element otherwise null.
 	 */
-	private T find(AVLTreeNode n, T data){
-		//Provided node is null
-		if(n == null)
+	private AVLTreeNode node(T data){
+		if(data == null)
 			return null;
-		if(n.mData.compareTo(data) == 0)
-			return n.mData;
-		else if(data.compareTo(n.mData) > 0)
-			return find(n.mRight, data);
-		else
-			return find(n.mLeft, data);
+		
+		AVLTreeNode n = mRoot;
+		
+		while(n != null){
+			int cmp = data.compareTo(n.mData);
+			
+			if(cmp == 0)
+				return n;
+			n = (cmp < 0) ? n.mLeft : n.mRight;
+		}
+		
+		return null;
 	}
 	
 	/**
@@ -156,28 +640,7 @@ public class AVLTree <T extends Comparable<? super T>>{
 	 * otherwise false.
 	 */
 	public boolean contains(T data){
-		if(data == null)
-			return false;
-		
-		return contains(mRoot, data);
-	}
-	
-	/**
-	 * Helper method to recursively find the provided
-	 * data in the tree.
-	 * @param n : AVLTreeNode
-	 * @param data : data element to be found
-	 * @return true if the element exists otherwise false.
-	 */
-	private boolean contains(AVLTreeNode n, T data){
-		if(n == null)
-			return false;
-		if(data.compareTo(n.mData) == 0)
-			return true;
-		else if(data.compareTo(n.mData) > 0)
-			return contains(n.mRight, data);
-		else
-			return contains(n.mLeft, data);
+		return node(data) != null;
 	}
 	
 	/**
@@ -190,41 +653,43 @@ public class AVLTree <T extends Comparable<? super T>>{
 	public boolean insert(T data){
 		if(data == null)
 			return false;
-		try{
-			mRoot = insert(mRoot, data);
+		
+		if(mRoot == null){
+			mRoot = new AVLTreeNode(data, null, null);
 			mSize++;
+			mModCount++;
 			return true;
-		} catch(IllegalArgumentException e){
-			return false;
 		}
-	}
-	
-	/**
-	 * Helper method to recursively insert a data element
-	 * in the tree. Throws an illegal argument exception
-	 * when duplicate is being added.
-	 * @param n
-	 * @param data
-	 * @return AVLTreeNode
-	 */
-	private AVLTreeNode insert(AVLTreeNode n, T data){
-		if(n == null)
-			return new AVLTreeNode(data, null, null);
 		
-		if(n.mData.compareTo(data) == 0)
-			throw new IllegalArgumentException("Duplicates not Allowed!");
-		else if(data.compareTo(n.mData) > 0)
-			n.mRight = insert(n.mRight, data);
-		else
-			n.mLeft = insert(n.mLeft, data);
+		AVLTreeNode[] path = path();
+		int depth = 0;
+		AVLTreeNode n = mRoot;
+		int cmp;
+		
+		//Walk down to the parent of the new leaf
+		while(true){
+			cmp = data.compareTo(n.mData);
+			if(cmp == 0){
+				clear(path, depth);
+				return false;
+			}
+			
+			path[depth++] = n;
+			AVLTreeNode next = (cmp < 0) ? n.mLeft : n.mRight;
+			if(next == null)
+				break;
+			n = next;
+		}
 		
-		//Max Allowed height difference in an AVL tree is 1
-		if(Math.abs(difference(n)) != 1)
-			n = performRotation(n);
+		if(cmp < 0)
+			n.mLeft = new AVLTreeNode(data, null, null);
+		else
+			n.mRight = new AVLTreeNode(data, null, null);
 		
-		//update the height of the node
-		n.mHeight = Math.max(height(n.mLeft), height(n.mRight)) + 1;
-		return n;
+		mSize++;
+		mModCount++;
+		rebalance(path, depth);
+		return true;
 	}
 	
 	/**
@@ -236,80 +701,111 @@ public class AVLTree <T extends Comparable<? super T>>{
 	public boolean remove(T data){
 		if(data == null)
 			return false;
-		try{
-			mRoot = remove(mRoot, data);
-			mSize--;
-			return true;
-		} catch(IllegalArgumentException e){
+		
+		AVLTreeNode[] path = path();
+		int depth = 0;
+		AVLTreeNode n = mRoot;
+		
+		while(n != null){
+			int cmp = data.compareTo(n.mData);
+			if(cmp == 0)
+				break;
+			
+			path[depth++] = n;
+			n = (cmp < 0) ? n.mLeft : n.mRight;
+		}
+		
+		if(n == null){
+			clear(path, depth);
 			return false;
 		}
+		
+		if(n.mLeft != null && n.mRight != null){
+			//Replace the data with its successor and unlink the successor instead
+			path[depth++] = n;
+			AVLTreeNode successor = n.mRight;
+			while(successor.mLeft != null){
+				path[depth++] = successor;
+				successor = successor.mLeft;
+			}
+			n.mData = successor.mData;
+			n = successor;
+		}
+		
+		AVLTreeNode child = (n.mLeft != null) ? n.mLeft : n.mRight;
+		replaceChild((depth == 0) ? null : path[depth - 1], n, child);
+		
+		mSize--;
+		mModCount++;
+		rebalance(path, depth);
+		return true;
 	}
 	
 	/**
-	 * Helper function to recursively find and remove
-	 * the element in the AVL tree. Throws an illegal
-	 * argument exception if the element is not in the
-	 * AVL tree.
-	 * @param n
-	 * @param data
-	 * @return AVLTreeNode
+	 * Helper method that restores the balance and heights of the
+	 * nodes on the path, from the deepest one up to the root. It
+	 * stops as soon as a subtree keeps its height, since the nodes
+	 * above it are then unchanged.
+	 * @param path : nodes from the root down
+	 * @param depth : number of nodes on the path
 	 */
-	private AVLTreeNode remove(AVLTreeNode n, T data){
-		if(n == null)
-			throw new IllegalArgumentException("Element Not Found!");
-		
-		if(n.mData.compareTo(data) == 0)
-			return remove(n);
-		else if(data.compareTo(n.mData) > 0)
-			n.mRight = remove(n.mRight, data);
-		else
-			n.mLeft = remove(n.mLeft, data);
-		
-		//Max Allowed height difference in an AVL tree is 1
-		if(Math.abs(difference(n)) != 1)
-			n = performRotation(n);
-				
-		//update the height of the node
-		n.mHeight = Math.max(height(n.mLeft), height(n.mRight)) + 1;
-		return n;
+	private void rebalance(AVLTreeNode[] path, int depth){
+		for(int i = depth - 1; i >= 0; i--){
+			AVLTreeNode n = path[i];
+			int oldHeight = n.mHeight;
+			AVLTreeNode subRoot = performRotation(n);
+			
+			if(subRoot != n)
+				replaceChild((i == 0) ? null : path[i - 1], n, subRoot);
+			path[i] = null;
+			
+			if(subRoot.mHeight == oldHeight){
+				//Only the subtree sizes of the nodes above change
+				while(--i >= 0){
+					update(path[i]);
+					path[i] = null;
+				}
+				return;
+			}
+		}
 	}
 	
 	/**
-	 * Helper method to remove the desired AVLTreeNode
-	 * from the AVL tree.
-	 * @param n
-	 * @return
+	 * Helper method that drops the references held by the
+	 * first nodes of the path.
 	 */
-	private AVLTreeNode remove(AVLTreeNode n){
-		if(n == null)
-			return null;
-		
-		if(n.mLeft == null && n.mRight == null)
-			return null;
-		else if(n.mLeft == null && n.mRight != null)
-			return n.mRight;
-		else if(n.mLeft != null && n.mRight == null)
-			return n.mLeft;
-		else {
-			T data = findMin(n.mRight);
-			n = remove(n, data);
-			n.mData = data;
-			return n;
-		}
+	private void clear(AVLTreeNode[] path, int depth){
+		while(depth > 0)
+			path[--depth] = null;
 	}
 	
 	/**
-	 * Helper method to find the minimum data element
-	 * provided an AVL node.
-	 * @param subRoot
-	 * @return minimum element in the provided sub-tree
+	 * Helper method that replaces a child of the provided
+	 * parent, or the root if there is no parent.
+	 * @param parent
+	 * @param child : child being replaced
+	 * @param replacement
 	 */
-	private T findMin(AVLTreeNode subRoot){
-		if(subRoot == null)
-			return null;
-		if(subRoot.mLeft == null)
-			return subRoot.mData;
-		return findMin(subRoot.mLeft);
+	private void replaceChild(AVLTreeNode parent, AVLTreeNode child, AVLTreeNode replacement){
+		if(parent == null)
+			mRoot = replacement;
+		else if(parent.mLeft == child)
+			parent.mLeft = replacement;
+		else
+			parent.mRight = replacement;
+	}
+	
+	/**
+	 * Helper method that returns an array able to hold
+	 * the longest path from the root to a leaf.
+	 * @return array for the path
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private AVLTreeNode[] path(){
+		int length = height(mRoot) + 2;
+		if(mPath == null || mPath.length < length)
+			mPath = (AVLTreeNode[]) new AVLTree.AVLTreeNode[length + 8];
+		return mPath;
 	}
 	
 	/**
@@ -347,12 +843,481 @@ public class AVLTree <T extends Comparable<? super T>>{
 		return mSize;
 	}
 	
+	/**
+	 * Method to retrieve the position of the provided data
+	 * element in the sorted order of the tree.
+	 * @param data
+	 * @return number of smaller elements if the element
+	 * exists in the tree otherwise -1.
+	 */
+	public int rank(T data){
+		if(data == null)
+			return -1;
+		
+		AVLTreeNode n = mRoot;
+		int rank = 0;
+		
+		while(n != null){
+			int cmp = data.compareTo(n.mData);
+			
+			if(cmp == 0)
+				return rank + count(n.mLeft);
+			if(cmp < 0)
+				n = n.mLeft;
+			else{
+				rank += count(n.mLeft) + 1;
+				n = n.mRight;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Method to retrieve the element at the provided position
+	 * in the sorted order of the tree.
+	 * 
+	 * Throws an IndexOutOfBoundsException if the index is
+	 * negative or not smaller than the size of the tree.
+	 * 
+	 * @param index : 0 for the minimum element
+	 * @return element at the position
+	 * @throws IndexOutOfBoundsException
+	 */
+	public T select(int index) throws IndexOutOfBoundsException{
+		if(index < 0 || index >= mSize)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+		
+		AVLTreeNode n = mRoot;
+		
+		while(true){
+			int left = count(n.mLeft);
+			
+			if(index == left)
+				return n.mData;
+			if(index < left)
+				n = n.mLeft;
+			else{
+				index -= left + 1;
+				n = n.mRight;
+			}
+		}
+	}
+	
+	/**
+	 * Method to count the elements of the tree smaller than
+	 * the provided data element, which need not be in the tree.
+	 * 
+	 * Throws an IllegalArgumentException if the data is null.
+	 * 
+	 * @param data
+	 * @return number of smaller elements
+	 */
+	public int countLessThan(T data){
+		if(data == null)
+			throw new IllegalArgumentException("Data is null");
+		
+		AVLTreeNode n = mRoot;
+		int count = 0;
+		
+		while(n != null){
+			if(data.compareTo(n.mData) <= 0)
+				n = n.mLeft;
+			else{
+				count += count(n.mLeft) + 1;
+				n = n.mRight;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Method to count the elements of the tree that are at
+	 * least lo and smaller than hi.
+	 * 
+	 * Throws an IllegalArgumentException if a bound is null.
+	 * 
+	 * @param lo : inclusive lower bound
+	 * @param hi : exclusive upper bound
+	 * @return number of elements in the range
+	 */
+	public int countInRange(T lo, T hi){
+		if(lo == null || hi == null)
+			throw new IllegalArgumentException("Bound is null");
+		if(lo.compareTo(hi) >= 0)
+			return 0;
+		
+		return countLessThan(hi) - countLessThan(lo);
+	}
+	
+	/**
+	 * Method that adds every element of the provided tree to
+	 * this tree. The trees are split and joined around the
+	 * elements of the provided tree instead of inserting the
+	 * elements one at a time, and large subtrees are combined
+	 * in parallel. The provided tree is left unchanged.
+	 * 
+	 * @param tree
+	 * @return true if this tree changed otherwise false
+	 */
+	public boolean union(AVLTree<T> tree){
+		if(tree == null || tree == this)
+			return false;
+		
+		return combine(UNION, tree);
+	}
+	
+	/**
+	 * Method that removes the elements of this tree that are
+	 * not in the provided tree.
+	 * 
+	 * @param tree
+	 * @return true if this tree changed otherwise false
+	 * @see #union(AVLTree)
+	 */
+	public boolean intersect(AVLTree<T> tree){
+		if(tree == this)
+			return false;
+		if(tree == null)
+			tree = new AVLTree<T>();
+		
+		return combine(INTERSECT, tree);
+	}
+	
+	/**
+	 * Method that removes the elements of the provided tree
+	 * from this tree.
+	 * 
+	 * @param tree
+	 * @return true if this tree changed otherwise false
+	 * @see #union(AVLTree)
+	 */
+	public boolean difference(AVLTree<T> tree){
+		if(tree == null)
+			return false;
+		if(tree == this){
+			boolean changed = mSize > 0;
+			removeAll();
+			return changed;
+		}
+		
+		return combine(DIFFERENCE, tree);
+	}
+	
+	/**
+	 * Method that cuts this tree at the provided key. The
+	 * elements smaller than the key stay in this tree and the
+	 * others are moved to the returned tree. Only the nodes on
+	 * the path to the key are rebalanced, so the cost is
+	 * O(log n).
+	 * 
+	 * Throws an IllegalArgumentException if the key is null.
+	 * 
+	 * @param key
+	 * @return tree of the elements greater than or equal to the key
+	 */
+	public AVLTree<T> split(T key){
+		if(key == null)
+			throw new IllegalArgumentException("Key is null");
+		
+		Split split = split(mRoot, key);
+		AVLTree<T> tree = new AVLTree<T>();
+		
+		tree.mRoot = (split.mFound == null) ? split.mRight : join(null, split.mFound, split.mRight);
+		tree.mSize = count(tree.mRoot);
+		mRoot = split.mLeft;
+		mSize = count(mRoot);
+		mModCount++;
+		return tree;
+	}
+	
+	/**
+	 * Method that moves every element of the provided tree to
+	 * the end of this tree. The provided tree is empty afterwards.
+	 * The shorter tree is attached along the spine of the taller
+	 * one, so the cost is O(log n).
+	 * 
+	 * Throws an IllegalArgumentException if the tree is this tree
+	 * or if an element of the provided tree is not larger than
+	 * every element of this tree.
+	 * 
+	 * @param tree : tree of larger elements
+	 */
+	public void join(AVLTree<T> tree){
+		if(tree == null || tree.mRoot == null)
+			return;
+		if(tree == this)
+			throw new IllegalArgumentException("Tree can not be joined to itself");
+		if(mRoot != null && max().compareTo(tree.min()) >= 0)
+			throw new IllegalArgumentException("Elements of the tree are not all larger");
+		
+		mRoot = join(mRoot, tree.mRoot);
+		mSize = count(mRoot);
+		mModCount++;
+		tree.removeAll();
+	}
+	
+	/**
+	 * Helper method that performs a set operation with the
+	 * provided tree and updates the size of this tree.
+	 * @param operation
+	 * @param tree
+	 * @return true if the size of this tree changed
+	 */
+	private boolean combine(int operation, AVLTree<T> tree){
+		int before = mSize;
+		SetTask task = new SetTask(operation, mRoot, tree.mRoot);
+		
+		if(mSize + tree.mSize >= PARALLEL_THRESHOLD)
+			mRoot = ForkJoinPool.commonPool().invoke(task);
+		else
+			mRoot = task.compute();
+		
+		mSize = count(mRoot);
+		mModCount++;
+		return mSize != before;
+	}
+	
+	/**
+	 * Helper method that joins two subtrees and a node whose
+	 * element lies between them into one balanced subtree. The
+	 * smaller subtree is attached at the height of the other one,
+	 * so the cost is the difference of their heights.
+	 * @param left : subtree of the smaller elements
+	 * @param n : detached node
+	 * @param right : subtree of the larger elements
+	 * @return root of the joined subtree
+	 */
+	private AVLTreeNode join(AVLTreeNode left, AVLTreeNode n, AVLTreeNode right){
+		if(height(left) > height(right) + 1)
+			return joinRight(left, n, right);
+		if(height(right) > height(left) + 1)
+			return joinLeft(left, n, right);
+		
+		n.mLeft = left;
+		n.mRight = right;
+		update(n);
+		return n;
+	}
+	
+	/**
+	 * Helper method that joins a shorter right subtree into the
+	 * right spine of a taller left subtree.
+	 */
+	private AVLTreeNode joinRight(AVLTreeNode left, AVLTreeNode n, AVLTreeNode right){
+		if(height(left.mRight) <= height(right) + 1){
+			n.mLeft = left.mRight;
+			n.mRight = right;
+			update(n);
+			left.mRight = n;
+		}
+		else
+			left.mRight = joinRight(left.mRight, n, right);
+		
+		return performRotation(left);
+	}
+	
+	/**
+	 * Helper method that joins a shorter left subtree into the
+	 * left spine of a taller right subtree.
+	 */
+	private AVLTreeNode joinLeft(AVLTreeNode left, AVLTreeNode n, AVLTreeNode right){
+		if(height(right.mLeft) <= height(left) + 1){
+			n.mLeft = left;
+			n.mRight = right.mLeft;
+			update(n);
+			right.mLeft = n;
+		}
+		else
+			right.mLeft = joinLeft(left, n, right.mLeft);
+		
+		return performRotation(right);
+	}
+	
+	/**
+	 * Helper method that joins two subtrees, all elements of
+	 * the left one being smaller, using the maximum of the left
+	 * subtree as the middle node.
+	 * @return root of the joined subtree
+	 */
+	private AVLTreeNode join(AVLTreeNode left, AVLTreeNode right){
+		if(left == null)
+			return right;
+		if(right == null)
+			return left;
+		
+		Split split = new Split();
+		split.mLeft = removeMax(left, split);
+		return join(split.mLeft, split.mFound, right);
+	}
+	
+	/**
+	 * Helper method that detaches the node of the maximum
+	 * element of a subtree into split.mFound.
+	 * @return root of the remaining subtree
+	 */
+	private AVLTreeNode removeMax(AVLTreeNode n, Split split){
+		if(n.mRight == null){
+			split.mFound = n;
+			AVLTreeNode left = n.mLeft;
+			n.mLeft = null;
+			return left;
+		}
+		
+		n.mRight = removeMax(n.mRight, split);
+		return performRotation(n);
+	}
+	
+	/**
+	 * Helper method that splits a subtree by a key. The nodes
+	 * of the subtree are reused for the parts.
+	 * @param n : root of the subtree
+	 * @param key
+	 * @return the parts of the subtree
+	 */
+	private Split split(AVLTreeNode n, T key){
+		Split split = new Split();
+		split(n, key, split);
+		return split;
+	}
+	
+	/**
+	 * Helper method that recursively splits a subtree by a key,
+	 * joining each node passed with the part on its side on the
+	 * way back up.
+	 */
+	private void split(AVLTreeNode n, T key, Split split){
+		if(n == null){
+			split.mLeft = null;
+			split.mFound = null;
+			split.mRight = null;
+			return;
+		}
+		
+		int cmp = key.compareTo(n.mData);
+		AVLTreeNode left = n.mLeft;
+		AVLTreeNode right = n.mRight;
+		
+		if(cmp == 0){
+			n.mLeft = null;
+			n.mRight = null;
+			update(n);
+			split.mLeft = left;
+			split.mFound = n;
+			split.mRight = right;
+		}
+		else if(cmp < 0){
+			split(left, key, split);
+			split.mRight = join(split.mRight, n, right);
+		}
+		else{
+			split(right, key, split);
+			split.mLeft = join(left, n, split.mLeft);
+		}
+	}
+	
+	/**
+	 * Helper method that copies a subtree of another tree
+	 * into new nodes of this tree.
+	 * @param n
+	 * @return root of the copy
+	 */
+	private AVLTreeNode copy(AVLTreeNode n){
+		if(n == null)
+			return null;
+		
+		AVLTreeNode copy = new AVLTreeNode(n.mData, copy(n.mLeft), copy(n.mRight));
+		copy.mHeight = n.mHeight;
+		copy.mCount = n.mCount;
+		return copy;
+	}
+	
 	/**
 	 * Removes all the elements in the AVL tree.
 	 */
 	public void removeAll(){
 		mSize = 0;
 		mRoot = null;
+		mModCount++;
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements
+	 * of the tree in ascending order. Elements are found as
+	 * the iterator advances instead of being copied first.
+	 * 
+	 * Throws a ConcurrentModificationException if the tree is
+	 * modified while it is being iterated.
+	 * 
+	 * @return iterator in ascending order
+	 */
+	@Override
+	public Iterator<T> iterator(){
+		return new TreeIterator(false, null, null);
+	}
+	
+	/**
+	 * Method that returns a spliterator over the elements of
+	 * the tree in ascending order. It splits at subtree
+	 * boundaries, so parallel streams divide the tree without
+	 * copying it.
+	 * 
+	 * @return spliterator in ascending order
+	 */
+	@Override
+	public Spliterator<T> spliterator(){
+		return new TreeSpliterator(null, mRoot, mModCount);
+	}
+	
+	/**
+	 * Method that returns a sequential stream of the elements
+	 * of the tree in ascending order.
+	 * 
+	 * @return stream of the elements
+	 */
+	public Stream<T> stream(){
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Method that returns a parallel stream of the elements
+	 * of the tree in ascending order.
+	 * 
+	 * @return parallel stream of the elements
+	 */
+	public Stream<T> parallelStream(){
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements
+	 * of the tree in descending order.
+	 * 
+	 * @return iterator in descending order
+	 * @see #iterator()
+	 */
+	public Iterator<T> descendingIterator(){
+		return new TreeIterator(true, null, null);
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements of
+	 * the tree that are at least lo and smaller than hi, in
+	 * ascending order.
+	 * 
+	 * Throws an IllegalArgumentException if a bound is null.
+	 * 
+	 * @param lo : inclusive lower bound
+	 * @param hi : exclusive upper bound
+	 * @return iterator over the range
+	 * @see #iterator()
+	 */
+	public Iterator<T> iterator(T lo, T hi){
+		if(lo == null || hi == null)
+			throw new IllegalArgumentException("Bound is null");
+		
+		return new TreeIterator(false, lo, hi);
 	}
 	/**
 	 * Method to insert all the elements in the tree to
@@ -382,29 +1347,29 @@ public class AVLTree <T extends Comparable<? super T>>{
 	/**
 	 * Helper method to perform a rotation on the provided
 	 * node based on the height difference of the left and
-	 * the right children.
+	 * the right children. The height of the node is updated
+	 * when no rotation is required.
 	 * @param n
 	 * @return new sub root
 	 */
 	private AVLTreeNode performRotation(AVLTreeNode n){
 		if(n == null) return null;
 		
-		//Rotation not required
-		if(Math.abs(difference(n)) != 2)
-			return n;
+		int difference = difference(n);
 		
-		if(difference(n) == 2 && difference(n.mLeft) == 1)
-			n = rightRotateLeftChild(n);
-		else if(difference(n) == 2 && difference(n.mLeft) == -1){
-			n.mLeft = leftRotateRightChild(n.mLeft);
-			n = rightRotateLeftChild(n);
+		if(difference > 1){
+			if(difference(n.mLeft) < 0)
+				n.mLeft = leftRotateRightChild(n.mLeft);
+			return rightRotateLeftChild(n);
 		}
-		else if(difference(n) == -2 && difference(n.mRight) == -1)
-			n = leftRotateRightChild(n);
-		else{
-			n.mRight = rightRotateLeftChild(n.mRight);
-			n = leftRotateRightChild(n);
+		else if(difference < -1){
+			if(difference(n.mRight) > 0)
+				n.mRight = rightRotateLeftChild(n.mRight);
+			return leftRotateRightChild(n);
 		}
+		
+		//Rotation not required
+		update(n);
 		return n;
 	}
 	
@@ -422,10 +1387,9 @@ public class AVLTree <T extends Comparable<? super T>>{
 		n.mLeft = newSubRoot.mRight;
 		newSubRoot.mRight = n;
 		
-		//Adjusting the heights of the old and new sub root.
-		newSubRoot.mHeight = Math.max(height(newSubRoot.mLeft),
-				height(newSubRoot.mRight)) + 1;
-		n.mHeight = Math.max(height(n.mLeft), height(n.mRight)) +1;
+		//Adjusting the heights and sizes of the old and new sub root.
+		update(n);
+		update(newSubRoot);
 		
 		return newSubRoot;
 	}
@@ -444,10 +1408,9 @@ public class AVLTree <T extends Comparable<? super T>>{
 		n.mRight = newSubRoot.mLeft;
 		newSubRoot.mLeft = n;
 		
-		//Adjusting the heights of the old and new sub root.
-		newSubRoot.mHeight = Math.max(height(newSubRoot.mLeft), 
-				height(newSubRoot.mRight)) + 1;
-		n.mHeight = Math.max(height(n.mLeft), height(n.mRight)) +1;
+		//Adjusting the heights and sizes of the old and new sub root.
+		update(n);
+		update(newSubRoot);
 		return newSubRoot;
 	}
 	
@@ -461,6 +1424,26 @@ public class AVLTree <T extends Comparable<? super T>>{
 		return (n == null) ? -1 : n.mHeight;
 	}
 	
+	/**
+	 * Helper method that recomputes the height and subtree
+	 * size of a node from its children.
+	 * @param n
+	 */
+	private void update(AVLTreeNode n){
+		n.mHeight = Math.max(height(n.mLeft), height(n.mRight)) + 1;
+		n.mCount = count(n.mLeft) + count(n.mRight) + 1;
+	}
+	
+	/**
+	 * Method to retrieve the number of nodes in the
+	 * subtree of an avl node.
+	 * @param n- AVL node
+	 * @return size of the subtree, 0 if no node is provided.
+	 */
+	private int count(AVLTreeNode n){
+		return (n == null) ? 0 : n.mCount;
+	}
+	
 	/**
 	 * Helper method to determine whether a rotation
 	 * is required or not.
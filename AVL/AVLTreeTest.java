@@ -2,6 +2,14 @@ package AVL;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -172,6 +180,308 @@ public class AVLTreeTest {
 		
 	}
 	
+	/**
+	 * Test method for {@link AVLTree#insert(Comparable)} and
+	 * {@link AVLTree#remove(Comparable)} with duplicates and
+	 * missing elements
+	 */
+	@Test
+	public void testRandomInsertRemove(){
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random random = new Random(40);
+		
+		for(int i = 0; i < 20000; i++){
+			int data = random.nextInt(500);
+			if(random.nextBoolean())
+				assertEquals(mTestTree.insert(data), expected.add(data));
+			else
+				assertEquals(mTestTree.remove(data), expected.remove(data));
+			assertEquals(mTestTree.size(), expected.size());
+		}
+		
+		assertEquals(new ArrayList<Integer>(expected), mTestTree.inOrderTraversal());
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#rank(Comparable)} and
+	 * {@link AVLTree#select(int)}
+	 */
+	@Test
+	public void testRankSelect(){
+		for(int i = 0; i < 1000; i++)
+			assertTrue(mTestTree.insert(i * 2));
+		for(int i = 0; i < 1000; i += 3)
+			assertTrue(mTestTree.remove(i * 2));
+		
+		ArrayList<Integer> list = new ArrayList<Integer>(mTestTree.inOrderTraversal());
+		
+		for(int i = 0; i < list.size(); i++){
+			assertEquals(mTestTree.select(i), list.get(i));
+			assertEquals(mTestTree.rank(list.get(i)), i);
+		}
+		
+		assertEquals(mTestTree.rank(1), -1);
+		assertEquals(mTestTree.rank(0), -1);
+		assertEquals(mTestTree.rank(null), -1);
+		
+		try{
+			mTestTree.select(list.size());
+			fail("Index past the last element must be rejected");
+		} catch(IndexOutOfBoundsException e){
+		}
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#countLessThan(Comparable)} and
+	 * {@link AVLTree#countInRange(Comparable, Comparable)}
+	 */
+	@Test
+	public void testCountInRange(){
+		for(int i = 0; i < 100; i++)
+			assertTrue(mTestTree.insert(i * 10));
+		
+		assertEquals(mTestTree.countLessThan(0), 0);
+		assertEquals(mTestTree.countLessThan(5), 1);
+		assertEquals(mTestTree.countLessThan(10), 1);
+		assertEquals(mTestTree.countLessThan(5000), 100);
+		
+		assertEquals(mTestTree.countInRange(10, 50), 4);
+		assertEquals(mTestTree.countInRange(5, 55), 5);
+		assertEquals(mTestTree.countInRange(-100, 5000), 100);
+		assertEquals(mTestTree.countInRange(50, 10), 0);
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#iterator()} and
+	 * {@link AVLTree#descendingIterator()}
+	 */
+	@Test
+	public void testIterator(){
+		assertFalse(mTestTree.iterator().hasNext());
+		
+		for(int i = 999; i >= 0; i--)
+			assertTrue(mTestTree.insert(i));
+		
+		int expected = 0;
+		for(Integer data : mTestTree)
+			assertEquals(data, (Integer) expected++);
+		assertEquals(expected, 1000);
+		
+		Iterator<Integer> descending = mTestTree.descendingIterator();
+		for(int i = 999; i >= 0; i--)
+			assertEquals(descending.next(), (Integer) i);
+		assertFalse(descending.hasNext());
+		
+		try{
+			descending.next();
+			fail("Exhausted iterator must not return an element");
+		} catch(NoSuchElementException e){
+		}
+		
+		Iterator<Integer> iterator = mTestTree.iterator();
+		iterator.next();
+		mTestTree.remove(500);
+		try{
+			iterator.next();
+			fail("Modified tree must be detected");
+		} catch(ConcurrentModificationException e){
+		}
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#iterator(Comparable, Comparable)}
+	 */
+	@Test
+	public void testRangeIterator(){
+		for(int i = 0; i < 100; i++)
+			assertTrue(mTestTree.insert(i * 10));
+		
+		Iterator<Integer> range = mTestTree.iterator(15, 55);
+		for(int i = 20; i <= 50; i += 10)
+			assertEquals(range.next(), (Integer) i);
+		assertFalse(range.hasNext());
+		
+		assertFalse(mTestTree.iterator(15, 20).hasNext());
+		assertFalse(mTestTree.iterator(5000, 6000).hasNext());
+		assertEquals(mTestTree.iterator(-5, 1).next(), (Integer) 0);
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#stream()} and
+	 * {@link AVLTree#parallelStream()}
+	 */
+	@Test
+	public void testStream(){
+		assertEquals(mTestTree.stream().count(), 0);
+		
+		for(int i = 0; i < 10000; i++)
+			assertTrue(mTestTree.insert(i));
+		
+		assertEquals(mTestTree.stream().mapToLong(Integer::longValue).sum(), 49995000L);
+		assertEquals(mTestTree.parallelStream().mapToLong(Integer::longValue).sum(), 49995000L);
+		assertEquals(mTestTree.parallelStream().collect(Collectors.toList()), mTestTree.inOrderTraversal());
+		assertEquals(mTestTree.parallelStream().filter(i -> i % 7 == 0).count(), 1429);
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#spliterator()}
+	 */
+	@Test
+	public void testSpliterator(){
+		for(int i = 0; i < 1000; i++)
+			assertTrue(mTestTree.insert(i));
+		
+		Spliterator<Integer> suffix = mTestTree.spliterator();
+		assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SORTED
+				| Spliterator.DISTINCT | Spliterator.ORDERED));
+		assertEquals(suffix.getExactSizeIfKnown(), 1000);
+		
+		Spliterator<Integer> prefix = suffix.trySplit();
+		assertEquals(prefix.estimateSize() + suffix.estimateSize(), 1000);
+		assertTrue(prefix.estimateSize() > 250 && suffix.estimateSize() > 250);
+		
+		ArrayList<Integer> list = new ArrayList<Integer>();
+		prefix.forEachRemaining(list::add);
+		assertTrue(suffix.tryAdvance(list::add));
+		assertEquals(suffix.estimateSize(), 1000 - list.size());
+		suffix.forEachRemaining(list::add);
+		
+		assertEquals(list, mTestTree.inOrderTraversal());
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#fromSorted(List)}
+	 */
+	@Test
+	public void testFromSorted(){
+		assertEquals(AVLTree.fromSorted(new ArrayList<Integer>()).size(), 0);
+		
+		for(int size : new int[] {1, 2, 3, 100, 1023, 1024, 50000}){
+			Integer[] sorted = new Integer[size];
+			for(int i = 0; i < size; i++)
+				sorted[i] = i * 2;
+			
+			for(boolean parallel : new boolean[] {false, true}){
+				AVLTree<Integer> tree = AVLTree.fromSorted(sorted, parallel);
+				
+				assertEquals(tree.size(), size);
+				assertEquals(tree.select(size / 2), sorted[size / 2]);
+				assertTrue(tree.insert(-1));
+				assertTrue(tree.remove(0));
+				assertEquals(tree.min(), (Integer) (-1));
+				assertEquals(tree.size(), size);
+			}
+		}
+		
+		List<Integer> list = new ArrayList<Integer>();
+		for(int i = 0; i < 100; i++)
+			list.add(i);
+		assertEquals(AVLTree.fromSorted(list).inOrderTraversal(), list);
+		
+		list.add(50);
+		try{
+			AVLTree.fromSorted(list);
+			fail("Unsorted input must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#split(Comparable)} and
+	 * {@link AVLTree#join(AVLTree)}
+	 */
+	@Test
+	public void testSplitJoin(){
+		for(int i = 0; i < 10000; i++)
+			assertTrue(mTestTree.insert(i * 2));
+		
+		AVLTree<Integer> right = mTestTree.split(5000);
+		assertEquals(mTestTree.size(), 2500);
+		assertEquals(right.size(), 7500);
+		assertEquals(mTestTree.max(), (Integer) 4998);
+		assertEquals(right.min(), (Integer) 5000);
+		
+		AVLTree<Integer> upper = right.split(15001);
+		assertEquals(right.size(), 5001);
+		assertEquals(upper.min(), (Integer) 15002);
+		
+		try{
+			upper.join(right);
+			fail("Elements are not larger");
+		}catch(IllegalArgumentException e){}
+		
+		mTestTree.join(right);
+		mTestTree.join(upper);
+		assertEquals(mTestTree.size(), 10000);
+		assertEquals(right.size(), 0);
+		assertEquals(upper.size(), 0);
+		
+		for(int i = 0; i < 10000; i++)
+			assertEquals(mTestTree.select(i), (Integer) (i * 2));
+		assertTrue(mTestTree.insert(5001));
+		assertTrue(mTestTree.remove(5000));
+		
+		assertEquals(mTestTree.split(-1).size(), 10000);
+		assertEquals(mTestTree.size(), 0);
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#union(AVLTree)}
+	 */
+	@Test
+	public void testUnion(){
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		
+		for(int i = 0; i < 40000; i += 2)
+			assertTrue(mTestTree.insert(i));
+		for(int i = 0; i < 40000; i += 3)
+			assertTrue(tree.insert(i));
+		
+		assertTrue(mTestTree.union(tree));
+		assertFalse(mTestTree.union(tree));
+		assertEquals(mTestTree.size(), 26667);
+		assertEquals(tree.size(), 13334);
+		
+		for(int i = 0; i < 40000; i++)
+			assertEquals(mTestTree.contains(i), i % 2 == 0 || i % 3 == 0);
+		
+		//The trees share no nodes
+		mTestTree.remove(3);
+		assertTrue(tree.contains(3));
+	}
+	
+	/**
+	 * Test method for {@link AVLTree#intersect(AVLTree)} and
+	 * {@link AVLTree#difference(AVLTree)}
+	 */
+	@Test
+	public void testIntersectDifference(){
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		AVLTree<Integer> other = new AVLTree<Integer>();
+		
+		for(int i = 0; i < 1000; i++){
+			assertTrue(mTestTree.insert(i));
+			assertTrue(tree.insert(i));
+		}
+		for(int i = 500; i < 1500; i += 5)
+			assertTrue(other.insert(i));
+		
+		assertTrue(mTestTree.intersect(other));
+		assertEquals(mTestTree.size(), 100);
+		assertEquals(mTestTree.min(), (Integer) 500);
+		assertEquals(mTestTree.max(), (Integer) 995);
+		
+		assertTrue(tree.difference(other));
+		assertEquals(tree.size(), 900);
+		assertTrue(tree.contains(501));
+		assertFalse(tree.contains(505));
+		assertFalse(tree.difference(other));
+		
+		assertEquals(other.size(), 200);
+		assertTrue(tree.intersect(null));
+		assertEquals(tree.size(), 0);
+	}
+	
 	/**
 	 * Test method for {@link AVLTree#max()}
 	 */
@@ -0,0 +1,693 @@
+package AVL;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * BPlusTree is a sorted set of comparable elements with the same
+ * API as AVLTree, kept in wide nodes instead of binary ones. Every
+ * node holds up to order keys in one array, so a lookup visits
+ * about log(n) / log(order) nodes and searches each of them with a
+ * binary search, instead of following one reference per level of
+ * a binary tree. With millions of elements this is 3 or 4 nodes
+ * instead of about 25.
+ * 
+ * The elements are stored in the leaves, which are linked from the
+ * smallest to the largest so iteration and range scans walk arrays
+ * leaf after leaf. Inner nodes hold separators: every element of
+ * the subtree after a separator is at least that separator.
+ * 
+ * @author Arjun Passi
+ *
+ */
+public class BPlusTree <T extends Comparable<? super T>> implements Iterable<T>{
+	
+	/**
+	 * This class represents a node of the tree holding
+	 * a sorted array of keys.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static abstract class Node{
+		
+		/** Reference to the keys of the node, with room for one extra before a split */
+		final Object[] mKeys;
+		
+		/** Reference to the number of keys in the node */
+		int mCount;
+		
+		/**
+		 * Constructs a new empty node.
+		 * @param order : maximum number of keys
+		 */
+		private Node(int order){
+			mKeys = new Object[order + 1];
+		}
+	}
+	
+	/**
+	 * This class represents a leaf holding elements, linked
+	 * to the leaf of the next larger elements.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Leaf extends Node{
+		
+		/** Reference to the next leaf, or null for the last one */
+		private Leaf mNext;
+		
+		private Leaf(int order){
+			super(order);
+		}
+	}
+	
+	/**
+	 * This class represents an inner node holding one more
+	 * child than it has separators.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Inner extends Node{
+		
+		/** Reference to the children of the node */
+		private final Node[] mChildren;
+		
+		private Inner(int order){
+			super(order);
+			mChildren = new Node[order + 2];
+		}
+	}
+	
+	/**
+	 * This class represents an iterator walking the linked
+	 * leaves from a starting position up to an optional bound.
+	 * @author Arjun Passi
+	 *
+	 */
+	private class LeafIterator implements Iterator<T>{
+		
+		/** Reference to the leaf of the next element */
+		private Leaf mLeaf;
+		
+		/** Reference to the position of the next element in the leaf */
+		private int mIndex;
+		
+		/** Reference to the exclusive upper bound, or null */
+		private final T mHigh;
+		
+		/** Reference to the number of modifications expected */
+		private final int mExpectedModCount;
+		
+		/**
+		 * Constructs a new iterator.
+		 * @param leaf : leaf of the first element
+		 * @param index : position of the first element in the leaf
+		 * @param high : exclusive upper bound, or null
+		 */
+		public LeafIterator(Leaf leaf, int index, T high){
+			mLeaf = leaf;
+			mIndex = index;
+			mHigh = high;
+			mExpectedModCount = mModCount;
+			skipEmpty();
+		}
+		
+		@SuppressWarnings("unchecked")
+		public boolean hasNext(){
+			return mLeaf != null && (mHigh == null || ((T) mLeaf.mKeys[mIndex]).compareTo(mHigh) < 0);
+		}
+		
+		@SuppressWarnings("unchecked")
+		public T next(){
+			if(mModCount != mExpectedModCount)
+				throw new ConcurrentModificationException();
+			if(!hasNext())
+				throw new NoSuchElementException("There is no next!");
+			
+			T data = (T) mLeaf.mKeys[mIndex++];
+			skipEmpty();
+			return data;
+		}
+		
+		/**
+		 * Helper method that moves past the end of the
+		 * current leaf.
+		 */
+		private void skipEmpty(){
+			while(mLeaf != null && mIndex >= mLeaf.mCount){
+				mLeaf = mLeaf.mNext;
+				mIndex = 0;
+			}
+		}
+	}
+	
+	/** Reference to the number of keys of a node when none is provided */
+	private static final int DEFAULT_ORDER = 64;
+	
+	/** Reference to the smallest number of keys allowed in a node */
+	private static final int MIN_ORDER = 4;
+	
+	/** Reference to the maximum number of keys in a node */
+	private final int mOrder;
+	
+	/** Reference to the minimum number of keys in a node other than the root */
+	private final int mMinimum;
+	
+	/** Reference to the root node */
+	private Node mRoot;
+	
+	/** Reference to the number of inner levels above the leaves */
+	private int mHeight;
+	
+	/** Reference to the number of elements in the tree */
+	private int mSize;
+	
+	/** Reference to the number of structural modifications */
+	private int mModCount;
+	
+	/** Reference to the inner nodes walked by an update */
+	private Inner[] mPath = new Inner[8];
+	
+	/** Reference to the child index taken at every inner node of the path */
+	private int[] mPathIndex = new int[8];
+	
+	/**
+	 * Constructs a new empty tree with nodes of 64 keys.
+	 */
+	public BPlusTree(){
+		this(DEFAULT_ORDER);
+	}
+	
+	/**
+	 * Constructs a new empty tree with nodes of at most
+	 * order keys. Orders of 32 to 128 keep a node within a
+	 * few cache lines of references.
+	 * 
+	 * Throws an IllegalArgumentException if the order is
+	 * smaller than 4.
+	 * 
+	 * @param order : maximum number of keys in a node
+	 */
+	public BPlusTree(int order){
+		if(order < MIN_ORDER)
+			throw new IllegalArgumentException("Order is smaller than " + MIN_ORDER);
+		
+		mOrder = order;
+		mMinimum = order / 2;
+		mRoot = new Leaf(order);
+	}
+	
+	/**
+	 * The "find" method allows to search a desired
+	 * data element in the tree.
+	 * @param data
+	 * @return the reference to the specified data element
+	 * otherwise null.
+	 */
+	@SuppressWarnings("unchecked")
+	public T find(T data){
+		if(data == null)
+			return null;
+		
+		Leaf leaf = leaf(data);
+		int index = search(leaf, data);
+		return (index >= 0) ? (T) leaf.mKeys[index] : null;
+	}
+	
+	/**
+	 * Method to find out whether the provided data
+	 * is in the tree.
+	 * 
+	 * @param data : data element to be found.
+	 * @return true if the element exists in the tree
+	 * otherwise false.
+	 */
+	public boolean contains(T data){
+		return find(data) != null;
+	}
+	
+	/**
+	 * Method to retrieve the minimum data element
+	 * in the tree.
+	 * 
+	 * @return : reference to the minimum element, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public T min(){
+		if(mSize == 0)
+			return null;
+		
+		Node n = mRoot;
+		for(int level = 0; level < mHeight; level++)
+			n = ((Inner) n).mChildren[0];
+		return (T) n.mKeys[0];
+	}
+	
+	/**
+	 * Method to retrieve the max data element in
+	 * the tree.
+	 * 
+	 * @return : reference to the maximum element, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public T max(){
+		if(mSize == 0)
+			return null;
+		
+		Node n = mRoot;
+		for(int level = 0; level < mHeight; level++)
+			n = ((Inner) n).mChildren[n.mCount];
+		return (T) n.mKeys[n.mCount - 1];
+	}
+	
+	/**
+	 * This method allows to insert a data element
+	 * in the tree.
+	 * @param data
+	 * @return true if the insertion was sucesfull else
+	 * false
+	 */
+	public boolean insert(T data){
+		if(data == null)
+			return false;
+		
+		Leaf leaf = path(data);
+		int index = search(leaf, data);
+		if(index >= 0){
+			clearPath(mHeight);
+			return false;
+		}
+		
+		insertKey(leaf, -index - 1, data);
+		mSize++;
+		mModCount++;
+		
+		if(leaf.mCount > mOrder)
+			split(leaf);
+		else
+			clearPath(mHeight);
+		return true;
+	}
+	
+	/**
+	 * Method removes the data element from the tree.
+	 * @param data
+	 * @return true if the element was removed else false
+	 */
+	public boolean remove(T data){
+		if(data == null)
+			return false;
+		
+		Leaf leaf = path(data);
+		int index = search(leaf, data);
+		if(index < 0){
+			clearPath(mHeight);
+			return false;
+		}
+		
+		removeKey(leaf, index);
+		mSize--;
+		mModCount++;
+		
+		if(leaf.mCount < mMinimum && mHeight > 0)
+			refill(leaf);
+		else
+			clearPath(mHeight);
+		return true;
+	}
+	
+	/**
+	 * Method that returns the number of elements
+	 * in the tree.
+	 * @return size
+	 */
+	public int size(){
+		return mSize;
+	}
+	
+	/**
+	 * Removes all the elements in the tree.
+	 */
+	public void removeAll(){
+		mRoot = new Leaf(mOrder);
+		mHeight = 0;
+		mSize = 0;
+		mModCount++;
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements
+	 * of the tree in ascending order, walking the leaves.
+	 * 
+	 * Throws a ConcurrentModificationException if the tree is
+	 * modified while it is being iterated.
+	 * 
+	 * @return iterator in ascending order
+	 */
+	public Iterator<T> iterator(){
+		Node n = mRoot;
+		for(int level = 0; level < mHeight; level++)
+			n = ((Inner) n).mChildren[0];
+		
+		return new LeafIterator((Leaf) n, 0, null);
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements of
+	 * the tree that are at least lo and smaller than hi, in
+	 * ascending order.
+	 * 
+	 * Throws an IllegalArgumentException if a bound is null.
+	 * 
+	 * @param lo : inclusive lower bound
+	 * @param hi : exclusive upper bound
+	 * @return iterator over the range
+	 * @see #iterator()
+	 */
+	public Iterator<T> iterator(T lo, T hi){
+		if(lo == null || hi == null)
+			throw new IllegalArgumentException("Bound is null");
+		
+		Leaf leaf = leaf(lo);
+		int index = search(leaf, lo);
+		return new LeafIterator(leaf, (index >= 0) ? index : -index - 1, hi);
+	}
+	
+	/**
+	 * Method to insert all the elements in the tree to
+	 * a list in ascending order.
+	 * @return list of elements in order
+	 */
+	public List<T> inOrderTraversal(){
+		ArrayList<T> list = new ArrayList<T>(mSize);
+		for(T data : this)
+			list.add(data);
+		return list;
+	}
+	
+	/**
+	 * Helper method that finds the leaf that holds or
+	 * would hold the provided element.
+	 * @param data
+	 * @return leaf of the element
+	 */
+	private Leaf leaf(T data){
+		Node n = mRoot;
+		for(int level = 0; level < mHeight; level++)
+			n = ((Inner) n).mChildren[child(n, data)];
+		return (Leaf) n;
+	}
+	
+	/**
+	 * Helper method that finds the leaf of the provided element
+	 * and records the inner nodes and child indices walked.
+	 * @param data
+	 * @return leaf of the element
+	 */
+	private Leaf path(T data){
+		if(mPath.length < mHeight){
+			mPath = new Inner[mHeight + 8];
+			mPathIndex = new int[mHeight + 8];
+		}
+		
+		Node n = mRoot;
+		for(int level = 0; level < mHeight; level++){
+			Inner inner = (Inner) n;
+			int index = child(inner, data);
+			mPath[level] = inner;
+			mPathIndex[level] = index;
+			n = inner.mChildren[index];
+		}
+		return (Leaf) n;
+	}
+	
+	/**
+	 * Helper method that returns the index of the child of an
+	 * inner node whose subtree holds or would hold the element.
+	 */
+	private int child(Node n, T data){
+		int index = search(n, data);
+		return (index >= 0) ? index + 1 : -index - 1;
+	}
+	
+	/**
+	 * Helper method that binary searches the keys of a node.
+	 * @param n
+	 * @param data
+	 * @return index of the key, or -(insertion point) - 1
+	 */
+	@SuppressWarnings("unchecked")
+	private int search(Node n, T data){
+		Object[] keys = n.mKeys;
+		int low = 0;
+		int high = n.mCount - 1;
+		
+		while(low <= high){
+			int mid = (low + high) >>> 1;
+			int cmp = ((T) keys[mid]).compareTo(data);
+			
+			if(cmp < 0)
+				low = mid + 1;
+			else if(cmp > 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		
+		return -low - 1;
+	}
+	
+	/**
+	 * Helper method that splits an overfull node in two and
+	 * inserts the separator in its parent, splitting the
+	 * ancestors that overflow in turn.
+	 * @param n : node holding one key too many
+	 */
+	private void split(Node n){
+		for(int level = mHeight - 1; ; level--){
+			int half = n.mCount / 2;
+			Node right;
+			Object separator;
+			
+			if(n instanceof Leaf){
+				Leaf leaf = (Leaf) n;
+				Leaf next = new Leaf(mOrder);
+				moveKeys(leaf, half, next);
+				next.mNext = leaf.mNext;
+				leaf.mNext = next;
+				right = next;
+				separator = next.mKeys[0];
+			}
+			else{
+				Inner inner = (Inner) n;
+				Inner next = new Inner(mOrder);
+				separator = inner.mKeys[half];
+				
+				int moved = inner.mCount - half - 1;
+				System.arraycopy(inner.mKeys, half + 1, next.mKeys, 0, moved);
+				System.arraycopy(inner.mChildren, half + 1, next.mChildren, 0, moved + 1);
+				next.mCount = moved;
+				clear(inner, half);
+				right = next;
+			}
+			
+			if(level < 0){
+				Inner root = new Inner(mOrder);
+				root.mKeys[0] = separator;
+				root.mChildren[0] = n;
+				root.mChildren[1] = right;
+				root.mCount = 1;
+				mRoot = root;
+				mHeight++;
+				return;
+			}
+			
+			Inner parent = mPath[level];
+			int index = mPathIndex[level];
+			insertKey(parent, index, separator);
+			System.arraycopy(parent.mChildren, index + 1, parent.mChildren, index + 2, parent.mCount - index - 1);
+			parent.mChildren[index + 1] = right;
+			mPath[level] = null;
+			
+			if(parent.mCount <= mOrder){
+				clearPath(level);
+				return;
+			}
+			n = parent;
+		}
+	}
+	
+	/**
+	 * Helper method that brings an underfull node back to the
+	 * minimum number of keys by borrowing from a sibling, or by
+	 * merging with it, repeating in the ancestors that become
+	 * underfull in turn.
+	 * @param n : node with one key too few
+	 */
+	private void refill(Node n){
+		for(int level = mHeight - 1; level >= 0; level--){
+			Inner parent = mPath[level];
+			int index = mPathIndex[level];
+			mPath[level] = null;
+			
+			Node left = (index > 0) ? parent.mChildren[index - 1] : null;
+			Node right = (index < parent.mCount) ? parent.mChildren[index + 1] : null;
+			
+			if(left != null && left.mCount > mMinimum){
+				borrowFromLeft(parent, index, left, n);
+				clearPath(level);
+				return;
+			}
+			if(right != null && right.mCount > mMinimum){
+				borrowFromRight(parent, index, n, right);
+				clearPath(level);
+				return;
+			}
+			
+			if(left != null)
+				merge(parent, index - 1, left, n);
+			else
+				merge(parent, index, n, right);
+			
+			if(parent == mRoot){
+				if(parent.mCount == 0){
+					mRoot = parent.mChildren[0];
+					mHeight--;
+				}
+				return;
+			}
+			if(parent.mCount >= mMinimum){
+				clearPath(level);
+				return;
+			}
+			n = parent;
+		}
+	}
+	
+	/**
+	 * Helper method that moves the last key of the left
+	 * sibling into the front of the node.
+	 */
+	private void borrowFromLeft(Inner parent, int index, Node left, Node n){
+		if(n instanceof Leaf){
+			insertKey(n, 0, left.mKeys[left.mCount - 1]);
+			removeKey(left, left.mCount - 1);
+			parent.mKeys[index - 1] = n.mKeys[0];
+			return;
+		}
+		
+		Inner inner = (Inner) n;
+		Inner sibling = (Inner) left;
+		System.arraycopy(inner.mChildren, 0, inner.mChildren, 1, inner.mCount + 1);
+		insertKey(inner, 0, parent.mKeys[index - 1]);
+		inner.mChildren[0] = sibling.mChildren[sibling.mCount];
+		parent.mKeys[index - 1] = sibling.mKeys[sibling.mCount - 1];
+		sibling.mChildren[sibling.mCount] = null;
+		removeKey(sibling, sibling.mCount - 1);
+	}
+	
+	/**
+	 * Helper method that moves the first key of the right
+	 * sibling to the end of the node.
+	 */
+	private void borrowFromRight(Inner parent, int index, Node n, Node right){
+		if(n instanceof Leaf){
+			insertKey(n, n.mCount, right.mKeys[0]);
+			removeKey(right, 0);
+			parent.mKeys[index] = right.mKeys[0];
+			return;
+		}
+		
+		Inner inner = (Inner) n;
+		Inner sibling = (Inner) right;
+		insertKey(inner, inner.mCount, parent.mKeys[index]);
+		inner.mChildren[inner.mCount] = sibling.mChildren[0];
+		parent.mKeys[index] = sibling.mKeys[0];
+		System.arraycopy(sibling.mChildren, 1, sibling.mChildren, 0, sibling.mCount);
+		sibling.mChildren[sibling.mCount] = null;
+		removeKey(sibling, 0);
+	}
+	
+	/**
+	 * Helper method that moves every key of a node into its
+	 * left sibling and removes the node from the parent.
+	 * @param parent
+	 * @param index : index of the left sibling in the parent
+	 * @param left
+	 * @param right
+	 */
+	private void merge(Inner parent, int index, Node left, Node right){
+		if(left instanceof Leaf){
+			moveKeys((Leaf) right, 0, left);
+			((Leaf) left).mNext = ((Leaf) right).mNext;
+		}
+		else{
+			Inner inner = (Inner) left;
+			Inner sibling = (Inner) right;
+			inner.mKeys[inner.mCount] = parent.mKeys[index];
+			System.arraycopy(sibling.mKeys, 0, inner.mKeys, inner.mCount + 1, sibling.mCount);
+			System.arraycopy(sibling.mChildren, 0, inner.mChildren, inner.mCount + 1, sibling.mCount + 1);
+			inner.mCount += sibling.mCount + 1;
+		}
+		
+		removeKey(parent, index);
+		System.arraycopy(parent.mChildren, index + 2, parent.mChildren, index + 1, parent.mCount - index);
+		parent.mChildren[parent.mCount + 1] = null;
+	}
+	
+	/**
+	 * Helper method that inserts a key into a node at the
+	 * provided index.
+	 */
+	private void insertKey(Node n, int index, Object key){
+		System.arraycopy(n.mKeys, index, n.mKeys, index + 1, n.mCount - index);
+		n.mKeys[index] = key;
+		n.mCount++;
+	}
+	
+	/**
+	 * Helper method that removes the key of a node at the
+	 * provided index.
+	 */
+	private void removeKey(Node n, int index){
+		System.arraycopy(n.mKeys, index + 1, n.mKeys, index, n.mCount - index - 1);
+		n.mKeys[--n.mCount] = null;
+	}
+	
+	/**
+	 * Helper method that moves the keys of a node from the
+	 * provided index to the end of another node.
+	 */
+	private void moveKeys(Node from, int index, Node to){
+		int moved = from.mCount - index;
+		System.arraycopy(from.mKeys, index, to.mKeys, to.mCount, moved);
+		to.mCount += moved;
+		clear(from, index);
+	}
+	
+	/**
+	 * Helper method that drops the keys and children of a node
+	 * from the provided number of keys on.
+	 */
+	private void clear(Node n, int count){
+		for(int i = count; i < n.mCount; i++)
+			n.mKeys[i] = null;
+		if(n instanceof Inner){
+			Node[] children = ((Inner) n).mChildren;
+			for(int i = count + 1; i <= n.mCount; i++)
+				children[i] = null;
+		}
+		n.mCount = count;
+	}
+	
+	/**
+	 * Helper method that drops the references held by the
+	 * first levels of the path.
+	 */
+	private void clearPath(int depth){
+		while(depth > 0)
+			mPath[--depth] = null;
+	}
+}
@@ -0,0 +1,130 @@
+package AVL;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for BPlusTree
+ * @author Arjun Passi
+ *
+ */
+public class BPlusTreeTest {
+	
+	/** Reference to the tree on which testing will be performed*/
+	private BPlusTree<Integer> mTestTree;
+	
+	@Before
+	public void setUp(){
+		mTestTree = new BPlusTree<Integer>(4);
+	}
+	
+	/**
+	 * Test method for {@link BPlusTree#insert(Comparable)}
+	 */
+	@Test
+	public void testInsert(){
+		assertFalse(mTestTree.insert(null));
+		assertNull(mTestTree.min());
+		assertNull(mTestTree.max());
+		
+		for(int i = 0; i < 10000; i++)
+			assertTrue(mTestTree.insert((i * 7919) % 10000));
+		assertFalse(mTestTree.insert(5));
+		
+		assertEquals(mTestTree.size(), 10000);
+		assertEquals(mTestTree.min(), (Integer) 0);
+		assertEquals(mTestTree.max(), (Integer) 9999);
+		for(int i = 0; i < 10000; i++)
+			assertEquals(mTestTree.find(i), (Integer) i);
+		assertNull(mTestTree.find(10000));
+	}
+	
+	/**
+	 * Test method for {@link BPlusTree#remove(Comparable)}
+	 * against a TreeSet, for several node widths
+	 */
+	@Test
+	public void testRemove(){
+		Random random = new Random(50);
+		
+		for(int order : new int[] {4, 5, 32, 128}){
+			BPlusTree<Integer> tree = new BPlusTree<Integer>(order);
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			
+			for(int i = 0; i < 30000; i++){
+				int data = random.nextInt(3000);
+				
+				if(random.nextInt(3) > 0)
+					assertEquals(tree.insert(data), expected.add(data));
+				else
+					assertEquals(tree.remove(data), expected.remove(data));
+			}
+			assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(expected));
+			
+			for(int data = 0; data < 3000; data++)
+				assertEquals(tree.remove(data), expected.remove(data));
+			assertEquals(tree.size(), 0);
+			assertFalse(tree.iterator().hasNext());
+		}
+	}
+	
+	/**
+	 * Test method for {@link BPlusTree#iterator(Comparable, Comparable)}
+	 */
+	@Test
+	public void testRangeIterator(){
+		for(int i = 0; i < 1000; i += 2)
+			mTestTree.insert(i);
+		
+		List<Integer> range = new ArrayList<Integer>();
+		Iterator<Integer> iterator = mTestTree.iterator(101, 121);
+		while(iterator.hasNext())
+			range.add(iterator.next());
+		
+		List<Integer> expected = new ArrayList<Integer>();
+		for(int i = 102; i < 121; i += 2)
+			expected.add(i);
+		assertEquals(range, expected);
+		
+		assertFalse(mTestTree.iterator(2000, 3000).hasNext());
+		assertFalse(mTestTree.iterator(10, 10).hasNext());
+	}
+	
+	/**
+	 * Test method for {@link BPlusTree#iterator()}
+	 */
+	@Test
+	public void testIterator(){
+		for(int i = 0; i < 100; i++)
+			mTestTree.insert(i);
+		
+		int expected = 0;
+		for(int data : mTestTree)
+			assertEquals(data, expected++);
+		assertEquals(expected, 100);
+		
+		Iterator<Integer> iterator = mTestTree.iterator();
+		iterator.next();
+		mTestTree.remove(50);
+		try{
+			iterator.next();
+			fail("Modified tree must be detected");
+		}catch(ConcurrentModificationException e){}
+	}
+	
+	/**
+	 * Test method for {@link BPlusTree#BPlusTree(int)}
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSmallOrder(){
+		new BPlusTree<Integer>(3);
+	}
+}
@@ -0,0 +1,822 @@
+package AVL;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements a thread safe AVL tree following the
+ * optimistic design of Bronson, Casper, Chafi and Olukotun,
+ * "A Practical Concurrent Binary Search Tree".
+ * 
+ * Readers take no locks. Every node carries a version that a
+ * rotation changes when it moves keys out of the subtree of the
+ * node, so a reader descending the tree validates the version of
+ * the parent after reading each child and retries from the parent
+ * if it changed. A reader only waits when it reaches a node in the
+ * middle of a rotation.
+ * 
+ * Writers lock the parent of the link they change, and rotations
+ * lock the few nodes they move, always from the top down. Removing
+ * an element whose node has two children only marks the node as a
+ * routing node; it is unlinked later once it has at most one child.
+ * Balance is relaxed: after an update heights are repaired and
+ * rotations applied on the way up to the root, locking only the
+ * nodes that need it, so the tree may briefly be out of balance
+ * while other threads update it and is an AVL tree again once
+ * updates stop.
+ * 
+ * @author Arjun Passi
+ *
+ */
+public class ConcurrentAVLTree <T extends Comparable<? super T>>{
+	
+	/**
+	 * This class represents a node of the tree. A node without
+	 * its element present is a routing node left by a removal.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Node <T>{
+		
+		/** Reference to the data element stored in the node. */
+		private final T mData;
+		
+		/** Reference to the flag set while the element is in the tree */
+		private volatile boolean mPresent;
+		
+		/** Reference to the height of the node, 1 for a leaf */
+		private volatile int mHeight;
+		
+		/** Reference to the version changed by rotations that shrink the subtree */
+		private volatile long mVersion;
+		
+		/** Reference to the parent of the node */
+		private volatile Node<T> mParent;
+		
+		/** Reference to the left child of the node */
+		private volatile Node<T> mLeft;
+		
+		/** Reference to the right child of the node*/
+		private volatile Node<T> mRight;
+		
+		/**
+		 * Constructs a new leaf node.
+		 * @param data
+		 * @param parent
+		 */
+		private Node(T data, Node<T> parent){
+			mData = data;
+			mPresent = data != null;
+			mHeight = 1;
+			mParent = parent;
+		}
+		
+		/**
+		 * Method that returns the child in the provided direction.
+		 * @param dir : negative for the left child, positive for the right one
+		 * @return child or null
+		 */
+		private Node<T> child(int dir){
+			return (dir < 0) ? mLeft : mRight;
+		}
+	}
+	
+	/** Reference to the version of a node removed from the tree */
+	private static final long UNLINKED = 1L;
+	
+	/** Reference to the version bit set while a rotation shrinks the subtree */
+	private static final long SHRINKING = 2L;
+	
+	/** Reference to the version increment of a completed shrinking rotation */
+	private static final long SHRINK_COUNT_INCR = 4L;
+	
+	/** Reference to the marker returned when an attempt must be repeated */
+	private static final Object RETRY = new Object();
+	
+	/** Reference to the conditions returned by nodeCondition */
+	private static final int UNLINK_REQUIRED = -1;
+	private static final int REBALANCE_REQUIRED = -2;
+	private static final int NOTHING_REQUIRED = -3;
+	
+	/** Reference to the number of times a reader spins on a rotating node before blocking */
+	private static final int SPIN_COUNT = 100;
+	
+	/** Reference to the holder whose right child is the root */
+	private final Node<T> mRootHolder = new Node<T>(null, null);
+	
+	/** Reference to the number of elements in the tree */
+	private final LongAdder mSize = new LongAdder();
+	
+	/**
+	 * Method to find out whether the provided data
+	 * is in the tree. It never takes a lock.
+	 * 
+	 * @param data : data element to be found.
+	 * @return true if the element exists in the tree
+	 * otherwise false.
+	 */
+	public boolean contains(T data){
+		if(data == null)
+			return false;
+		
+		Object result;
+		do{
+			result = attemptContains(data, mRootHolder, 1, 0L);
+		}while(result == RETRY);
+		
+		return result == Boolean.TRUE;
+	}
+	
+	/**
+	 * This method allows to insert a data element
+	 * in the tree.
+	 * @param data
+	 * @return true if the insertion was sucesfull else
+	 * false
+	 */
+	public boolean insert(T data){
+		if(data == null)
+			return false;
+		
+		Object result;
+		do{
+			result = attemptInsert(data, mRootHolder, 1, 0L);
+		}while(result == RETRY);
+		
+		if(result == Boolean.TRUE)
+			mSize.increment();
+		return result == Boolean.TRUE;
+	}
+	
+	/**
+	 * Method removes the data element from the tree.
+	 * @param data
+	 * @return true if the element was removed else false
+	 */
+	public boolean remove(T data){
+		if(data == null)
+			return false;
+		
+		Object result;
+		do{
+			result = attemptRemove(data, mRootHolder, 1, 0L);
+		}while(result == RETRY);
+		
+		if(result == Boolean.TRUE)
+			mSize.decrement();
+		return result == Boolean.TRUE;
+	}
+	
+	/**
+	 * Method that returns the number of elements in the
+	 * tree. The count is exact only while no update runs.
+	 * @return size
+	 */
+	public int size(){
+		return mSize.intValue();
+	}
+	
+	/**
+	 * Helper method that searches the subtree below the child
+	 * of a node in the provided direction.
+	 * @param data
+	 * @param node : node already validated
+	 * @param dir : direction of the child to search
+	 * @param nodeVersion : version of the node when it was reached
+	 * @return Boolean result or RETRY if the node changed
+	 */
+	private Object attemptContains(T data, Node<T> node, int dir, long nodeVersion){
+		while(true){
+			Node<T> child = node.child(dir);
+			if(node.mVersion != nodeVersion)
+				return RETRY;
+			if(child == null)
+				return Boolean.FALSE;
+			
+			int nextDir = data.compareTo(child.mData);
+			if(nextDir == 0)
+				return child.mPresent;
+			
+			long childVersion = child.mVersion;
+			if((childVersion & SHRINKING) != 0)
+				waitUntilNotChanging(child);
+			else if(childVersion != UNLINKED && child == node.child(dir)){
+				if(node.mVersion != nodeVersion)
+					return RETRY;
+				
+				Object result = attemptContains(data, child, nextDir, childVersion);
+				if(result != RETRY)
+					return result;
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that inserts the element in the subtree
+	 * below the child of a node in the provided direction.
+	 * @return Boolean result or RETRY if the node changed
+	 */
+	private Object attemptInsert(T data, Node<T> node, int dir, long nodeVersion){
+		Object result;
+		do{
+			Node<T> child = node.child(dir);
+			if(node.mVersion != nodeVersion)
+				return RETRY;
+			
+			if(child == null)
+				result = attemptAddLeaf(data, node, dir, nodeVersion);
+			else{
+				int nextDir = data.compareTo(child.mData);
+				
+				if(nextDir == 0)
+					result = attemptMarkPresent(child);
+				else{
+					result = RETRY;
+					long childVersion = child.mVersion;
+					if((childVersion & SHRINKING) != 0)
+						waitUntilNotChanging(child);
+					else if(childVersion != UNLINKED && child == node.child(dir)){
+						if(node.mVersion != nodeVersion)
+							return RETRY;
+						result = attemptInsert(data, child, nextDir, childVersion);
+					}
+				}
+			}
+		}while(result == RETRY);
+		
+		return result;
+	}
+	
+	/**
+	 * Helper method that links a new leaf below the node if
+	 * the node did not change since it was validated.
+	 */
+	private Object attemptAddLeaf(T data, Node<T> node, int dir, long nodeVersion){
+		synchronized(node){
+			if(node.mVersion != nodeVersion || node.child(dir) != null)
+				return RETRY;
+			
+			Node<T> leaf = new Node<T>(data, node);
+			if(dir < 0)
+				node.mLeft = leaf;
+			else
+				node.mRight = leaf;
+		}
+		
+		fixHeightAndRebalance(node);
+		return Boolean.TRUE;
+	}
+	
+	/**
+	 * Helper method that makes the element of a node present
+	 * again if the node is still in the tree.
+	 */
+	private Object attemptMarkPresent(Node<T> node){
+		synchronized(node){
+			if(node.mVersion == UNLINKED)
+				return RETRY;
+			if(node.mPresent)
+				return Boolean.FALSE;
+			
+			node.mPresent = true;
+			return Boolean.TRUE;
+		}
+	}
+	
+	/**
+	 * Helper method that removes the element from the subtree
+	 * below the child of a node in the provided direction.
+	 * @return Boolean result or RETRY if the node changed
+	 */
+	private Object attemptRemove(T data, Node<T> node, int dir, long nodeVersion){
+		Object result;
+		do{
+			Node<T> child = node.child(dir);
+			if(node.mVersion != nodeVersion)
+				return RETRY;
+			if(child == null)
+				return Boolean.FALSE;
+			
+			int nextDir = data.compareTo(child.mData);
+			
+			if(nextDir == 0)
+				result = attemptRemoveNode(node, child);
+			else{
+				result = RETRY;
+				long childVersion = child.mVersion;
+				if((childVersion & SHRINKING) != 0)
+					waitUntilNotChanging(child);
+				else if(childVersion != UNLINKED && child == node.child(dir)){
+					if(node.mVersion != nodeVersion)
+						return RETRY;
+					result = attemptRemove(data, child, nextDir, childVersion);
+				}
+			}
+		}while(result == RETRY);
+		
+		return result;
+	}
+	
+	/**
+	 * Helper method that removes the element of a node. A node
+	 * with two children becomes a routing node, any other node
+	 * is unlinked from its parent.
+	 */
+	private Object attemptRemoveNode(Node<T> parent, Node<T> node){
+		if(!node.mPresent)
+			return Boolean.FALSE;
+		
+		if(!canUnlink(node)){
+			synchronized(node){
+				if(node.mVersion == UNLINKED || canUnlink(node))
+					return RETRY;
+				if(!node.mPresent)
+					return Boolean.FALSE;
+				
+				node.mPresent = false;
+				return Boolean.TRUE;
+			}
+		}
+		
+		synchronized(parent){
+			if(parent.mVersion == UNLINKED || node.mParent != parent)
+				return RETRY;
+			
+			synchronized(node){
+				if(!node.mPresent)
+					return Boolean.FALSE;
+				if(!canUnlink(node))
+					return RETRY;
+				
+				Node<T> splice = (node.mLeft != null) ? node.mLeft : node.mRight;
+				if(parent.mLeft == node)
+					parent.mLeft = splice;
+				else
+					parent.mRight = splice;
+				if(splice != null)
+					splice.mParent = parent;
+				
+				node.mVersion = UNLINKED;
+				node.mPresent = false;
+			}
+		}
+		
+		fixHeightAndRebalance(parent);
+		return Boolean.TRUE;
+	}
+	
+	/**
+	 * Helper method that returns true if the node has at
+	 * most one child.
+	 */
+	private static boolean canUnlink(Node<?> node){
+		return node.mLeft == null || node.mRight == null;
+	}
+	
+	/**
+	 * Helper method that waits until a rotation moving keys
+	 * out of the subtree of the node has completed. It spins
+	 * first, then blocks on the lock held by the rotation.
+	 */
+	private static void waitUntilNotChanging(Node<?> node){
+		long version = node.mVersion;
+		
+		if((version & SHRINKING) == 0)
+			return;
+		
+		for(int i = 0; i < SPIN_COUNT; i++){
+			if(node.mVersion != version)
+				return;
+			Thread.onSpinWait();
+		}
+		
+		synchronized(node){
+		}
+	}
+	
+	/**
+	 * Helper method that repairs heights, unlinks routing nodes
+	 * and rotates from the provided node up to the root. Nodes
+	 * that need nothing are passed without taking their lock.
+	 * @param node
+	 */
+	private void fixHeightAndRebalance(Node<T> node){
+		while(node != null && node.mParent != null){
+			if(node.mVersion == UNLINKED)
+				return;
+			
+			int condition = nodeCondition(node);
+			if(condition == NOTHING_REQUIRED)
+				node = node.mParent;
+			else if(condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED){
+				synchronized(node){
+					node = fixHeight(node);
+				}
+			}
+			else{
+				Node<T> parent = node.mParent;
+				synchronized(parent){
+					if(parent.mVersion != UNLINKED && node.mParent == parent){
+						synchronized(node){
+							node = rebalance(parent, node);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that finds out what a node needs.
+	 * @param node
+	 * @return UNLINK_REQUIRED, REBALANCE_REQUIRED, NOTHING_REQUIRED
+	 * or the height the node should have
+	 */
+	private static int nodeCondition(Node<?> node){
+		Node<?> left = node.mLeft;
+		Node<?> right = node.mRight;
+		
+		if((left == null || right == null) && !node.mPresent)
+			return UNLINK_REQUIRED;
+		
+		int hL = height(left);
+		int hR = height(right);
+		int balance = hL - hR;
+		
+		if(balance < -1 || balance > 1)
+			return REBALANCE_REQUIRED;
+		
+		int height = 1 + Math.max(hL, hR);
+		return (node.mHeight != height) ? height : NOTHING_REQUIRED;
+	}
+	
+	/**
+	 * Helper method that repairs the height of a locked node.
+	 * @param node
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> fixHeight(Node<T> node){
+		int condition = nodeCondition(node);
+		
+		switch(condition){
+		case REBALANCE_REQUIRED:
+		case UNLINK_REQUIRED:
+			return node;
+		case NOTHING_REQUIRED:
+			return node.mParent;
+		default:
+			node.mHeight = condition;
+			return node.mParent;
+		}
+	}
+	
+	/**
+	 * Helper method that unlinks, rotates or repairs the height
+	 * of a locked node whose parent is locked too.
+	 * @param parent
+	 * @param node
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> rebalance(Node<T> parent, Node<T> node){
+		Node<T> left = node.mLeft;
+		Node<T> right = node.mRight;
+		
+		if((left == null || right == null) && !node.mPresent)
+			return attemptUnlink(parent, node) ? fixHeight(parent) : node;
+		
+		int hN = node.mHeight;
+		int hL = height(left);
+		int hR = height(right);
+		int height = 1 + Math.max(hL, hR);
+		int balance = hL - hR;
+		
+		if(balance > 1)
+			return rebalanceToRight(parent, node, left, hR);
+		if(balance < -1)
+			return rebalanceToLeft(parent, node, right, hL);
+		if(height != hN){
+			node.mHeight = height;
+			return fixHeight(parent);
+		}
+		return parent;
+	}
+	
+	/**
+	 * Helper method that unlinks a locked routing node with at
+	 * most one child from its locked parent.
+	 * @return true if the node was unlinked
+	 */
+	private static <T> boolean attemptUnlink(Node<T> parent, Node<T> node){
+		Node<T> parentLeft = parent.mLeft;
+		Node<T> parentRight = parent.mRight;
+		
+		if(parentLeft != node && parentRight != node)
+			return false;
+		
+		Node<T> left = node.mLeft;
+		Node<T> right = node.mRight;
+		if(left != null && right != null)
+			return false;
+		
+		Node<T> splice = (left != null) ? left : right;
+		if(parentLeft == node)
+			parent.mLeft = splice;
+		else
+			parent.mRight = splice;
+		if(splice != null)
+			splice.mParent = parent;
+		
+		node.mVersion = UNLINKED;
+		node.mPresent = false;
+		return true;
+	}
+	
+	/**
+	 * Helper method that rotates a left heavy locked node to
+	 * the right, first rotating its left child to the left if
+	 * that child is right heavy.
+	 */
+	private static <T> Node<T> rebalanceToRight(Node<T> parent, Node<T> node, Node<T> left, int hR){
+		synchronized(left){
+			int hL = left.mHeight;
+			if(hL - hR <= 1)
+				return node;
+			
+			Node<T> leftRight = left.mRight;
+			int hLL = height(left.mLeft);
+			int hLR = height(leftRight);
+			
+			if(hLL >= hLR)
+				return rotateRight(parent, node, left, hR, hLL, leftRight, hLR);
+			
+			synchronized(leftRight){
+				hLR = leftRight.mHeight;
+				if(hLL >= hLR)
+					return rotateRight(parent, node, left, hR, hLL, leftRight, hLR);
+				
+				int hLRL = height(leftRight.mLeft);
+				int balance = hLL - hLRL;
+				if(balance >= -1 && balance <= 1)
+					return rotateRightOverLeft(parent, node, left, hR, hLL, leftRight, hLRL);
+			}
+			
+			//The left child is right heavy by two, or its right child is out of balance
+			if(hLR - hLL > 1)
+				return rebalanceToLeft(node, left, leftRight, hLL);
+			return leftRight;
+		}
+	}
+	
+	/**
+	 * Helper method that rotates a right heavy locked node to
+	 * the left, first rotating its right child to the right if
+	 * that child is left heavy.
+	 */
+	private static <T> Node<T> rebalanceToLeft(Node<T> parent, Node<T> node, Node<T> right, int hL){
+		synchronized(right){
+			int hR = right.mHeight;
+			if(hL - hR >= -1)
+				return node;
+			
+			Node<T> rightLeft = right.mLeft;
+			int hRL = height(rightLeft);
+			int hRR = height(right.mRight);
+			
+			if(hRR >= hRL)
+				return rotateLeft(parent, node, hL, right, rightLeft, hRL, hRR);
+			
+			synchronized(rightLeft){
+				hRL = rightLeft.mHeight;
+				if(hRR >= hRL)
+					return rotateLeft(parent, node, hL, right, rightLeft, hRL, hRR);
+				
+				int hRLR = height(rightLeft.mRight);
+				int balance = hRR - hRLR;
+				if(balance >= -1 && balance <= 1)
+					return rotateLeftOverRight(parent, node, hL, right, rightLeft, hRR, hRLR);
+			}
+			
+			//The right child is left heavy by two, or its left child is out of balance
+			if(hRL - hRR > 1)
+				return rebalanceToRight(node, right, rightLeft, hRR);
+			return rightLeft;
+		}
+	}
+	
+	/**
+	 * Helper method that rotates a locked node to the right.
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> rotateRight(Node<T> parent, Node<T> node, Node<T> left,
+			int hR, int hLL, Node<T> leftRight, int hLR){
+		long version = node.mVersion;
+		Node<T> parentLeft = parent.mLeft;
+		
+		node.mVersion = version | SHRINKING;
+		
+		node.mLeft = leftRight;
+		if(leftRight != null)
+			leftRight.mParent = node;
+		
+		left.mRight = node;
+		node.mParent = left;
+		
+		if(parentLeft == node)
+			parent.mLeft = left;
+		else
+			parent.mRight = left;
+		left.mParent = parent;
+		
+		int hNode = 1 + Math.max(hLR, hR);
+		node.mHeight = hNode;
+		left.mHeight = 1 + Math.max(hLL, hNode);
+		
+		node.mVersion = version + SHRINK_COUNT_INCR;
+		
+		int balanceNode = hLR - hR;
+		if(balanceNode < -1 || balanceNode > 1)
+			return node;
+		if((leftRight == null || hR == 0) && !node.mPresent)
+			return node;
+		
+		int balanceLeft = hLL - hNode;
+		if(balanceLeft < -1 || balanceLeft > 1)
+			return left;
+		if(hLL == 0 && !left.mPresent)
+			return left;
+		
+		return fixHeight(parent);
+	}
+	
+	/**
+	 * Helper method that rotates a locked node to the left.
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> rotateLeft(Node<T> parent, Node<T> node, int hL,
+			Node<T> right, Node<T> rightLeft, int hRL, int hRR){
+		long version = node.mVersion;
+		Node<T> parentLeft = parent.mLeft;
+		
+		node.mVersion = version | SHRINKING;
+		
+		node.mRight = rightLeft;
+		if(rightLeft != null)
+			rightLeft.mParent = node;
+		
+		right.mLeft = node;
+		node.mParent = right;
+		
+		if(parentLeft == node)
+			parent.mLeft = right;
+		else
+			parent.mRight = right;
+		right.mParent = parent;
+		
+		int hNode = 1 + Math.max(hL, hRL);
+		node.mHeight = hNode;
+		right.mHeight = 1 + Math.max(hNode, hRR);
+		
+		node.mVersion = version + SHRINK_COUNT_INCR;
+		
+		int balanceNode = hRL - hL;
+		if(balanceNode < -1 || balanceNode > 1)
+			return node;
+		if((rightLeft == null || hL == 0) && !node.mPresent)
+			return node;
+		
+		int balanceRight = hRR - hNode;
+		if(balanceRight < -1 || balanceRight > 1)
+			return right;
+		if(hRR == 0 && !right.mPresent)
+			return right;
+		
+		return fixHeight(parent);
+	}
+	
+	/**
+	 * Helper method that rotates the right child of the left
+	 * child of a locked node up to the place of the node.
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> rotateRightOverLeft(Node<T> parent, Node<T> node, Node<T> left,
+			int hR, int hLL, Node<T> leftRight, int hLRL){
+		long version = node.mVersion;
+		long leftVersion = left.mVersion;
+		Node<T> parentLeft = parent.mLeft;
+		Node<T> leftRightLeft = leftRight.mLeft;
+		Node<T> leftRightRight = leftRight.mRight;
+		int hLRR = height(leftRightRight);
+		
+		node.mVersion = version | SHRINKING;
+		left.mVersion = leftVersion | SHRINKING;
+		
+		node.mLeft = leftRightRight;
+		if(leftRightRight != null)
+			leftRightRight.mParent = node;
+		
+		left.mRight = leftRightLeft;
+		if(leftRightLeft != null)
+			leftRightLeft.mParent = left;
+		
+		leftRight.mLeft = left;
+		left.mParent = leftRight;
+		leftRight.mRight = node;
+		node.mParent = leftRight;
+		
+		if(parentLeft == node)
+			parent.mLeft = leftRight;
+		else
+			parent.mRight = leftRight;
+		leftRight.mParent = parent;
+		
+		int hNode = 1 + Math.max(hLRR, hR);
+		node.mHeight = hNode;
+		int hLeft = 1 + Math.max(hLL, hLRL);
+		left.mHeight = hLeft;
+		leftRight.mHeight = 1 + Math.max(hLeft, hNode);
+		
+		node.mVersion = version + SHRINK_COUNT_INCR;
+		left.mVersion = leftVersion + SHRINK_COUNT_INCR;
+		
+		int balanceNode = hLRR - hR;
+		if(balanceNode < -1 || balanceNode > 1)
+			return node;
+		if((leftRightRight == null || hR == 0) && !node.mPresent)
+			return node;
+		if((hLL == 0 || hLRL == 0) && !left.mPresent)
+			return left;
+		
+		int balanceLeftRight = hLeft - hNode;
+		if(balanceLeftRight < -1 || balanceLeftRight > 1)
+			return leftRight;
+		
+		return fixHeight(parent);
+	}
+	
+	/**
+	 * Helper method that rotates the left child of the right
+	 * child of a locked node up to the place of the node.
+	 * @return next node to repair
+	 */
+	private static <T> Node<T> rotateLeftOverRight(Node<T> parent, Node<T> node, int hL,
+			Node<T> right, Node<T> rightLeft, int hRR, int hRLR){
+		long version = node.mVersion;
+		long rightVersion = right.mVersion;
+		Node<T> parentLeft = parent.mLeft;
+		Node<T> rightLeftLeft = rightLeft.mLeft;
+		Node<T> rightLeftRight = rightLeft.mRight;
+		int hRLL = height(rightLeftLeft);
+		
+		node.mVersion = version | SHRINKING;
+		right.mVersion = rightVersion | SHRINKING;
+		
+		node.mRight = rightLeftLeft;
+		if(rightLeftLeft != null)
+			rightLeftLeft.mParent = node;
+		
+		right.mLeft = rightLeftRight;
+		if(rightLeftRight != null)
+			rightLeftRight.mParent = right;
+		
+		rightLeft.mRight = right;
+		right.mParent = rightLeft;
+		rightLeft.mLeft = node;
+		node.mParent = rightLeft;
+		
+		if(parentLeft == node)
+			parent.mLeft = rightLeft;
+		else
+			parent.mRight = rightLeft;
+		rightLeft.mParent = parent;
+		
+		int hNode = 1 + Math.max(hL, hRLL);
+		node.mHeight = hNode;
+		int hRight = 1 + Math.max(hRLR, hRR);
+		right.mHeight = hRight;
+		rightLeft.mHeight = 1 + Math.max(hNode, hRight);
+		
+		node.mVersion = version + SHRINK_COUNT_INCR;
+		right.mVersion = rightVersion + SHRINK_COUNT_INCR;
+		
+		int balanceNode = hRLL - hL;
+		if(balanceNode < -1 || balanceNode > 1)
+			return node;
+		if((rightLeftLeft == null || hL == 0) && !node.mPresent)
+			return node;
+		if((hRR == 0 || hRLR == 0) && !right.mPresent)
+			return right;
+		
+		int balanceRightLeft = hRight - hNode;
+		if(balanceRightLeft < -1 || balanceRightLeft > 1)
+			return rightLeft;
+		
+		return fixHeight(parent);
+	}
+	
+	/**
+	 * Helper method that returns the height of a node.
+	 * @param n
+	 * @return height of the node, 0 if it is null
+	 */
+	private static int height(Node<?> n){
+		return (n == null) ? 0 : n.mHeight;
+	}
+}
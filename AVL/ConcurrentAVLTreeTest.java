@@ -0,0 +1,126 @@
+package AVL;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for ConcurrentAVLTree
+ * @author Arjun Passi
+ *
+ */
+public class ConcurrentAVLTreeTest {
+	
+	/** Reference to the tree on which testing will be performed*/
+	private ConcurrentAVLTree<Integer> mTestTree;
+	
+	@Before
+	public void setUp(){
+		mTestTree = new ConcurrentAVLTree<Integer>();
+	}
+	
+	/**
+	 * Test method for {@link ConcurrentAVLTree#insert(Comparable)}
+	 */
+	@Test
+	public void testInsert(){
+		assertFalse(mTestTree.insert(null));
+		assertTrue(mTestTree.insert(100));
+		assertFalse(mTestTree.insert(100));
+		assertEquals(mTestTree.size(), 1);
+		
+		for(int i = 0; i < 5000; i++)
+			mTestTree.insert(i);
+		
+		assertEquals(mTestTree.size(), 5000);
+		for(int i = 0; i < 5000; i++)
+			assertTrue(mTestTree.contains(i));
+		assertFalse(mTestTree.contains(5000));
+		assertFalse(mTestTree.contains(null));
+	}
+	
+	/**
+	 * Test method for {@link ConcurrentAVLTree#remove(Comparable)}
+	 * against a TreeSet, including elements removed while their
+	 * node still has two children
+	 */
+	@Test
+	public void testRemove(){
+		Random random = new Random(48);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		
+		for(int i = 0; i < 20000; i++){
+			int data = random.nextInt(1000);
+			
+			if(random.nextBoolean())
+				assertEquals(mTestTree.insert(data), expected.add(data));
+			else
+				assertEquals(mTestTree.remove(data), expected.remove(data));
+		}
+		
+		assertEquals(mTestTree.size(), expected.size());
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestTree.contains(i), expected.contains(i));
+		assertFalse(mTestTree.remove(null));
+	}
+	
+	/**
+	 * Test method for concurrent updates and lookups: elements
+	 * inserted before the threads start must always be found, and
+	 * every element must end up present exactly when more of its
+	 * insertions than removals succeeded.
+	 */
+	@Test
+	public void testConcurrentUpdates() throws Exception{
+		for(int i = 1; i <= 500; i++)
+			mTestTree.insert(-i);
+		
+		final AtomicIntegerArray net = new AtomicIntegerArray(2000);
+		final AtomicBoolean failed = new AtomicBoolean();
+		Thread[] threads = new Thread[4];
+		
+		for(int t = 0; t < threads.length; t++){
+			final int id = t;
+			threads[t] = new Thread(new Runnable(){
+				public void run(){
+					Random random = new Random(id);
+					for(int i = 0; i < 50000; i++){
+						int data = random.nextInt(2000);
+						
+						switch(random.nextInt(3)){
+						case 0:
+							if(mTestTree.insert(data))
+								net.incrementAndGet(data);
+							break;
+						case 1:
+							if(mTestTree.remove(data))
+								net.decrementAndGet(data);
+							break;
+						default:
+							if(!mTestTree.contains(-1 - random.nextInt(500)))
+								failed.set(true);
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		
+		assertFalse(failed.get());
+		
+		int size = 500;
+		for(int i = 0; i < 2000; i++){
+			assertTrue(net.get(i) == 0 || net.get(i) == 1);
+			assertEquals(mTestTree.contains(i), net.get(i) == 1);
+			size += net.get(i);
+		}
+		assertEquals(mTestTree.size(), size);
+	}
+}
@@ -0,0 +1,438 @@
+package AVL;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * LongAVLTree is an AVL tree of primitive long elements. Instead
+ * of node objects the tree keeps its nodes in parallel arrays: the
+ * element, the indices of both children and the height of every
+ * node. An element costs 17 bytes and is never boxed, and walking
+ * down the tree reads arrays instead of following references.
+ * 
+ * The slots of removed nodes are kept on a free list, linked through
+ * the left child array, and reused by later insertions.
+ * 
+ * @author Arjun Passi
+ *
+ */
+public class LongAVLTree{
+	
+	/** Reference to the index standing for a missing node */
+	private static final int NIL = -1;
+	
+	/** Reference to the capacity of a tree created without one */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/** Reference to the element of every node */
+	private long[] mKeys;
+	
+	/** Reference to the left child of every node, or the next free slot */
+	private int[] mLeft;
+	
+	/** Reference to the right child of every node */
+	private int[] mRight;
+	
+	/** Reference to the height of every node */
+	private byte[] mHeights;
+	
+	/** Reference to the root node */
+	private int mRoot = NIL;
+	
+	/** Reference to the first slot of the free list */
+	private int mFree = NIL;
+	
+	/** Reference to the number of slots ever used */
+	private int mUsed;
+	
+	/** Reference to the number of elements in the tree */
+	private int mSize;
+	
+	/** Reference to the array reused to hold the path walked by an update */
+	private int[] mPath = new int[8];
+	
+	/**
+	 * Constructs a new empty tree.
+	 */
+	public LongAVLTree(){
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Constructs a new empty tree able to hold the provided
+	 * number of elements before its arrays grow.
+	 * 
+	 * Throws an IllegalArgumentException if the capacity
+	 * is negative.
+	 * 
+	 * @param capacity
+	 */
+	public LongAVLTree(int capacity){
+		if(capacity < 0)
+			throw new IllegalArgumentException("Capacity is negative");
+		
+		mKeys = new long[capacity];
+		mLeft = new int[capacity];
+		mRight = new int[capacity];
+		mHeights = new byte[capacity];
+	}
+	
+	/**
+	 * Method to find out whether the provided data
+	 * is in the tree.
+	 * 
+	 * @param data : data element to be found.
+	 * @return true if the element exists in the tree
+	 * otherwise false.
+	 */
+	public boolean contains(long data){
+		int n = mRoot;
+		
+		while(n != NIL){
+			long key = mKeys[n];
+			
+			if(data == key)
+				return true;
+			n = (data < key) ? mLeft[n] : mRight[n];
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Method to retrieve the minimum data element
+	 * in the tree.
+	 * 
+	 * Throws a NoSuchElementException if the tree is empty.
+	 * 
+	 * @return : the minimum element.
+	 */
+	public long min(){
+		if(mRoot == NIL)
+			throw new NoSuchElementException("Tree is empty");
+		
+		int n = mRoot;
+		while(mLeft[n] != NIL)
+			n = mLeft[n];
+		return mKeys[n];
+	}
+	
+	/**
+	 * Method to retrieve the max data element in
+	 * the tree.
+	 * 
+	 * Throws a NoSuchElementException if the tree is empty.
+	 * 
+	 * @return : the maximum element.
+	 */
+	public long max(){
+		if(mRoot == NIL)
+			throw new NoSuchElementException("Tree is empty");
+		
+		int n = mRoot;
+		while(mRight[n] != NIL)
+			n = mRight[n];
+		return mKeys[n];
+	}
+	
+	/**
+	 * This method allows to insert a data element
+	 * in the tree.
+	 * @param data
+	 * @return true if the insertion was sucesfull else
+	 * false
+	 */
+	public boolean insert(long data){
+		if(mRoot == NIL){
+			mRoot = allocate(data);
+			mSize++;
+			return true;
+		}
+		
+		int[] path = path();
+		int depth = 0;
+		int n = mRoot;
+		boolean left;
+		
+		//Walk down to the parent of the new leaf
+		while(true){
+			long key = mKeys[n];
+			if(data == key)
+				return false;
+			
+			path[depth++] = n;
+			left = data < key;
+			int next = left ? mLeft[n] : mRight[n];
+			if(next == NIL)
+				break;
+			n = next;
+		}
+		
+		int leaf = allocate(data);
+		if(left)
+			mLeft[n] = leaf;
+		else
+			mRight[n] = leaf;
+		
+		mSize++;
+		rebalance(path, depth);
+		return true;
+	}
+	
+	/**
+	 * Method removes the data element from the tree.
+	 * @param data
+	 * @return true if the element was removed else false
+	 */
+	public boolean remove(long data){
+		int[] path = path();
+		int depth = 0;
+		int n = mRoot;
+		
+		while(n != NIL){
+			long key = mKeys[n];
+			if(data == key)
+				break;
+			
+			path[depth++] = n;
+			n = (data < key) ? mLeft[n] : mRight[n];
+		}
+		
+		if(n == NIL)
+			return false;
+		
+		if(mLeft[n] != NIL && mRight[n] != NIL){
+			//Move the successor into the node and remove its slot instead
+			path[depth++] = n;
+			int successor = mRight[n];
+			while(mLeft[successor] != NIL){
+				path[depth++] = successor;
+				successor = mLeft[successor];
+			}
+			
+			mKeys[n] = mKeys[successor];
+			n = successor;
+		}
+		
+		int child = (mLeft[n] != NIL) ? mLeft[n] : mRight[n];
+		replaceChild((depth == 0) ? NIL : path[depth - 1], n, child);
+		release(n);
+		
+		mSize--;
+		rebalance(path, depth);
+		return true;
+	}
+	
+	/**
+	 * Method that returns the number of elements
+	 * in the tree.
+	 * @return size
+	 */
+	public int size(){
+		return mSize;
+	}
+	
+	/**
+	 * Removes all the elements in the tree. The arrays
+	 * are kept for the elements inserted next.
+	 */
+	public void removeAll(){
+		mRoot = NIL;
+		mFree = NIL;
+		mUsed = 0;
+		mSize = 0;
+	}
+	
+	/**
+	 * Method that returns the elements of the tree
+	 * in ascending order.
+	 * @return sorted array of the elements
+	 */
+	public long[] toArray(){
+		long[] elements = new long[mSize];
+		int[] stack = new int[height(mRoot) + 1];
+		int top = 0;
+		int count = 0;
+		int n = mRoot;
+		
+		while(n != NIL || top > 0){
+			while(n != NIL){
+				stack[top++] = n;
+				n = mLeft[n];
+			}
+			
+			n = stack[--top];
+			elements[count++] = mKeys[n];
+			n = mRight[n];
+		}
+		
+		return elements;
+	}
+	
+	/**
+	 * Helper method that walks the path back up from the
+	 * changed node, updating heights and rotating the nodes
+	 * off by two. It stops as soon as a subtree keeps its
+	 * height since the nodes above are then unchanged.
+	 * @param path : nodes from the root down to the parent of the change
+	 * @param depth : number of nodes on the path
+	 */
+	private void rebalance(int[] path, int depth){
+		for(int i = depth - 1; i >= 0; i--){
+			int n = path[i];
+			int oldHeight = mHeights[n];
+			int subRoot = performRotation(n);
+			
+			if(subRoot != n)
+				replaceChild((i == 0) ? NIL : path[i - 1], n, subRoot);
+			
+			if(mHeights[subRoot] == oldHeight)
+				return;
+		}
+	}
+	
+	/**
+	 * Helper method that rotates the node if its subtrees
+	 * differ in height by two, otherwise it updates its height.
+	 * @param n
+	 * @return root of the subtree after the rotation
+	 */
+	private int performRotation(int n){
+		int balance = height(mLeft[n]) - height(mRight[n]);
+		
+		if(balance > 1){
+			int left = mLeft[n];
+			if(height(mLeft[left]) < height(mRight[left]))
+				mLeft[n] = leftRotateRightChild(left);
+			return rightRotateLeftChild(n);
+		}
+		if(balance < -1){
+			int right = mRight[n];
+			if(height(mRight[right]) < height(mLeft[right]))
+				mRight[n] = rightRotateLeftChild(right);
+			return leftRotateRightChild(n);
+		}
+		
+		update(n);
+		return n;
+	}
+	
+	/**
+	 * Helper method that rotates the left child of the
+	 * node up to its place.
+	 * @return new root of the subtree
+	 */
+	private int rightRotateLeftChild(int n){
+		int left = mLeft[n];
+		mLeft[n] = mRight[left];
+		mRight[left] = n;
+		update(n);
+		update(left);
+		return left;
+	}
+	
+	/**
+	 * Helper method that rotates the right child of the
+	 * node up to its place.
+	 * @return new root of the subtree
+	 */
+	private int leftRotateRightChild(int n){
+		int right = mRight[n];
+		mRight[n] = mLeft[right];
+		mLeft[right] = n;
+		update(n);
+		update(right);
+		return right;
+	}
+	
+	/**
+	 * Helper method that replaces a child of the provided
+	 * parent, or the root if there is no parent.
+	 * @param parent
+	 * @param child : child being replaced
+	 * @param replacement
+	 */
+	private void replaceChild(int parent, int child, int replacement){
+		if(parent == NIL)
+			mRoot = replacement;
+		else if(mLeft[parent] == child)
+			mLeft[parent] = replacement;
+		else
+			mRight[parent] = replacement;
+	}
+	
+	/**
+	 * Helper method that takes a slot from the free list, or
+	 * the next unused slot, for a new leaf.
+	 * @param data
+	 * @return index of the new node
+	 */
+	private int allocate(long data){
+		int n = mFree;
+		
+		if(n != NIL)
+			mFree = mLeft[n];
+		else{
+			if(mUsed == mKeys.length)
+				grow();
+			n = mUsed++;
+		}
+		
+		mKeys[n] = data;
+		mLeft[n] = NIL;
+		mRight[n] = NIL;
+		mHeights[n] = 0;
+		return n;
+	}
+	
+	/**
+	 * Helper method that puts the slot of a removed
+	 * node on the free list.
+	 * @param n
+	 */
+	private void release(int n){
+		mLeft[n] = mFree;
+		mFree = n;
+	}
+	
+	/**
+	 * Helper method that doubles the capacity of the arrays.
+	 */
+	private void grow(){
+		int capacity = Math.max(DEFAULT_CAPACITY, mKeys.length * 2);
+		
+		mKeys = Arrays.copyOf(mKeys, capacity);
+		mLeft = Arrays.copyOf(mLeft, capacity);
+		mRight = Arrays.copyOf(mRight, capacity);
+		mHeights = Arrays.copyOf(mHeights, capacity);
+	}
+	
+	/**
+	 * Helper method that returns an array able to hold
+	 * the longest path from the root to a leaf.
+	 * @return array for the path
+	 */
+	private int[] path(){
+		int length = height(mRoot) + 2;
+		if(mPath.length < length)
+			mPath = new int[length + 8];
+		return mPath;
+	}
+	
+	/**
+	 * Helper method that recomputes the height of a node
+	 * from its children.
+	 * @param n
+	 */
+	private void update(int n){
+		mHeights[n] = (byte) (Math.max(height(mLeft[n]), height(mRight[n])) + 1);
+	}
+	
+	/**
+	 * Helper method that returns the height of a node.
+	 * @param n
+	 * @return height of the node, -1 if it is NIL
+	 */
+	private int height(int n){
+		return (n == NIL) ? -1 : mHeights[n];
+	}
+}
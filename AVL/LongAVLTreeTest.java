@@ -0,0 +1,100 @@
+package AVL;
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for LongAVLTree
+ * @author Arjun Passi
+ *
+ */
+public class LongAVLTreeTest {
+	
+	/** Reference to the tree on which testing will be performed*/
+	private LongAVLTree mTestTree;
+	
+	@Before
+	public void setUp(){
+		mTestTree = new LongAVLTree();
+	}
+	
+	/**
+	 * Test method for {@link LongAVLTree#insert(long)}
+	 */
+	@Test
+	public void testInsert(){
+		assertTrue(mTestTree.insert(100));
+		assertFalse(mTestTree.insert(100));
+		assertTrue(mTestTree.insert(Long.MIN_VALUE));
+		assertTrue(mTestTree.insert(Long.MAX_VALUE));
+		assertEquals(mTestTree.size(), 3);
+		assertEquals(mTestTree.min(), Long.MIN_VALUE);
+		assertEquals(mTestTree.max(), Long.MAX_VALUE);
+		
+		for(long i = 0; i < 10000; i++)
+			mTestTree.insert(i * 1000000007L);
+		
+		assertEquals(mTestTree.size(), 10003);
+		for(long i = 0; i < 10000; i++)
+			assertTrue(mTestTree.contains(i * 1000000007L));
+		assertFalse(mTestTree.contains(1));
+	}
+	
+	/**
+	 * Test method for {@link LongAVLTree#remove(long)}
+	 * against a TreeSet
+	 */
+	@Test
+	public void testRemove(){
+		Random random = new Random(49);
+		TreeSet<Long> expected = new TreeSet<Long>();
+		
+		for(int i = 0; i < 50000; i++){
+			long data = random.nextInt(2000);
+			
+			if(random.nextBoolean())
+				assertEquals(mTestTree.insert(data), expected.add(data));
+			else
+				assertEquals(mTestTree.remove(data), expected.remove(data));
+		}
+		
+		assertEquals(mTestTree.size(), expected.size());
+		assertEquals(mTestTree.min(), (long) expected.first());
+		assertEquals(mTestTree.max(), (long) expected.last());
+		
+		long[] elements = mTestTree.toArray();
+		int i = 0;
+		for(long data : expected)
+			assertEquals(elements[i++], data);
+	}
+	
+	/**
+	 * Test method for {@link LongAVLTree#removeAll()}
+	 */
+	@Test
+	public void testRemoveAll(){
+		for(long i = 0; i < 100; i++)
+			mTestTree.insert(i);
+		
+		mTestTree.removeAll();
+		assertEquals(mTestTree.size(), 0);
+		assertFalse(mTestTree.contains(5));
+		assertEquals(mTestTree.toArray().length, 0);
+		
+		assertTrue(mTestTree.insert(5));
+		assertEquals(mTestTree.min(), 5);
+	}
+	
+	/**
+	 * Test method for {@link LongAVLTree#min()}
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testMinEmpty(){
+		mTestTree.min();
+	}
+}
@@ -0,0 +1,548 @@
+package AVL;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements an immutable AVL tree. Every insertion
+ * or removal returns a new version of the tree that shares all
+ * untouched nodes with the previous one, so an update only copies
+ * the O(log n) nodes on the path from the root to the changed
+ * element and the nodes rotated on the way back up.
+ *
+ * Because a version can never change, taking a snapshot is free
+ * and a version can be handed to any number of reader threads
+ * while a writer keeps deriving new versions from it.
+ *
+ * For bulk edits a {@link Transient} view can be obtained with
+ * {@link #asTransient()}. It updates the nodes it created in place
+ * and is turned back into an immutable tree with
+ * {@link Transient#persistent()}.
+ *
+ * @author Arjun Passi
+ *
+ */
+public class PersistentAVLTree <T extends Comparable<? super T>> implements Iterable<T>{
+	
+	/**
+	 * This class represents a mutable view of a PersistentAVLTree
+	 * that updates the nodes it has created in place. It is meant
+	 * to be used by a single thread for bulk edits and is discarded
+	 * by calling {@link #persistent()}.
+	 * @author Arjun Passi
+	 *
+	 */
+	public static class Transient <T extends Comparable<? super T>>{
+		
+		/** Reference to the token marking the nodes owned by this transient */
+		private Object mEdit;
+		
+		/** Reference to the root of the tree */
+		private Node<T> mRoot;
+		
+		/** Reference to the number of elements in the tree */
+		private int mSize;
+		
+		/** Reference to the flag set by an update that changed the tree */
+		private final Box mBox;
+		
+		/**
+		 * Constructs a new transient view of the provided tree.
+		 * @param root : root of the tree
+		 * @param size : number of elements in the tree
+		 */
+		private Transient(Node<T> root, int size){
+			mEdit = new Object();
+			mRoot = root;
+			mSize = size;
+			mBox = new Box();
+		}
+		
+		/**
+		 * This method allows to insert a data element
+		 * in the tree.
+		 * 
+		 * Throws an IllegalStateException if {@link #persistent()}
+		 * was already called.
+		 * 
+		 * @param data
+		 * @return true if the insertion was sucesfull else
+		 * false
+		 */
+		public boolean insert(T data){
+			ensureEditable();
+			if(data == null)
+				return false;
+			
+			mBox.mChanged = false;
+			mRoot = PersistentAVLTree.insert(mEdit, mRoot, data, mBox);
+			
+			if(mBox.mChanged)
+				mSize++;
+			return mBox.mChanged;
+		}
+		
+		/**
+		 * Method removes the data element from the tree.
+		 * 
+		 * Throws an IllegalStateException if {@link #persistent()}
+		 * was already called.
+		 * 
+		 * @param data
+		 * @return true if the element was removed else false
+		 */
+		public boolean remove(T data){
+			ensureEditable();
+			if(data == null)
+				return false;
+			
+			mBox.mChanged = false;
+			mRoot = PersistentAVLTree.remove(mEdit, mRoot, data, mBox);
+			
+			if(mBox.mChanged)
+				mSize--;
+			return mBox.mChanged;
+		}
+		
+		/**
+		 * Method to find out whether the provided data
+		 * is in the tree.
+		 * 
+		 * @param data : data element to be found.
+		 * @return true if the element exists in the tree
+		 * otherwise false.
+		 */
+		public boolean contains(T data){
+			ensureEditable();
+			return node(mRoot, data) != null;
+		}
+		
+		/**
+		 * Method that returns the number of elements
+		 * in the tree.
+		 * @return size
+		 */
+		public int size(){
+			ensureEditable();
+			return mSize;
+		}
+		
+		/**
+		 * Method that ends the transient and returns an immutable
+		 * tree holding its contents. The transient can not be
+		 * used afterwards.
+		 * 
+		 * @return immutable tree
+		 */
+		public PersistentAVLTree<T> persistent(){
+			ensureEditable();
+			mEdit = null;
+			return new PersistentAVLTree<T>(mRoot, mSize);
+		}
+		
+		/**
+		 * Helper method that throws an IllegalStateException
+		 * once the transient has been made persistent.
+		 */
+		private void ensureEditable(){
+			if(mEdit == null)
+				throw new IllegalStateException("Transient used after persistent()");
+		}
+	}
+	
+	/**
+	 * This class represents a node of the tree. Nodes reachable
+	 * from a persistent version are never modified; a transient
+	 * only modifies the nodes marked with its token.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Node <T>{
+		
+		/** Reference to the token of the transient owning the node, or null */
+		private final Object mEdit;
+		
+		/** Reference to the data element stored in the node. */
+		private final T mData;
+		
+		/** Reference to the left child of the node */
+		private Node<T> mLeft;
+		
+		/** Reference to the right child of the node*/
+		private Node<T> mRight;
+		
+		/** Reference to the height of the node*/
+		private int mHeight;
+		
+		/**
+		 * Constructs a new node.
+		 * @param edit : owner token or null
+		 * @param data
+		 * @param left
+		 * @param right
+		 */
+		private Node(Object edit, T data, Node<T> left, Node<T> right){
+			mEdit = edit;
+			mData = data;
+			mLeft = left;
+			mRight = right;
+			mHeight = Math.max(height(left), height(right)) + 1;
+		}
+	}
+	
+	/**
+	 * This class is used by the recursive updates to report
+	 * whether the tree changed.
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Box{
+		
+		/** Reference to the flag set when an element was added or removed */
+		private boolean mChanged;
+	}
+	
+	/** Reference to the shared empty tree */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static final PersistentAVLTree EMPTY = new PersistentAVLTree(null, 0);
+	
+	/** Reference to the root of the tree, null if the tree is empty */
+	private final Node<T> mRoot;
+	
+	/** Reference to the number of elements in the tree */
+	private final int mSize;
+	
+	/**
+	 * Constructs a new version of the tree.
+	 * @param root : root of the tree
+	 * @param size : number of elements in the tree
+	 */
+	private PersistentAVLTree(Node<T> root, int size){
+		mRoot = root;
+		mSize = size;
+	}
+	
+	/**
+	 * Method that returns the empty tree.
+	 * @return empty tree
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Comparable<? super T>> PersistentAVLTree<T> empty(){
+		return (PersistentAVLTree<T>) EMPTY;
+	}
+	
+	/**
+	 * Method that returns a new version of the tree with the
+	 * data element inserted. This tree is left unchanged, and
+	 * is returned itself if it already holds the element.
+	 * @param data
+	 * @return new version of the tree
+	 */
+	public PersistentAVLTree<T> insert(T data){
+		if(data == null)
+			return this;
+		
+		Box box = new Box();
+		Node<T> root = insert(null, mRoot, data, box);
+		
+		return box.mChanged ? new PersistentAVLTree<T>(root, mSize + 1) : this;
+	}
+	
+	/**
+	 * Method that returns a new version of the tree without
+	 * the data element. This tree is left unchanged, and is
+	 * returned itself if it does not hold the element.
+	 * @param data
+	 * @return new version of the tree
+	 */
+	public PersistentAVLTree<T> remove(T data){
+		if(data == null)
+			return this;
+		
+		Box box = new Box();
+		Node<T> root = remove(null, mRoot, data, box);
+		
+		return box.mChanged ? new PersistentAVLTree<T>(root, mSize - 1) : this;
+	}
+	
+	/**
+	 * The "find" method allows to search a desired
+	 * data element in the tree.
+	 * @param data
+	 * @return the reference to the specified data element
+	 * otherwise null.
+	 */
+	public T find(T data){
+		Node<T> n = node(mRoot, data);
+		return (n == null) ? null : n.mData;
+	}
+	
+	/**
+	 * Method to find out whether the provided data
+	 * is in the tree.
+	 * 
+	 * @param data : data element to be found.
+	 * @return true if the element exists in the tree
+	 * otherwise false.
+	 */
+	public boolean contains(T data){
+		return node(mRoot, data) != null;
+	}
+	
+	/**
+	 * Method to retrieve the minimum data element
+	 * in the tree.
+	 * 
+	 * @return : reference to the minimum element, or null
+	 */
+	public T min(){
+		Node<T> n = mRoot;
+		if(n == null)
+			return null;
+		while(n.mLeft != null)
+			n = n.mLeft;
+		return n.mData;
+	}
+	
+	/**
+	 * Method to retrieve the max data element in
+	 * the tree.
+	 * 
+	 * @return : reference to the maximum element, or null
+	 */
+	public T max(){
+		Node<T> n = mRoot;
+		if(n == null)
+			return null;
+		while(n.mRight != null)
+			n = n.mRight;
+		return n.mData;
+	}
+	
+	/**
+	 * Method that returns the number of elements
+	 * in the tree.
+	 * @return size
+	 */
+	public int size(){
+		return mSize;
+	}
+	
+	/**
+	 * Method that returns a snapshot of the tree. Since the
+	 * tree is immutable this is the tree itself.
+	 * @return snapshot of the tree
+	 */
+	public PersistentAVLTree<T> snapshot(){
+		return this;
+	}
+	
+	/**
+	 * Method that returns a mutable view of this tree for bulk
+	 * edits. This tree is left unchanged.
+	 * @return transient view of the tree
+	 */
+	public Transient<T> asTransient(){
+		return new Transient<T>(mRoot, mSize);
+	}
+	
+	/**
+	 * Method that returns an iterator over the elements
+	 * of the tree in ascending order. The version iterated
+	 * can not change, so the iterator never fails.
+	 * @return iterator in ascending order
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	public Iterator<T> iterator(){
+		final Node<T>[] stack = new Node[height(mRoot) + 1];
+		int top = 0;
+		for(Node<T> n = mRoot; n != null; n = n.mLeft)
+			stack[top++] = n;
+		final int start = top;
+		
+		return new Iterator<T>(){
+			
+			/** Reference to the number of nodes on the stack */
+			private int mTop = start;
+			
+			public boolean hasNext(){
+				return mTop > 0;
+			}
+			
+			public T next(){
+				if(mTop == 0)
+					throw new NoSuchElementException("There is no next!");
+				
+				Node<T> n = stack[--mTop];
+				for(Node<T> child = n.mRight; child != null; child = child.mLeft)
+					stack[mTop++] = child;
+				return n.mData;
+			}
+		};
+	}
+	
+	/**
+	 * Helper method to find the node holding the provided
+	 * data element.
+	 * @param n : root of the subtree
+	 * @param data
+	 * @return node of the element otherwise null.
+	 */
+	private static <T extends Comparable<? super T>> Node<T> node(Node<T> n, T data){
+		if(data == null)
+			return null;
+		
+		while(n != null){
+			int cmp = data.compareTo(n.mData);
+			
+			if(cmp == 0)
+				return n;
+			n = (cmp < 0) ? n.mLeft : n.mRight;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Helper method that inserts an element in a subtree.
+	 * @param edit : owner token of a transient or null
+	 * @param n : root of the subtree
+	 * @param data
+	 * @param box : set when the element was added
+	 * @return root of the updated subtree
+	 */
+	private static <T extends Comparable<? super T>> Node<T> insert(Object edit, Node<T> n, T data, Box box){
+		if(n == null){
+			box.mChanged = true;
+			return new Node<T>(edit, data, null, null);
+		}
+		
+		int cmp = data.compareTo(n.mData);
+		
+		if(cmp < 0){
+			Node<T> left = insert(edit, n.mLeft, data, box);
+			return box.mChanged ? balance(edit, n, left, n.mRight) : n;
+		}
+		if(cmp > 0){
+			Node<T> right = insert(edit, n.mRight, data, box);
+			return box.mChanged ? balance(edit, n, n.mLeft, right) : n;
+		}
+		
+		return n;
+	}
+	
+	/**
+	 * Helper method that removes an element from a subtree.
+	 * @param edit : owner token of a transient or null
+	 * @param n : root of the subtree
+	 * @param data
+	 * @param box : set when the element was removed
+	 * @return root of the updated subtree
+	 */
+	private static <T extends Comparable<? super T>> Node<T> remove(Object edit, Node<T> n, T data, Box box){
+		if(n == null)
+			return null;
+		
+		int cmp = data.compareTo(n.mData);
+		
+		if(cmp < 0){
+			Node<T> left = remove(edit, n.mLeft, data, box);
+			return box.mChanged ? balance(edit, n, left, n.mRight) : n;
+		}
+		if(cmp > 0){
+			Node<T> right = remove(edit, n.mRight, data, box);
+			return box.mChanged ? balance(edit, n, n.mLeft, right) : n;
+		}
+		
+		box.mChanged = true;
+		if(n.mLeft == null)
+			return n.mRight;
+		if(n.mRight == null)
+			return n.mLeft;
+		
+		//The successor takes the place of the removed node
+		Node<T> successor = n.mRight;
+		while(successor.mLeft != null)
+			successor = successor.mLeft;
+		
+		return balance(edit, successor, n.mLeft, removeMin(edit, n.mRight));
+	}
+	
+	/**
+	 * Helper method that removes the minimum element of a
+	 * subtree. The node of the element is left unchanged.
+	 * @param edit : owner token of a transient or null
+	 * @param n : root of the subtree
+	 * @return root of the updated subtree
+	 */
+	private static <T> Node<T> removeMin(Object edit, Node<T> n){
+		if(n.mLeft == null)
+			return n.mRight;
+		
+		return balance(edit, n, removeMin(edit, n.mLeft), n.mRight);
+	}
+	
+	/**
+	 * Helper method that gives a node new children and rotates
+	 * it if the children heights differ by two.
+	 * @param edit : owner token of a transient or null
+	 * @param n : node whose element is kept
+	 * @param left : new left child
+	 * @param right : new right child
+	 * @return root of the balanced subtree
+	 */
+	private static <T> Node<T> balance(Object edit, Node<T> n, Node<T> left, Node<T> right){
+		if(height(left) > height(right) + 1){
+			Node<T> middle = left.mRight;
+			
+			if(height(left.mLeft) >= height(middle))
+				return node(edit, left, left.mLeft, node(edit, n, middle, right));
+			
+			return node(edit, middle, node(edit, left, left.mLeft, middle.mLeft),
+					node(edit, n, middle.mRight, right));
+		}
+		if(height(right) > height(left) + 1){
+			Node<T> middle = right.mLeft;
+			
+			if(height(right.mRight) >= height(middle))
+				return node(edit, right, node(edit, n, left, middle), right.mRight);
+			
+			return node(edit, middle, node(edit, n, left, middle.mLeft),
+					node(edit, right, middle.mRight, right.mRight));
+		}
+		
+		return node(edit, n, left, right);
+	}
+	
+	/**
+	 * Helper method that returns a node holding the element of
+	 * the provided node with the provided children. The node is
+	 * updated in place if the transient owns it, otherwise it
+	 * is copied.
+	 * @param edit : owner token of a transient or null
+	 * @param n
+	 * @param left
+	 * @param right
+	 * @return updated node or its copy
+	 */
+	private static <T> Node<T> node(Object edit, Node<T> n, Node<T> left, Node<T> right){
+		if(edit == null || n.mEdit != edit){
+			if(n.mLeft == left && n.mRight == right)
+				return n;
+			return new Node<T>(edit, n.mData, left, right);
+		}
+		
+		n.mLeft = left;
+		n.mRight = right;
+		n.mHeight = Math.max(height(left), height(right)) + 1;
+		return n;
+	}
+	
+	/**
+	 * Helper method that returns the height of a node.
+	 * @param n
+	 * @return height of the node, -1 if it is null
+	 */
+	private static int height(Node<?> n){
+		return (n == null) ? -1 : n.mHeight;
+	}
+}
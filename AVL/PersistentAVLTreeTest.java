@@ -0,0 +1,156 @@
+package AVL;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for PersistentAVLTree
+ * @author Arjun Passi
+ *
+ */
+public class PersistentAVLTreeTest {
+	
+	/** Reference to the tree on which testing will be performed*/
+	private PersistentAVLTree<Integer> mTestTree;
+	
+	@Before
+	public void setUp(){
+		mTestTree = PersistentAVLTree.empty();
+	}
+	
+	/**
+	 * Test method for {@link PersistentAVLTree#insert(Comparable)}
+	 */
+	@Test
+	public void testInsert(){
+		PersistentAVLTree<Integer> tree = mTestTree.insert(100);
+		
+		assertEquals(mTestTree.size(), 0);
+		assertFalse(mTestTree.contains(100));
+		assertEquals(tree.size(), 1);
+		assertEquals(tree.find(100), (Integer) 100);
+		assertSame(tree.insert(100), tree);
+		assertSame(tree.insert(null), tree);
+		
+		PersistentAVLTree<Integer> snapshot = tree.snapshot();
+		for(int i = 0; i < 5000; i++)
+			tree = tree.insert(i);
+		
+		assertEquals(tree.size(), 5000);
+		assertEquals(snapshot.size(), 1);
+		assertEquals(tree.min(), (Integer) 0);
+		assertEquals(tree.max(), (Integer) 4999);
+		
+		int expected = 0;
+		for(int data : tree)
+			assertEquals(data, expected++);
+		assertEquals(expected, 5000);
+	}
+	
+	/**
+	 * Test method for {@link PersistentAVLTree#remove(Comparable)}
+	 */
+	@Test
+	public void testRemove(){
+		PersistentAVLTree<Integer> tree = mTestTree;
+		for(int i = 0; i < 1000; i++)
+			tree = tree.insert(i);
+		
+		PersistentAVLTree<Integer> removed = tree;
+		for(int i = 0; i < 1000; i += 2)
+			removed = removed.remove(i);
+		
+		assertEquals(removed.size(), 500);
+		assertEquals(tree.size(), 1000);
+		assertSame(removed.remove(0), removed);
+		
+		for(int i = 0; i < 1000; i++){
+			assertEquals(removed.contains(i), i % 2 == 1);
+			assertTrue(tree.contains(i));
+		}
+	}
+	
+	/**
+	 * Test method for {@link PersistentAVLTree#insert(Comparable)} and
+	 * {@link PersistentAVLTree#remove(Comparable)} against a TreeSet,
+	 * keeping every version
+	 */
+	@Test
+	public void testVersions(){
+		Random random = new Random(47);
+		List<PersistentAVLTree<Integer>> versions = new ArrayList<PersistentAVLTree<Integer>>();
+		List<List<Integer>> contents = new ArrayList<List<Integer>>();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		PersistentAVLTree<Integer> tree = mTestTree;
+		
+		for(int i = 0; i < 5000; i++){
+			int data = random.nextInt(500);
+			
+			if(random.nextBoolean()){
+				tree = tree.insert(data);
+				expected.add(data);
+			}
+			else{
+				tree = tree.remove(data);
+				expected.remove(data);
+			}
+			
+			if(i % 250 == 0){
+				versions.add(tree);
+				contents.add(new ArrayList<Integer>(expected));
+			}
+		}
+		
+		for(int i = 0; i < versions.size(); i++){
+			List<Integer> elements = new ArrayList<Integer>();
+			for(int data : versions.get(i))
+				elements.add(data);
+			
+			assertEquals(elements, contents.get(i));
+			assertEquals(versions.get(i).size(), contents.get(i).size());
+		}
+	}
+	
+	/**
+	 * Test method for {@link PersistentAVLTree#asTransient()}
+	 */
+	@Test
+	public void testTransient(){
+		PersistentAVLTree<Integer> base = mTestTree.insert(-1);
+		PersistentAVLTree.Transient<Integer> builder = base.asTransient();
+		
+		for(int i = 0; i < 2000; i++)
+			assertTrue(builder.insert(i));
+		assertFalse(builder.insert(5));
+		assertTrue(builder.remove(-1));
+		assertFalse(builder.remove(-1));
+		
+		PersistentAVLTree<Integer> tree = builder.persistent();
+		
+		assertEquals(tree.size(), 2000);
+		assertEquals(base.size(), 1);
+		assertTrue(base.contains(-1));
+		assertFalse(tree.contains(-1));
+		
+		//A new transient must not change the nodes of the tree
+		PersistentAVLTree.Transient<Integer> other = tree.asTransient();
+		for(int i = 0; i < 2000; i += 2)
+			assertTrue(other.remove(i));
+		assertEquals(other.size(), 1000);
+		assertEquals(tree.size(), 2000);
+		for(int i = 0; i < 2000; i++)
+			assertTrue(tree.contains(i));
+		
+		try{
+			builder.insert(1);
+			fail("Transient must not be usable after persistent()");
+		} catch(IllegalStateException e){
+		}
+	}
+}
@@ -0,0 +1,636 @@
+package HashTable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a Hash Table whose keys are sequences of
+ * bytes. The bytes of every key are copied into one contiguous
+ * arena and a slot only records the offset, length and hash of its
+ * key, so a key costs no object of its own.
+ *
+ * Keys can be looked up from a slice of a byte array or from the
+ * remaining bytes of a ByteBuffer, so keys parsed from incoming
+ * data never have to be copied or turned into Strings. String keys
+ * are stored as their UTF-8 bytes.
+ *
+ * Keys are hashed with a multiply-mix hash in the style of wyhash
+ * that reads eight bytes at a time, and compared with
+ * Arrays.mismatch, which the JVM vectorizes. Slots are probed with
+ * the quadratic sequence of HashTable. The arena is compacted when
+ * the table is rehashed.
+ *
+ * @author Arjun Passi
+ *
+ * @param <V>
+ */
+public class BytesKeyHashTable<V> {
+
+	/** Reference to the length marking a slot that was never used */
+	private static final int EMPTY = -1;
+
+	/** Reference to the length marking the slot of a removed key */
+	private static final int REMOVED = -2;
+
+	/** Reference to the constants of the hash function */
+	private static final long P0 = 0xa0761d6478bd642fL;
+	private static final long P1 = 0xe7037ed1a0b428dbL;
+	private static final long P2 = 0x8ebc6af09c88c6e3L;
+
+	/** Reference to the view reading little endian longs from a byte array */
+	private static final VarHandle LONGS =
+			MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	/** Reference to the view reading little endian ints from a byte array */
+	private static final VarHandle INTS =
+			MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+	/** Reference to the bytes of the keys */
+	private byte [] arena;
+
+	/** Reference to a buffer over the arena, used to compare keys held in direct buffers */
+	private ByteBuffer arenaView;
+
+	/** Reference to the number of bytes used in the arena */
+	private int arenaUsed;
+
+	/** Reference to an array containing the arena offset of every key */
+	private int [] offsets;
+
+	/** Reference to an array containing the length of every key, or EMPTY/REMOVED */
+	private int [] lengths;
+
+	/** Reference to an array containing the hash of every key */
+	private int [] hashes;
+
+	/** Reference to an array containing the values */
+	private Object [] values;
+
+	/** Reference to the number of key/value pairs stored in the table */
+	private int currentItems;
+
+	/** Reference to the number of slots that are not empty */
+	private int usedSlots;
+
+	/** Reference to the size of the table*/
+	private int size;
+
+	/** Reference to the load factor. It is used to resize the table
+	 * and rehash the keys
+	 */
+	private float loadFactor = 0.7f;
+
+    /**
+     * Constructs a bytes key table object.
+     */
+    public BytesKeyHashTable() {
+    	size = Probing.initialSize();
+    	allocate(size);
+    	arena = new byte[size * 8];
+    }
+
+    /**
+     * Method to inserts key/value pair in the table. An existing
+     * mapping for the key is replaced.
+     *
+     * Throws an IllegalArgumentExcpetion if the key or value
+     * is null.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(byte[] key, V value) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	put(key, 0, key.length, value);
+    }
+
+    /**
+     * Method to inserts key/value pair in the table, where the key
+     * is the UTF-8 encoding of the provided String.
+     *
+     * Throws an IllegalArgumentExcpetion if the key or value
+     * is null.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(String key, V value) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	put(key.getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    /**
+     * Method to inserts key/value pair in the table, where the key
+     * is a slice of the provided array. The bytes are copied.
+     *
+     * Throws an IllegalArgumentExcpetion if the key or value
+     * is null, and an IndexOutOfBoundsException if the slice
+     * is outside of the array.
+     *
+     * @param key
+     * @param offset : position of the first byte of the key
+     * @param length : number of bytes of the key
+     * @param value
+     */
+    public void put(byte[] key, int offset, int length, V value) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	if (value == null)
+    		throw new IllegalArgumentException("Value is null");
+    	if (offset < 0 || length < 0 || offset > key.length - length)
+    		throw new IndexOutOfBoundsException("Key slice is outside of the array");
+
+    	if (usedSlots >= loadFactor * size)
+    		reHash();
+
+    	int hash = hash(key, offset, length);
+    	int index;
+    	while ((index = insertionIndex(key, offset, length, hash)) < 0)
+    		reHash();
+
+    	if (lengths[index] < 0) {
+    		if (lengths[index] == EMPTY)
+    			usedSlots++;
+
+    		if (arena.length - arenaUsed < length)
+    			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + length));
+
+    		System.arraycopy(key, offset, arena, arenaUsed, length);
+    		offsets[index] = arenaUsed;
+    		lengths[index] = length;
+    		hashes[index] = hash;
+    		arenaUsed += length;
+    		currentItems++;
+    	}
+
+    	values[index] = value;
+    }
+
+    /**
+     * Method to find what value does the provided key map to.
+     *
+     * Throws an illegal argument exception if the key provided
+     * is null.
+     *
+     * Throws a No such element exception if the key is not present
+     * in the table.
+     *
+     * @param key
+     * @return value the key maps to.
+     */
+    public V get(byte[] key) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	return get(key, 0, key.length);
+    }
+
+    /**
+     * Method to find what value does the UTF-8 encoding of
+     * the provided String map to.
+     *
+     * @param key
+     * @return value the key maps to.
+     * @see #get(byte[])
+     */
+    public V get(String key) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	return get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to find what value does the slice of the provided
+     * array map to.
+     *
+     * @param key
+     * @param offset : position of the first byte of the key
+     * @param length : number of bytes of the key
+     * @return value the key maps to.
+     * @see #get(byte[])
+     */
+    @SuppressWarnings("unchecked")
+	public V get(byte[] key, int offset, int length) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	int index = index(key, offset, length);
+
+    	if (index < 0)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	return (V) values[index];
+    }
+
+    /**
+     * Method to find what value do the bytes between the position
+     * and the limit of the provided buffer map to. The position of
+     * the buffer is not changed.
+     *
+     * @param key
+     * @return value the key maps to.
+     * @see #get(byte[])
+     */
+    @SuppressWarnings("unchecked")
+	public V get(ByteBuffer key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	int index = index(key);
+
+    	if (index < 0)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	return (V) values[index];
+    }
+
+    /**
+     * Method returns true if the provided key is in the table
+     * otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(byte[] key) {
+    	return key != null && index(key, 0, key.length) >= 0;
+    }
+
+    /**
+     * Method returns true if the UTF-8 encoding of the provided
+     * String is a key in the table otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(String key) {
+    	return key != null && containsKey(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method returns true if the slice of the provided array
+     * is a key in the table otherwise it returns false.
+     *
+     * @param key
+     * @param offset : position of the first byte of the key
+     * @param length : number of bytes of the key
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(byte[] key, int offset, int length) {
+    	return key != null && index(key, offset, length) >= 0;
+    }
+
+    /**
+     * Method returns true if the remaining bytes of the provided
+     * buffer are a key in the table otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(ByteBuffer key) {
+    	return key != null && index(key) >= 0;
+    }
+
+    /**
+     * Method to remove a specific key/value pair from the table.
+     *
+     * Throws an illegal argument exception if the key provided
+     * is null.
+     *
+     * Throws a No such element exception if the key is not present
+     * in the table.
+     *
+     * @param key
+     * @return value the key mapped to
+     */
+    public V remove(byte[] key) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	return remove(key, 0, key.length);
+    }
+
+    /**
+     * Method to remove the key that is the slice of the
+     * provided array.
+     *
+     * @param key
+     * @param offset : position of the first byte of the key
+     * @param length : number of bytes of the key
+     * @return value the key mapped to
+     * @see #remove(byte[])
+     */
+    @SuppressWarnings("unchecked")
+	public V remove(byte[] key, int offset, int length) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	int index = index(key, offset, length);
+
+    	if (index < 0)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	V value = (V) values[index];
+    	lengths[index] = REMOVED;
+    	values[index] = null;
+    	currentItems--;
+    	return value;
+    }
+
+    /**
+     * Method to remove the key that is the UTF-8 encoding
+     * of the provided String.
+     *
+     * @param key
+     * @return value the key mapped to
+     * @see #remove(byte[])
+     */
+    public V remove(String key) {
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	return remove(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to retrieve the number of key/value pairs
+     * stored in the table.
+     *
+     * @return number of key/value pairs
+     */
+    public int size() {
+    	return currentItems;
+    }
+
+    /**
+     * Helper method to find the slot of a key held in a
+     * slice of an array.
+     *
+     * @return index of the key, or -1 if the key
+     * is not in the table.
+     */
+    private int index(byte[] key, int offset, int length) {
+
+    	if (offset < 0 || length < 0 || offset > key.length - length)
+    		throw new IndexOutOfBoundsException("Key slice is outside of the array");
+
+    	int hash = hash(key, offset, length);
+    	int index = hash % size;
+    	int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    	for (int i = 1; i <= size; i++) {
+    		int len = lengths[index];
+
+    		if (len == EMPTY)
+    			return -1;
+    		if (len == length && hashes[index] == hash
+    				&& Arrays.mismatch(arena, offsets[index], offsets[index] + len,
+    						key, offset, offset + length) < 0)
+    			return index;
+
+    		index = (index + stride) % size;
+    		stride += ProbeStrategy.QUADRATIC.growth;
+    	}
+
+    	return -1;
+    }
+
+    /**
+     * Helper method to find the slot of a key held in the
+     * remaining bytes of a buffer.
+     *
+     * @return index of the key, or -1 if the key
+     * is not in the table.
+     */
+    private int index(ByteBuffer key) {
+
+    	if (key.hasArray())
+    		return index(key.array(), key.arrayOffset() + key.position(), key.remaining());
+
+    	int length = key.remaining();
+    	int hash = hash(key, key.position(), length);
+    	int index = hash % size;
+    	int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    	//The view is moved over each candidate instead of wrapping it
+    	if (arenaView == null || arenaView.array() != arena)
+    		arenaView = ByteBuffer.wrap(arena);
+
+    	for (int i = 1; i <= size; i++) {
+    		int len = lengths[index];
+
+    		if (len == EMPTY)
+    			return -1;
+    		if (len == length && hashes[index] == hash) {
+    			arenaView.limit(offsets[index] + len).position(offsets[index]);
+    			if (key.mismatch(arenaView) < 0)
+    				return index;
+    		}
+
+    		index = (index + stride) % size;
+    		stride += ProbeStrategy.QUADRATIC.growth;
+    	}
+
+    	return -1;
+    }
+
+    /**
+     * Helper method to find the slot the key is stored in, or
+     * the slot it should be inserted in.
+     *
+     * @return index of the slot, or -1 if the probe sequence
+     * of the key has no free slot.
+     */
+    private int insertionIndex(byte[] key, int offset, int length, int hash) {
+
+    	int index = hash % size;
+    	int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+    	int free = -1;
+
+    	for (int i = 1; i <= size; i++) {
+    		int len = lengths[index];
+
+    		if (len == EMPTY)
+    			return (free < 0) ? index : free;
+    		if (len == REMOVED) {
+    			if (free < 0)
+    				free = index;
+    		}
+    		else if (len == length && hashes[index] == hash
+    				&& Arrays.mismatch(arena, offsets[index], offsets[index] + len,
+    						key, offset, offset + length) < 0)
+    			return index;
+
+    		index = (index + stride) % size;
+    		stride += ProbeStrategy.QUADRATIC.growth;
+    	}
+
+    	return free;
+    }
+
+    /**
+     * Helper method that hashes a slice of an array. Sixteen
+     * bytes are mixed per step; the last one to sixteen bytes
+     * are read as two overlapping words.
+     *
+     * @return non-negative hash of the bytes
+     */
+    static int hash(byte[] bytes, int offset, int length) {
+
+    	long seed = P0 ^ length;
+    	int i = offset;
+    	int end = offset + length;
+
+    	for (; end - i > 16; i += 16)
+    		seed = mix((long) LONGS.get(bytes, i) ^ P1, (long) LONGS.get(bytes, i + 8) ^ seed);
+
+    	int rest = end - i;
+    	long a, b;
+
+    	if (rest >= 8) {
+    		a = (long) LONGS.get(bytes, i);
+    		b = (long) LONGS.get(bytes, end - 8);
+    	}
+    	else if (rest >= 4) {
+    		a = (int) INTS.get(bytes, i) & 0xffffffffL;
+    		b = (int) INTS.get(bytes, end - 4) & 0xffffffffL;
+    	}
+    	else if (rest > 0) {
+    		a = ((bytes[i] & 0xffL) << 16) | ((bytes[i + rest / 2] & 0xffL) << 8) | (bytes[end - 1] & 0xffL);
+    		b = 0;
+    	}
+    	else {
+    		a = 0;
+    		b = 0;
+    	}
+
+    	return finish(seed, a, b, length);
+    }
+
+    /**
+     * Helper method that hashes the bytes of a buffer from the
+     * provided index, giving the same hash as the same bytes in
+     * an array.
+     *
+     * @return non-negative hash of the bytes
+     */
+    static int hash(ByteBuffer bytes, int offset, int length) {
+
+    	boolean swap = bytes.order() != ByteOrder.LITTLE_ENDIAN;
+    	long seed = P0 ^ length;
+    	int i = offset;
+    	int end = offset + length;
+
+    	for (; end - i > 16; i += 16)
+    		seed = mix(word(bytes, i, swap) ^ P1, word(bytes, i + 8, swap) ^ seed);
+
+    	int rest = end - i;
+    	long a, b;
+
+    	if (rest >= 8) {
+    		a = word(bytes, i, swap);
+    		b = word(bytes, end - 8, swap);
+    	}
+    	else if (rest >= 4) {
+    		int x = bytes.getInt(i);
+    		int y = bytes.getInt(end - 4);
+    		a = (swap ? Integer.reverseBytes(x) : x) & 0xffffffffL;
+    		b = (swap ? Integer.reverseBytes(y) : y) & 0xffffffffL;
+    	}
+    	else if (rest > 0) {
+    		a = ((bytes.get(i) & 0xffL) << 16) | ((bytes.get(i + rest / 2) & 0xffL) << 8) | (bytes.get(end - 1) & 0xffL);
+    		b = 0;
+    	}
+    	else {
+    		a = 0;
+    		b = 0;
+    	}
+
+    	return finish(seed, a, b, length);
+    }
+
+    private static long word(ByteBuffer bytes, int index, boolean swap) {
+    	long word = bytes.getLong(index);
+    	return swap ? Long.reverseBytes(word) : word;
+    }
+
+    private static int finish(long seed, long a, long b, int length) {
+    	long h = mix(P1 ^ length, mix(a ^ P1, b ^ seed));
+    	return (int) (h ^ (h >>> 32)) & 0x7fffffff;
+    }
+
+    /**
+     * Helper method that folds the full 128 bit product
+     * of two words into one word.
+     */
+    private static long mix(long a, long b) {
+    	return (a * b) ^ Math.multiplyHigh(a, b) ^ P2;
+    }
+
+    /**
+     * Helper method that allocates empty arrays for the
+     * provided number of slots.
+     *
+     * @param slots
+     */
+    private void allocate(int slots) {
+    	offsets = new int[slots];
+    	lengths = new int[slots];
+    	hashes = new int[slots];
+    	values = new Object[slots];
+    	Arrays.fill(lengths, EMPTY);
+    	usedSlots = 0;
+    }
+
+    /**
+     * Helper method that resizes/rehashes the table. The keys
+     * are copied into a new arena, dropping the bytes of
+     * removed keys.
+     */
+    private void reHash() {
+
+    	int[] oldOffsets = offsets;
+    	int[] oldLengths = lengths;
+    	int[] oldHashes = hashes;
+    	Object[] oldValues = values;
+    	byte[] oldArena = arena;
+
+    	if (Probing.grows(currentItems, usedSlots, size, loadFactor))
+    		size = Probing.nextSize(size);
+
+    	allocate(size);
+    	arena = new byte[Math.max(size * 8, arenaUsed)];
+    	arenaUsed = 0;
+
+    	for (int i = 0; i < oldLengths.length; i++) {
+    		int len = oldLengths[i];
+
+    		if (len < 0)
+    			continue;
+
+    		int hash = oldHashes[i];
+    		int index = hash % size;
+    		int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    		while (lengths[index] != EMPTY) {
+    			index = (index + stride) % size;
+    			stride += ProbeStrategy.QUADRATIC.growth;
+    		}
+
+    		System.arraycopy(oldArena, oldOffsets[i], arena, arenaUsed, len);
+    		offsets[index] = arenaUsed;
+    		lengths[index] = len;
+    		hashes[index] = hash;
+    		values[index] = oldValues[i];
+    		arenaUsed += len;
+    		usedSlots++;
+    	}
+    }
+}
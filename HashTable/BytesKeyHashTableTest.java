@@ -0,0 +1,106 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * This is a test class for BytesKeyHashTable
+ * @author Arjun Passi
+ *
+ */
+public class BytesKeyHashTableTest {
+
+	/**
+	 * Test method for {@link BytesKeyHashTable#put(String, Object)}
+	 * and {@link BytesKeyHashTable#remove(String)}
+	 */
+	@Test
+	public void testPutRemove(){
+		BytesKeyHashTable<Integer> table = new BytesKeyHashTable<Integer>();
+
+		for(int i = 0; i < 20000; i++)
+			table.put("key" + i, i);
+		table.put("key0", -1);
+		table.put("", 42);
+
+		assertEquals(table.size(), 20001);
+		assertEquals(table.get("key0"), Integer.valueOf(-1));
+		assertEquals(table.get(""), Integer.valueOf(42));
+
+		for(int i = 0; i < 20000; i += 2)
+			assertEquals(table.remove("key" + i), Integer.valueOf(i == 0 ? -1 : i));
+
+		assertEquals(table.size(), 10001);
+		for(int i = 0; i < 20000; i++)
+			assertEquals(table.containsKey("key" + i), i % 2 == 1);
+
+		try{
+			table.get("key0");
+			fail("Removed key must not be found");
+		} catch(NoSuchElementException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link BytesKeyHashTable#get(byte[], int, int)}
+	 * and {@link BytesKeyHashTable#get(ByteBuffer)}
+	 */
+	@Test
+	public void testSlices(){
+		BytesKeyHashTable<String> table = new BytesKeyHashTable<String>();
+		String[] keys = {"a", "abcd", "abcdefgh", "a key longer than sixteen bytes", "\u00e9t\u00e9"};
+
+		for(String key : keys)
+			table.put(key, key);
+
+		for(String key : keys){
+			byte[] bytes = ("<<" + key + ">>").getBytes(StandardCharsets.UTF_8);
+			int length = bytes.length - 4;
+
+			assertEquals(table.get(bytes, 2, length), key);
+
+			ByteBuffer heap = ByteBuffer.wrap(bytes, 2, length);
+			assertEquals(table.get(heap.slice()), key);
+
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes).position(2).limit(2 + length);
+			assertEquals(table.get(direct), key);
+			assertEquals(direct.position(), 2);
+		}
+
+		assertTrue(table.containsKey("ab".getBytes(StandardCharsets.UTF_8), 0, 1));
+		assertFalse(table.containsKey(ByteBuffer.allocateDirect(3)));
+	}
+
+	/**
+	 * Test method for {@link BytesKeyHashTable#get(ByteBuffer)}
+	 * with direct buffers while the arena grows and is compacted
+	 */
+	@Test
+	public void testDirectBuffers(){
+		BytesKeyHashTable<Integer> table = new BytesKeyHashTable<Integer>();
+		ByteBuffer direct = ByteBuffer.allocateDirect(64);
+
+		for(int i = 0; i < 5000; i++){
+			table.put("key" + i, i);
+			if(i > 0 && i % 3 == 0)
+				table.remove("key" + (i / 3));
+
+			direct.clear();
+			direct.put(("key" + i).getBytes(StandardCharsets.UTF_8)).flip();
+			assertEquals(table.get(direct), Integer.valueOf(i));
+		}
+
+		for(int i = 0; i < 5000; i++){
+			direct.clear();
+			direct.put(("key" + i).getBytes(StandardCharsets.UTF_8)).flip();
+			assertEquals(table.containsKey(direct), i == 0 || i >= 1667);
+			assertEquals(direct.remaining(), ("key" + i).length());
+		}
+	}
+}
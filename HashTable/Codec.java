@@ -0,0 +1,33 @@
+package HashTable;
+
+/**
+ * Codec turns keys or values into bytes and back. Keys that
+ * are equal must be encoded to the same bytes.
+ *
+ * It is used by the tables of this package that store their
+ * key/value pairs outside of the heap.
+ *
+ * @author Arjun Passi
+ *
+ * @param <T>
+ */
+public interface Codec<T> {
+
+	/**
+	 * Method that encodes an object to bytes.
+	 *
+	 * @param object
+	 * @return bytes of the object
+	 */
+	public byte[] encode(T object);
+
+	/**
+	 * Method that decodes an object from bytes.
+	 *
+	 * @param bytes
+	 * @param offset : position of the first byte
+	 * @param length : number of bytes
+	 * @return decoded object
+	 */
+	public T decode(byte[] bytes, int offset, int length);
+}
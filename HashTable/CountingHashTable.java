@@ -0,0 +1,494 @@
+package HashTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class implements a Hash Table that maps keys to long
+ * counters. It uses quadratic probing like HashTable, but the
+ * counters are kept in a long array so updating a count does
+ * not box or allocate, and an update probes the table once.
+ *
+ * Counts of keys that were never updated are 0. A key stays in
+ * the table when its count goes back to 0 until it is removed.
+ *
+ * For counting from several threads see {@link Striped}.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ */
+public class CountingHashTable<K> {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Striped is a thread safe counting table. The counts are
+	 * kept in a single CountingHashTable guarded by a StampedLock.
+	 * An update that finds the lock taken does not wait for it:
+	 * its key is given its own LongAdder cell, which stripes the
+	 * count of that key over the CPUs, and every later update of
+	 * the key adds to the cell without locking. Keys that are
+	 * never contended cost one slot in the table.
+	 *
+	 * Reads do not lock. The cell of a key is found in a read-only
+	 * snapshot of the cells and the table is read under an
+	 * optimistic stamp, taking the read lock only if a writer got
+	 * in the way.
+	 *
+	 * A key keeps its cell once it has one, so a table whose keys
+	 * are all contended at some point ends up with a LongAdder
+	 * per key. Adding a cell copies part of the snapshot of the
+	 * cells, which is cheap because it only happens once per key.
+	 *
+	 * @author Arjun Passi
+	 *
+	 * @param <K>
+	 */
+	public static class Striped<K> {
+
+		/** Reference to the counts of the keys without a cell, guarded by lock */
+		private final CountingHashTable<K> table;
+
+		/** Reference to the lock guarding the table */
+		private final StampedLock lock;
+
+		/** Reference to the cells of the contended keys, guarded by itself */
+		private final HashTable<K, LongAdder> cells;
+
+		/** Reference to a read-only snapshot of the cells */
+		private volatile HashTable<K, LongAdder> cellSnapshot;
+
+		/**
+		 * Constructs an empty concurrent counting table.
+		 */
+		public Striped() {
+			table = new CountingHashTable<K>();
+			lock = new StampedLock();
+			cells = new HashTable<K, LongAdder>();
+			cellSnapshot = cells.snapshot();
+		}
+
+		/**
+		 * Method to add delta to the count of the key.
+		 *
+		 * Throws an IllegalArgumentException if the key is null.
+		 *
+		 * @param key
+		 * @param delta
+		 */
+		public void addTo(K key, long delta) {
+
+			if (key == null)
+				throw new IllegalArgumentException("Key is null");
+
+			LongAdder cell = cellSnapshot.find(key);
+
+			if (cell == null) {
+				long stamp = lock.tryWriteLock();
+
+				if (stamp != 0) {
+					try {
+						table.addTo(key, delta);
+					} finally {
+						lock.unlockWrite(stamp);
+					}
+					return;
+				}
+
+				cell = cell(key);
+			}
+
+			cell.add(delta);
+		}
+
+		/**
+		 * Method to add one to the count of the key.
+		 *
+		 * Throws an IllegalArgumentException if the key is null.
+		 *
+		 * @param key
+		 */
+		public void increment(K key) {
+			addTo(key, 1);
+		}
+
+		/**
+		 * Method to retrieve the count of the key. Updates made
+		 * concurrently may or may not be included.
+		 *
+		 * @param key
+		 * @return count of the key
+		 */
+		public long get(K key) {
+
+			if (key == null)
+				return 0;
+
+			LongAdder cell = cellSnapshot.find(key);
+			long count = (cell == null) ? 0 : cell.sum();
+
+			long stamp = lock.tryOptimisticRead();
+
+			if (stamp != 0) {
+				try {
+					long value = table.get(key);
+					if (lock.validate(stamp))
+						return count + value;
+				} catch (RuntimeException e) {
+					//A read that raced with a writer is retried under the lock
+				}
+			}
+
+			stamp = lock.readLock();
+			try {
+				return count + table.get(key);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+
+		/**
+		 * Method to retrieve the keys with the n largest counts,
+		 * largest first.
+		 *
+		 * @param n : number of keys
+		 * @return keys with the largest counts
+		 */
+		public List<K> topK(int n) {
+			return merge().topK(n);
+		}
+
+		/**
+		 * Method that adds up the table and the cells into a
+		 * single table.
+		 *
+		 * @return table with the summed counts
+		 */
+		public CountingHashTable<K> merge() {
+
+			CountingHashTable<K> merged = new CountingHashTable<K>();
+
+			long stamp = lock.readLock();
+			try {
+				merged.addAll(table);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+
+			HashTable<K, LongAdder> snapshot = cellSnapshot;
+			for (K key : snapshot)
+				merged.addTo(key, snapshot.find(key).sum());
+
+			return merged;
+		}
+
+		/**
+		 * Helper method that returns the cell of a contended key,
+		 * adding one if the key has none yet.
+		 *
+		 * @param key
+		 * @return cell of the key
+		 */
+		private LongAdder cell(K key) {
+			synchronized (cells) {
+				LongAdder cell = cells.find(key);
+
+				if (cell == null) {
+					cell = new LongAdder();
+					cells.put(key, cell);
+					cellSnapshot = cells.snapshot();
+				}
+
+				return cell;
+			}
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to an array containing the keys */
+	private Object [] keys;
+
+	/** Reference to an array containing the count of every key */
+	private long [] counts;
+
+	/** Reference to the number of keys stored in the table */
+	private int currentItems;
+
+	/** Reference to the number of key slots that are not null */
+	private int usedSlots;
+
+	/** Reference to the size of the table*/
+	private int size;
+
+	/** Reference to the load factor. It is used to resize the table
+	 * and rehash the keys
+	 */
+	private float loadFactor = 0.7f;
+
+    /**
+     * Constructs a counting table object.
+     */
+    public CountingHashTable() {
+    	size = Probing.initialSize();
+    	keys = new Object[size];
+    	counts = new long[size];
+    }
+
+    /**
+     * Method to add delta to the count of the key.
+     *
+     * Throws an IllegalArgumentException if the key is null.
+     *
+     * @param key
+     * @param delta
+     * @return new count of the key
+     */
+    public long addTo(K key, long delta) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	if (usedSlots >= loadFactor * size)
+    		reHash();
+
+    	int index;
+    	while ((index = Probing.insertionIndex(keys, size, key, ProbeStrategy.QUADRATIC)) < 0)
+    		reHash();
+
+    	Object k = keys[index];
+
+    	if (k == null || k == Probing.REMOVED) {
+    		if (k == null)
+    			usedSlots++;
+    		keys[index] = key;
+    		counts[index] = 0;
+    		currentItems++;
+    	}
+
+    	return counts[index] += delta;
+    }
+
+    /**
+     * Method to add one to the count of the key.
+     *
+     * Throws an IllegalArgumentException if the key is null.
+     *
+     * @param key
+     * @return new count of the key
+     */
+    public long increment(K key) {
+    	return addTo(key, 1);
+    }
+
+    /**
+     * Method to retrieve the count of the key.
+     *
+     * @param key
+     * @return count of the key, 0 if the key is not present
+     */
+    public long get(K key) {
+
+    	if (key == null)
+    		return 0;
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+    	return (index < 0) ? 0 : counts[index];
+    }
+
+    /**
+     * Method returns true if the provided key is in the table
+     * otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(K key) {
+
+    	if (key == null)
+    		return false;
+
+    	return Probing.index(keys, size, key, ProbeStrategy.QUADRATIC) >= 0;
+    }
+
+    /**
+     * Method to remove the key from the table.
+     *
+     * Throws an IllegalArgumentException if the key is null.
+     *
+     * @param key
+     * @return count the key had, 0 if the key is not present
+     */
+    public long remove(K key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+
+    	if (index < 0)
+    		return 0;
+
+    	long count = counts[index];
+    	keys[index] = Probing.REMOVED;
+    	counts[index] = 0;
+    	currentItems--;
+    	return count;
+    }
+
+    /**
+     * Method to retrieve the number of keys in the table.
+     *
+     * @return number of keys
+     */
+    public int size() {
+    	return currentItems;
+    }
+
+    /**
+     * Method that adds the counts of the provided table
+     * to this table.
+     *
+     * @param table
+     */
+    @SuppressWarnings("unchecked")
+	public void addAll(CountingHashTable<K> table) {
+    	for (int i = 0; i < table.size; i++) {
+    		Object k = table.keys[i];
+    		if (k != null && k != Probing.REMOVED)
+    			addTo((K) k, table.counts[i]);
+    	}
+    }
+
+    /**
+     * Method to retrieve the keys with the n largest counts,
+     * largest first. Ties are returned in no particular order.
+     *
+     * Throws an IllegalArgumentException if n is negative.
+     *
+     * @param n : number of keys
+     * @return keys with the largest counts
+     */
+    @SuppressWarnings("unchecked")
+	public List<K> topK(int n) {
+
+    	if (n < 0)
+    		throw new IllegalArgumentException("n is negative");
+
+    	//Min heap of slot indexes ordered by count
+    	int[] heap = new int[Math.min(n, currentItems)];
+    	int heapSize = 0;
+
+    	for (int i = 0; i < size && heap.length > 0; i++) {
+    		Object k = keys[i];
+    		if (k == null || k == Probing.REMOVED)
+    			continue;
+
+    		if (heapSize < heap.length) {
+    			heap[heapSize] = i;
+    			siftUp(heap, heapSize++);
+    		}
+    		else if (counts[i] > counts[heap[0]]) {
+    			heap[0] = i;
+    			siftDown(heap, 0, heapSize);
+    		}
+    	}
+
+    	ArrayList<K> list = new ArrayList<K>(heapSize);
+    	for (int i = 0; i < heapSize; i++)
+    		list.add(null);
+
+    	while (heapSize > 0) {
+    		list.set(heapSize - 1, (K) keys[heap[0]]);
+    		heap[0] = heap[--heapSize];
+    		siftDown(heap, 0, heapSize);
+    	}
+
+    	return list;
+    }
+
+    /**
+     * Helper method that moves a heap element up until its
+     * parent has a smaller count.
+     *
+     * @param heap
+     * @param i : position of the element
+     */
+    private void siftUp(int[] heap, int i) {
+    	int slot = heap[i];
+    	while (i > 0) {
+    		int parent = (i - 1) >>> 1;
+    		if (counts[heap[parent]] <= counts[slot])
+    			break;
+    		heap[i] = heap[parent];
+    		i = parent;
+    	}
+    	heap[i] = slot;
+    }
+
+    /**
+     * Helper method that moves a heap element down until its
+     * children have larger counts.
+     *
+     * @param heap
+     * @param i : position of the element
+     * @param heapSize : number of elements in the heap
+     */
+    private void siftDown(int[] heap, int i, int heapSize) {
+    	int slot = heap[i];
+    	while (true) {
+    		int child = 2 * i + 1;
+    		if (child >= heapSize)
+    			break;
+    		if (child + 1 < heapSize && counts[heap[child + 1]] < counts[heap[child]])
+    			child++;
+    		if (counts[slot] <= counts[heap[child]])
+    			break;
+    		heap[i] = heap[child];
+    		i = child;
+    	}
+    	heap[i] = slot;
+    }
+
+    /**
+     * Helper method that resizes/rehashes the table.
+     */
+    private void reHash() {
+
+    	Object[] oldKeys = keys;
+    	long[] oldCounts = counts;
+
+    	if (Probing.grows(currentItems, usedSlots, size, loadFactor))
+    		size = Probing.nextSize(size);
+
+    	keys = new Object[size];
+    	counts = new long[size];
+    	usedSlots = 0;
+
+    	for (int i = 0; i < oldKeys.length; i++) {
+    		if (oldKeys[i] != null && oldKeys[i] != Probing.REMOVED) {
+    			int index = Probing.insertionIndex(keys, size, oldKeys[i], ProbeStrategy.QUADRATIC);
+    			keys[index] = oldKeys[i];
+    			counts[index] = oldCounts[i];
+    			usedSlots++;
+    		}
+    	}
+    }
+
+    /**
+     * Method that returns a string representation of the table.
+     */
+    public String toString() {
+
+    	StringBuilder build = new StringBuilder();
+
+    	for (int i = 0; i < size; i++) {
+    		if (keys[i] != null && keys[i] != Probing.REMOVED)
+    			build.append(i + ":  Key: " + keys[i].toString() + " Count: " + counts[i] + "\n");
+    	}
+
+    	return build.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for CountingHashTable
+ * @author Arjun Passi
+ *
+ */
+public class CountingHashTableTest {
+
+	/** Reference to the table on which testing will be performed*/
+	private CountingHashTable<String> mTestTable;
+
+	@Before
+	public void setUp(){
+		mTestTable = new CountingHashTable<String>();
+	}
+
+	/**
+	 * Test method for {@link CountingHashTable#addTo(Object, long)}
+	 */
+	@Test
+	public void testAddTo(){
+		assertEquals(mTestTable.get("a"), 0);
+		assertEquals(mTestTable.addTo("a", 5), 5);
+		assertEquals(mTestTable.addTo("a", -2), 3);
+		assertEquals(mTestTable.increment("a"), 4);
+		assertEquals(mTestTable.size(), 1);
+
+		for(int i = 0; i < 5000; i++)
+			mTestTable.increment("key" + (i % 1000));
+
+		assertEquals(mTestTable.size(), 1001);
+		assertEquals(mTestTable.get("key7"), 5);
+		assertEquals(mTestTable.remove("key7"), 5);
+		assertFalse(mTestTable.containsKey("key7"));
+	}
+
+	/**
+	 * Test method for {@link CountingHashTable#topK(int)}
+	 */
+	@Test
+	public void testTopK(){
+		for(int i = 0; i < 100; i++)
+			mTestTable.addTo("key" + i, i);
+
+		List<String> top = mTestTable.topK(3);
+
+		assertEquals(top.size(), 3);
+		assertEquals(top.get(0), "key99");
+		assertEquals(top.get(1), "key98");
+		assertEquals(top.get(2), "key97");
+		assertEquals(mTestTable.topK(500).size(), 100);
+		assertTrue(mTestTable.topK(0).isEmpty());
+	}
+
+	/**
+	 * Test method for {@link CountingHashTable.Striped}
+	 */
+	@Test
+	public void testStriped() throws InterruptedException{
+		final CountingHashTable.Striped<String> striped = new CountingHashTable.Striped<String>();
+		Thread[] threads = new Thread[4];
+
+		for(int i = 0; i < threads.length; i++){
+			threads[i] = new Thread(new Runnable(){
+				public void run(){
+					for(int j = 0; j < 10000; j++)
+						striped.increment("hot");
+				}
+			});
+			threads[i].start();
+		}
+
+		for(Thread thread : threads)
+			thread.join();
+
+		assertEquals(striped.get("hot"), 40000);
+		assertEquals(striped.topK(1).get(0), "hot");
+	}
+
+	/**
+	 * Test method for {@link CountingHashTable.Striped#get(Object)}
+	 * and {@link CountingHashTable.Striped#merge()} while other
+	 * threads update the counts
+	 */
+	@Test
+	public void testStripedReads() throws InterruptedException{
+		final CountingHashTable.Striped<String> striped = new CountingHashTable.Striped<String>();
+		final AtomicBoolean failed = new AtomicBoolean();
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread[] threads = new Thread[4];
+
+		for(int i = 0; i < threads.length; i++){
+			threads[i] = new Thread(new Runnable(){
+				public void run(){
+					for(int j = 0; j < 20000; j++){
+						striped.increment("hot");
+						striped.addTo("key" + (j % 100), 2);
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		Thread reader = new Thread(new Runnable(){
+			public void run(){
+				long last = 0;
+				try{
+					while(!done.get()){
+						//Counts only grow, whichever of table and cell they are in
+						long count = striped.get("hot");
+						if(count < last || striped.merge().get("hot") < count)
+							failed.set(true);
+						last = count;
+					}
+				} catch(RuntimeException e){
+					failed.set(true);
+				}
+			}
+		});
+		reader.start();
+
+		for(Thread thread : threads)
+			thread.join();
+		done.set(true);
+		reader.join();
+
+		assertFalse(failed.get());
+		assertEquals(striped.get("hot"), 80000);
+		for(int j = 0; j < 100; j++)
+			assertEquals(striped.get("key" + j), 1600);
+
+		CountingHashTable<String> merged = striped.merge();
+		assertEquals(merged.size(), 101);
+		assertEquals(merged.get("key5"), 1600);
+		assertEquals(striped.topK(2).get(0), "hot");
+		assertEquals(striped.get(null), 0);
+
+		try{
+			striped.increment(null);
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+}
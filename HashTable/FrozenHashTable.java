@@ -0,0 +1,281 @@
+package HashTable;
+
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements an immutable Hash Table built from the
+ * contents of a {@link HashTable} by {@link HashTable#freeze()}.
+ *
+ * The keys are placed with a minimal perfect hash function
+ * built with the CHD (compress, hash and displace) algorithm:
+ * the keys are split into small buckets and every bucket is
+ * given a displacement that sends its keys to free slots of a
+ * table with exactly one slot per key. A lookup computes the
+ * hash code of the key once, reads the displacement of its
+ * bucket and compares the key stored in the resulting slot.
+ *
+ * Keys whose hash codes are equal can not be told apart by the
+ * function. All but one of them are kept in a small overflow
+ * table that is only consulted when the slot does not match.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class FrozenHashTable<K, V> {
+
+	/** Reference to the average number of keys per bucket */
+	private static final int BUCKET_SIZE = 4;
+
+	/** Reference to the keys, one per slot */
+	private final Object [] keys;
+
+	/** Reference to the values, stored in the slot of their key */
+	private final Object [] values;
+
+	/** Reference to the displacement of every bucket */
+	private final int [] displacements;
+
+	/** Reference to the keys whose hash codes collide, or null */
+	private final HashTable<K, V> overflow;
+
+	/** Reference to the number of key/value pairs stored in the table */
+	private final int currentItems;
+
+	/**
+	 * Constructs a frozen table holding the provided pairs.
+	 * The keys must be distinct and not null.
+	 *
+	 * @param pairKeys : keys of the pairs
+	 * @param pairValues : values of the pairs
+	 * @param count : number of pairs
+	 */
+	@SuppressWarnings("unchecked")
+	FrozenHashTable(Object[] pairKeys, Object[] pairValues, int count) {
+
+		int buckets = Math.max(1, count / BUCKET_SIZE);
+		int[] hashes = new int[count];
+		int[] bucketStart = new int[buckets + 1];
+
+		for (int i = 0; i < count; i++) {
+			hashes[i] = hash(pairKeys[i]);
+			bucketStart[bucket(hashes[i], buckets) + 1]++;
+		}
+
+		//Group the pairs by bucket
+		int largest = 0;
+		for (int b = 0; b < buckets; b++) {
+			largest = Math.max(largest, bucketStart[b + 1]);
+			bucketStart[b + 1] += bucketStart[b];
+		}
+
+		int[] members = new int[count];
+		int[] fill = new int[buckets];
+		for (int i = 0; i < count; i++) {
+			int b = bucket(hashes[i], buckets);
+			members[bucketStart[b] + fill[b]++] = i;
+		}
+
+		//Order the buckets from the largest to the smallest
+		int[] sizeStart = new int[largest + 2];
+		for (int b = 0; b < buckets; b++)
+			sizeStart[largest - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+		for (int i = 0; i < largest + 1; i++)
+			sizeStart[i + 1] += sizeStart[i];
+
+		int[] bucketOrder = new int[buckets];
+		for (int b = 0; b < buckets; b++)
+			bucketOrder[sizeStart[largest - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+
+		HashTable<K, V> collisions = null;
+		int placedCount = count;
+
+		//Move pairs whose hash code repeats within the bucket to the overflow table
+		for (int b = 0; b < buckets; b++) {
+			for (int m = bucketStart[b]; m < bucketStart[b + 1]; m++) {
+				int i = members[m];
+				for (int o = bucketStart[b]; o < m; o++) {
+					if (members[o] >= 0 && hashes[members[o]] == hashes[i]) {
+						if (collisions == null)
+							collisions = new HashTable<K, V>();
+						collisions.put((K) pairKeys[i], (V) pairValues[i]);
+						members[m] = -1;
+						placedCount--;
+						break;
+					}
+				}
+			}
+		}
+
+		int slots = Math.max(1, placedCount);
+		keys = new Object[slots];
+		values = new Object[slots];
+		displacements = new int[buckets];
+
+		boolean[] taken = new boolean[slots];
+		int[] candidate = new int[largest];
+
+		for (int b : bucketOrder) {
+			int size = 0;
+			for (int m = bucketStart[b]; m < bucketStart[b + 1]; m++) {
+				if (members[m] >= 0)
+					members[bucketStart[b] + size++] = members[m];
+			}
+
+			if (size == 0)
+				continue;
+
+			int d = 0;
+			while (!fits(hashes, members, bucketStart[b], size, d, taken, candidate))
+				d++;
+
+			displacements[b] = d;
+			for (int m = 0; m < size; m++) {
+				int i = members[bucketStart[b] + m];
+				taken[candidate[m]] = true;
+				keys[candidate[m]] = pairKeys[i];
+				values[candidate[m]] = pairValues[i];
+			}
+		}
+
+		overflow = collisions;
+		currentItems = count;
+	}
+
+	/**
+	 * Helper method to find out whether the displacement sends
+	 * every key of the bucket to a distinct free slot.
+	 *
+	 * @param first : position of the bucket in the members array
+	 * @param size : number of keys in the bucket
+	 * @param d : displacement to try
+	 * @param taken : slots already used
+	 * @param candidate : receives the slots of the keys
+	 * @return true if the displacement fits otherwise false
+	 */
+	private boolean fits(int[] hashes, int[] members, int first, int size, int d,
+			boolean[] taken, int[] candidate) {
+
+		for (int m = 0; m < size; m++) {
+			int slot = slot(hashes[members[first + m]], d);
+
+			if (taken[slot])
+				return false;
+			for (int o = 0; o < m; o++) {
+				if (candidate[o] == slot)
+					return false;
+			}
+
+			candidate[m] = slot;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key maps to.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		int hash = hash(key);
+		int slot = slot(hash, displacements[bucket(hash, displacements.length)]);
+
+		if (key.equals(keys[slot]))
+			return (V) values[slot];
+
+		if (overflow != null && overflow.containsKey(key))
+			return overflow.get(key);
+
+		throw new NoSuchElementException("Key doesn't map to any value.");
+	}
+
+	/**
+	 * Method returns true if the provided key is in the table
+	 * otherwise it returns false.
+	 *
+	 * @param key : key to search for in the table
+	 * @return true if the key is in the table otherwise false
+	 */
+	public boolean containsKey(K key) {
+
+		if (key == null)
+			return false;
+
+		int hash = hash(key);
+		int slot = slot(hash, displacements[bucket(hash, displacements.length)]);
+
+		return key.equals(keys[slot]) || (overflow != null && overflow.containsKey(key));
+	}
+
+	/**
+	 * Method to retrieve the number of key/value pairs
+	 * stored in the table.
+	 *
+	 * @return number of key/value pairs
+	 */
+	public int size() {
+		return currentItems;
+	}
+
+	/**
+	 * Method to retrieve the space taken by the perfect hash
+	 * function, not counting the keys and values themselves.
+	 *
+	 * @return bits per key of the displacement table
+	 */
+	public double bitsPerKey() {
+		return (currentItems == 0) ? 0 : 32.0 * displacements.length / currentItems;
+	}
+
+	/**
+	 * Helper method that spreads the hash code of the key.
+	 *
+	 * @param key
+	 * @return hash of the key
+	 */
+	private static int hash(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Helper method that returns the bucket of a hash.
+	 *
+	 * @param hash
+	 * @param buckets : number of buckets
+	 * @return bucket of the hash
+	 */
+	private static int bucket(int hash, int buckets) {
+		return (hash & 0x7fffffff) % buckets;
+	}
+
+	/**
+	 * Helper method that returns the slot of a hash for
+	 * the provided displacement.
+	 *
+	 * @param hash
+	 * @param d : displacement of the bucket
+	 * @return slot of the hash
+	 */
+	private int slot(int hash, int d) {
+		long x = (hash & 0xffffffffL) * 0xC2B2AE3D27D4EB4FL + d * 0x9E3779B97F4A7C15L;
+		x ^= x >>> 31;
+		x *= 0xBF58476D1CE4E5B9L;
+		x ^= x >>> 29;
+		return (int) (((x >>> 32) * keys.length) >>> 32);
+	}
+}
@@ -0,0 +1,363 @@
+package HashTable;
+
+import java.util.function.Consumer;
+
+/**
+ * This class implements a Hash Table that maps a key to any
+ * number of values. It uses quadratic probing like HashTable.
+ *
+ * Keys and values are kept in flat arrays instead of Entry
+ * objects. A key with a single value stores the value inline
+ * in its slot; once a second value is added the slot holds an
+ * array of values that grows geometrically, so no per key list
+ * object is allocated.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class HashMultiTable<K, V> {
+
+	/** Reference to the capacity of a values array when it is created */
+	private static final int INITIAL_VALUES = 4;
+
+	/** Reference to an array containing the keys */
+	private Object [] keys;
+
+	/** Reference to an array containing the value, or the array of
+	 * values, of every key
+	 */
+	private Object [] values;
+
+	/** Reference to an array containing the number of values of every key */
+	private int [] counts;
+
+	/** Reference to the number of keys stored in the table */
+	private int currentKeys;
+
+	/** Reference to the number of values stored in the table */
+	private int currentItems;
+
+	/** Reference to the number of key slots that are not null */
+	private int usedSlots;
+
+	/** Reference to the size of the table*/
+	private int size;
+
+	/** Reference to the load factor. It is used to resize the table
+	 * and rehash the keys
+	 */
+	private float loadFactor = 0.7f;
+
+    /**
+     * Constructs a multi table object.
+     */
+    public HashMultiTable() {
+    	size = Probing.initialSize();
+    	allocate(size);
+    }
+
+    /**
+     * Method to add a value to the values of the key.
+     *
+     * Throws an IllegalArgumentExcpetion if the key or value
+     * is null.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) throws IllegalArgumentException {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	if (value == null)
+    		throw new IllegalArgumentException("Value is null");
+
+    	if (usedSlots >= loadFactor * size)
+    		reHash();
+
+    	int index;
+    	while ((index = Probing.insertionIndex(keys, size, key, ProbeStrategy.QUADRATIC)) < 0)
+    		reHash();
+
+    	if (keys[index] != key && !key.equals(keys[index])) {
+    		if (keys[index] == null)
+    			usedSlots++;
+    		keys[index] = key;
+    		values[index] = value;
+    		counts[index] = 1;
+    		currentKeys++;
+    	}
+    	else
+    		append(index, value);
+
+    	currentItems++;
+    }
+
+    /**
+     * Helper method that appends a value to a key that
+     * already has values.
+     *
+     * @param index : slot of the key
+     * @param value
+     */
+    private void append(int index, Object value) {
+
+    	int count = counts[index];
+    	Object[] array;
+
+    	if (count == 1) {
+    		array = new Object[INITIAL_VALUES];
+    		array[0] = values[index];
+    		values[index] = array;
+    	}
+    	else {
+    		array = (Object[]) values[index];
+    		if (count == array.length) {
+    			Object[] grown = new Object[array.length * 2];
+    			System.arraycopy(array, 0, grown, 0, count);
+    			array = grown;
+    			values[index] = array;
+    		}
+    	}
+
+    	array[count] = value;
+    	counts[index] = count + 1;
+    }
+
+    /**
+     * Method that passes every value of the key to the
+     * provided action, in the order they were added.
+     *
+     * Throws an IllegalArgumentException if the key or
+     * the action is null.
+     *
+     * @param key
+     * @param action : action performed on each value
+     * @return number of values of the key
+     */
+    @SuppressWarnings("unchecked")
+	public int getAll(K key, Consumer<? super V> action) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	if (action == null)
+    		throw new IllegalArgumentException("Action is null");
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+
+    	if (index < 0)
+    		return 0;
+
+    	int count = counts[index];
+
+    	if (count == 1)
+    		action.accept((V) values[index]);
+    	else {
+    		Object[] array = (Object[]) values[index];
+    		for (int i = 0; i < count; i++)
+    			action.accept((V) array[i]);
+    	}
+
+    	return count;
+    }
+
+    /**
+     * Method to retrieve the number of values of the key.
+     *
+     * @param key
+     * @return number of values, 0 if the key is not present
+     */
+    public int count(K key) {
+
+    	if (key == null)
+    		return 0;
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+    	return (index < 0) ? 0 : counts[index];
+    }
+
+    /**
+     * Method returns true if the provided key is in the table
+     * otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(K key) {
+
+    	if (key == null)
+    		return false;
+
+    	return Probing.index(keys, size, key, ProbeStrategy.QUADRATIC) >= 0;
+    }
+
+    /**
+     * Method to remove the key and all its values from the table.
+     *
+     * Throws an IllegalArgumentException if the key is null.
+     *
+     * @param key
+     * @return number of values removed
+     */
+    public int remove(K key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+
+    	if (index < 0)
+    		return 0;
+
+    	int count = counts[index];
+    	clear(index);
+    	currentItems -= count;
+    	return count;
+    }
+
+    /**
+     * Method to remove one occurrence of the value from the
+     * values of the key.
+     *
+     * Throws an IllegalArgumentException if the key is null.
+     *
+     * @param key
+     * @param value
+     * @return true if the value was removed otherwise false
+     */
+    public boolean remove(K key, V value) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	if (value == null)
+    		return false;
+
+    	int index = Probing.index(keys, size, key, ProbeStrategy.QUADRATIC);
+
+    	if (index < 0)
+    		return false;
+
+    	int count = counts[index];
+
+    	if (count == 1) {
+    		if (!value.equals(values[index]))
+    			return false;
+    		clear(index);
+    		currentItems--;
+    		return true;
+    	}
+
+    	Object[] array = (Object[]) values[index];
+
+    	for (int i = 0; i < count; i++) {
+    		if (value.equals(array[i])) {
+    			System.arraycopy(array, i + 1, array, i, count - i - 1);
+    			array[count - 1] = null;
+    			count--;
+
+    			//Store a single remaining value inline again
+    			values[index] = (count == 1) ? array[0] : array;
+    			counts[index] = count;
+    			currentItems--;
+    			return true;
+    		}
+    	}
+
+    	return false;
+    }
+
+    /**
+     * Method to retrieve the number of values stored in the table.
+     *
+     * @return number of values
+     */
+    public int size() {
+    	return currentItems;
+    }
+
+    /**
+     * Method to retrieve the number of distinct keys stored
+     * in the table.
+     *
+     * @return number of keys
+     */
+    public int keyCount() {
+    	return currentKeys;
+    }
+
+    /**
+     * Helper method that removes the key stored at the index.
+     *
+     * @param index
+     */
+    private void clear(int index) {
+    	keys[index] = Probing.REMOVED;
+    	values[index] = null;
+    	counts[index] = 0;
+    	currentKeys--;
+    }
+
+    /**
+     * Helper method that allocates empty arrays for the
+     * provided number of slots.
+     *
+     * @param slots
+     */
+    private void allocate(int slots) {
+    	keys = new Object[slots];
+    	values = new Object[slots];
+    	counts = new int[slots];
+    	usedSlots = 0;
+    }
+
+    /**
+     * Helper method that resizes/rehashes the table. The
+     * values of each key are moved without being copied.
+     */
+    private void reHash() {
+
+    	Object[] oldKeys = keys;
+    	Object[] oldValues = values;
+    	int[] oldCounts = counts;
+
+    	if (Probing.grows(currentKeys, usedSlots, size, loadFactor))
+    		size = Probing.nextSize(size);
+
+    	allocate(size);
+
+    	for (int i = 0; i < oldKeys.length; i++) {
+    		if (oldKeys[i] != null && oldKeys[i] != Probing.REMOVED) {
+    			int index = Probing.insertionIndex(keys, size, oldKeys[i], ProbeStrategy.QUADRATIC);
+    			keys[index] = oldKeys[i];
+    			values[index] = oldValues[i];
+    			counts[index] = oldCounts[i];
+    			usedSlots++;
+    		}
+    	}
+    }
+
+    /**
+     * Method that returns a string representation of the table.
+     */
+    @SuppressWarnings("unchecked")
+	public String toString() {
+
+    	final StringBuilder build = new StringBuilder();
+
+    	for (int i = 0; i < size; i++) {
+    		if (keys[i] != null && keys[i] != Probing.REMOVED) {
+    			build.append(i + ":  Key: " + keys[i].toString() + " Values:");
+    			getAll((K) keys[i], new Consumer<V>() {
+    				public void accept(V value) {
+    					build.append(" " + value.toString());
+    				}
+    			});
+    			build.append("\n");
+    		}
+    	}
+
+    	return build.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for HashMultiTable
+ * @author Arjun Passi
+ *
+ */
+public class HashMultiTableTest {
+
+	/** Reference to the table on which testing will be performed*/
+	private HashMultiTable<Integer, String> mTestTable;
+
+	@Before
+	public void setUp(){
+		mTestTable = new HashMultiTable<Integer, String>();
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#put(Object, Object)}
+	 */
+	@Test
+	public void testPut(){
+		mTestTable.put(1, "one");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.keyCount(), 1);
+		assertEquals(values(1), Arrays.asList("one"));
+
+		//The second value moves the inline value into an array
+		mTestTable.put(1, "uno");
+		assertEquals(mTestTable.size(), 2);
+		assertEquals(mTestTable.keyCount(), 1);
+		assertEquals(values(1), Arrays.asList("one", "uno"));
+
+		//The array grows past its initial capacity
+		for(int i = 0; i < 10; i++)
+			mTestTable.put(1, Integer.toString(i));
+
+		assertEquals(mTestTable.count(1), 12);
+		assertEquals(values(1).subList(2, 12),
+				Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"));
+
+		try{
+			mTestTable.put(null, "one");
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+
+		try{
+			mTestTable.put(1, null);
+			fail("Null value must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#put(Object, Object)}
+	 * with keys holding several values while the table rehashes
+	 */
+	@Test
+	public void testRehash(){
+		for(int i = -2000; i < 2000; i++){
+			mTestTable.put(i, Integer.toString(i));
+			if(i % 3 == 0)
+				mTestTable.put(i, "x" + i);
+			if(i % 5 == 0)
+				mTestTable.put(i, "y" + i);
+		}
+
+		assertEquals(mTestTable.keyCount(), 4000);
+		for(int i = -2000; i < 2000; i++){
+			List<String> expected = new ArrayList<String>();
+			expected.add(Integer.toString(i));
+			if(i % 3 == 0)
+				expected.add("x" + i);
+			if(i % 5 == 0)
+				expected.add("y" + i);
+
+			assertEquals(values(i), expected);
+			assertEquals(mTestTable.count(i), expected.size());
+		}
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#getAll(Object, java.util.function.Consumer)}
+	 */
+	@Test
+	public void testGetAll(){
+		assertEquals(values(7), new ArrayList<String>());
+
+		mTestTable.put(7, "seven");
+		mTestTable.put(7, "seven");
+		assertEquals(values(7), Arrays.asList("seven", "seven"));
+
+		try{
+			mTestTable.getAll(null, value -> {});
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+
+		try{
+			mTestTable.getAll(7, null);
+			fail("Null action must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#count(Object)}
+	 */
+	@Test
+	public void testCount(){
+		assertEquals(mTestTable.count(1), 0);
+		assertEquals(mTestTable.count(null), 0);
+
+		for(int i = 0; i < 5; i++)
+			mTestTable.put(1, "one");
+
+		assertEquals(mTestTable.count(1), 5);
+		assertEquals(mTestTable.count(2), 0);
+		assertTrue(mTestTable.containsKey(1));
+		assertFalse(mTestTable.containsKey(2));
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#remove(Object)}
+	 */
+	@Test
+	public void testRemoveKey(){
+		for(int i = 0; i < 1000; i++){
+			mTestTable.put(i, "a");
+			mTestTable.put(i, "b");
+		}
+
+		for(int i = 0; i < 1000; i += 2)
+			assertEquals(mTestTable.remove(i), 2);
+
+		assertEquals(mTestTable.remove(0), 0);
+		assertEquals(mTestTable.size(), 1000);
+		assertEquals(mTestTable.keyCount(), 500);
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestTable.containsKey(i), i % 2 == 1);
+
+		//A removed key starts over with an inline value
+		mTestTable.put(0, "c");
+		assertEquals(values(0), Arrays.asList("c"));
+
+		try{
+			mTestTable.remove(null);
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link HashMultiTable#remove(Object, Object)}
+	 */
+	@Test
+	public void testRemoveValue(){
+		mTestTable.put(1, "a");
+		mTestTable.put(1, "b");
+		mTestTable.put(1, "a");
+		mTestTable.put(1, "c");
+
+		assertFalse(mTestTable.remove(1, "d"));
+		assertFalse(mTestTable.remove(2, "a"));
+		assertFalse(mTestTable.remove(1, null));
+
+		//Only the first occurrence is removed
+		assertTrue(mTestTable.remove(1, "a"));
+		assertEquals(values(1), Arrays.asList("b", "a", "c"));
+
+		assertTrue(mTestTable.remove(1, "c"));
+		assertTrue(mTestTable.remove(1, "b"));
+		assertEquals(values(1), Arrays.asList("a"));
+		assertEquals(mTestTable.size(), 1);
+
+		//The single remaining value is stored inline again
+		mTestTable.put(1, "e");
+		assertEquals(values(1), Arrays.asList("a", "e"));
+		assertTrue(mTestTable.remove(1, "e"));
+
+		//Removing the last value removes the key
+		assertFalse(mTestTable.remove(1, "e"));
+		assertTrue(mTestTable.remove(1, "a"));
+		assertFalse(mTestTable.containsKey(1));
+		assertEquals(mTestTable.count(1), 0);
+		assertEquals(mTestTable.size(), 0);
+		assertEquals(mTestTable.keyCount(), 0);
+
+		try{
+			mTestTable.remove(null, "a");
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Helper method that collects the values of the key.
+	 * @param key
+	 * @return values in the order they were added
+	 */
+	private List<String> values(int key){
+		List<String> values = new ArrayList<String>();
+		assertEquals(mTestTable.getAll(key, values::add), values.size());
+		return values;
+	}
+}
@@ -0,0 +1,320 @@
+package HashTable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a hash set. It probes and resizes like
+ * HashTable, but stores only the keys, in a flat array, so a
+ * member costs a single array slot.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ */
+public class HashSet<K> implements Iterable<K> {
+
+	/** Reference to an array containing the keys */
+	private Object [] keys;
+
+	/** Reference to the number of keys stored in the set */
+	private int currentItems;
+
+	/** Reference to the number of slots that are not null */
+	private int usedSlots;
+
+	/** Reference to the size of the table*/
+	private int size;
+
+	/** Reference to the load factor. It is used to resize the table
+	 * and rehash the keys
+	 */
+	private float loadFactor = 0.7f;
+
+	/** Reference to the probe sequence of the table */
+	private final ProbeStrategy probe;
+
+    /**
+     * Constructs a hash set object that uses quadratic probing.
+     */
+    public HashSet() {
+    	this(ProbeStrategy.QUADRATIC);
+    }
+
+    /**
+     * Constructs a hash set object that uses the provided
+     * probe sequence.
+     *
+     * Throws an IllegalArgumentException if the strategy is null.
+     *
+     * @param probe : probe sequence of the table
+     */
+    public HashSet(ProbeStrategy probe) {
+    	if (probe == null)
+    		throw new IllegalArgumentException("Probe strategy is null");
+
+    	this.probe = probe;
+    	size = Probing.initialSize();
+    	keys = new Object[size];
+    }
+
+    /**
+     * Method to add a key to the set.
+     *
+     * Throws an IllegalArgumentExcpetion if the key is null.
+     *
+     * @param key
+     * @return true if the key was added, false if it
+     * was already in the set
+     */
+    public boolean add(K key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	if (usedSlots >= loadFactor * size)
+    		reHash();
+
+    	int index;
+    	while ((index = Probing.insertionIndex(keys, size, key, probe)) < 0)
+    		reHash();
+
+    	Object k = keys[index];
+
+    	if (k != null && k != Probing.REMOVED)
+    		return false;
+
+    	if (k == null)
+    		usedSlots++;
+    	keys[index] = key;
+    	currentItems++;
+    	return true;
+    }
+
+    /**
+     * Method returns true if the provided key is in the set
+     * otherwise it returns false.
+     *
+     * @param key : key to search for in the set
+     * @return true if the key is in the set otherwise false
+     */
+    public boolean contains(K key) {
+
+    	if (key == null)
+    		return false;
+
+    	return Probing.index(keys, size, key, probe) >= 0;
+    }
+
+    /**
+     * Method to remove a key from the set.
+     *
+     * @param key
+     * @return true if the key was removed, false if it
+     * was not in the set
+     */
+    public boolean remove(K key) {
+
+    	if (key == null)
+    		return false;
+
+    	int index = Probing.index(keys, size, key, probe);
+
+    	if (index < 0)
+    		return false;
+
+    	keys[index] = Probing.REMOVED;
+    	currentItems--;
+    	return true;
+    }
+
+    /**
+     * Method to retrieve the number of keys in the set.
+     *
+     * @return number of keys
+     */
+    public int size() {
+    	return currentItems;
+    }
+
+    /**
+     * Method returns true if the set has no keys.
+     *
+     * @return true if the set is empty otherwise false
+     */
+    public boolean isEmpty() {
+    	return currentItems == 0;
+    }
+
+    /**
+     * Method that adds every key of the provided set to this
+     * set. The table is resized once up front and the keys are
+     * read straight from the slots of the other set.
+     *
+     * @param set
+     * @return true if this set changed otherwise false
+     */
+    public boolean union(HashSet<? extends K> set) {
+
+    	if (set == null || set == this)
+    		return false;
+
+    	int needed = currentItems + set.currentItems;
+    	if (usedSlots + set.currentItems >= loadFactor * size)
+    		rebuild(Math.max(size, Probing.sizeFor(needed, loadFactor)));
+
+    	int before = currentItems;
+    	Object[] other = set.keys;
+
+    	for (int i = 0; i < other.length; i++) {
+    		Object k = other[i];
+    		if (k == null || k == Probing.REMOVED)
+    			continue;
+
+    		int index;
+    		while ((index = Probing.insertionIndex(keys, size, k, probe)) < 0)
+    			reHash();
+
+    		Object existing = keys[index];
+    		if (existing == null || existing == Probing.REMOVED) {
+    			if (existing == null)
+    				usedSlots++;
+    			keys[index] = k;
+    			currentItems++;
+    		}
+    	}
+
+    	return currentItems != before;
+    }
+
+    /**
+     * Method that removes the keys of this set that are not in
+     * the provided set. The slots of this set are scanned
+     * directly; if most of them end up empty the table is
+     * rebuilt to reclaim them.
+     *
+     * @param set
+     * @return true if this set changed otherwise false
+     */
+    public boolean intersect(HashSet<?> set) {
+
+    	if (set == this)
+    		return false;
+
+    	int before = currentItems;
+
+    	for (int i = 0; i < keys.length; i++) {
+    		Object k = keys[i];
+    		if (k == null || k == Probing.REMOVED)
+    			continue;
+
+    		if (set == null || Probing.index(set.keys, set.size, k, set.probe) < 0) {
+    			keys[i] = Probing.REMOVED;
+    			currentItems--;
+    		}
+    	}
+
+    	if (currentItems < usedSlots / 4)
+    		rebuild(size);
+
+    	return currentItems != before;
+    }
+
+    /**
+     * Method that returns an iterator over the keys of the set.
+     *
+     * @return iterator over the keys
+     */
+    public Iterator<K> iterator() {
+
+    	return new Iterator<K>() {
+
+    		/** Reference to the slot of the next key */
+    		private int next = advance(0);
+
+    		/** Reference to the slot of the key returned last */
+    		private int last = -1;
+
+    		public boolean hasNext() {
+    			return next < keys.length;
+    		}
+
+    		@SuppressWarnings("unchecked")
+			public K next() {
+    			if (!hasNext())
+    				throw new NoSuchElementException("There is no next!");
+
+    			last = next;
+    			next = advance(next + 1);
+    			return (K) keys[last];
+    		}
+
+    		public void remove() {
+    			if (last < 0)
+    				throw new IllegalStateException();
+
+    			keys[last] = Probing.REMOVED;
+    			currentItems--;
+    			last = -1;
+    		}
+
+    		/**
+    		 * Helper method to find the next slot holding a key.
+    		 */
+    		private int advance(int i) {
+    			while (i < keys.length && (keys[i] == null || keys[i] == Probing.REMOVED))
+    				i++;
+    			return i;
+    		}
+    	};
+    }
+
+    /**
+     * Helper method that resizes/rehashes the table.
+     */
+    private void reHash() {
+
+    	if (Probing.grows(currentItems, usedSlots, size, loadFactor))
+    		rebuild(Probing.nextSize(size));
+    	else
+    		rebuild(size);
+    }
+
+    /**
+     * Helper method that rehashes the keys into a table of
+     * the provided size, dropping the removed keys.
+     *
+     * @param newSize
+     */
+    private void rebuild(int newSize) {
+
+    	Object[] oldKeys = keys;
+
+    	size = newSize;
+    	keys = new Object[size];
+    	usedSlots = 0;
+
+    	for (int i = 0; i < oldKeys.length; i++) {
+    		if (oldKeys[i] != null && oldKeys[i] != Probing.REMOVED) {
+    			keys[Probing.insertionIndex(keys, size, oldKeys[i], probe)] = oldKeys[i];
+    			usedSlots++;
+    		}
+    	}
+    }
+
+    /**
+     * Method that returns a string representation of the set.
+     */
+    public String toString() {
+
+    	StringBuilder build = new StringBuilder("[");
+
+    	for (K key : this) {
+    		if (build.length() > 1)
+    			build.append(", ");
+    		build.append(key.toString());
+    	}
+
+    	return build.append("]").toString();
+    }
+}
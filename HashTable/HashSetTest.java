@@ -0,0 +1,89 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for HashSet
+ * @author Arjun Passi
+ *
+ */
+public class HashSetTest {
+
+	/** Reference to the set on which testing will be performed*/
+	private HashSet<Integer> mTestSet;
+
+	@Before
+	public void setUp(){
+		mTestSet = new HashSet<Integer>();
+	}
+
+	/**
+	 * Test method for {@link HashSet#add(Object)}
+	 */
+	@Test
+	public void testAdd(){
+		assertTrue(mTestSet.add(1));
+		assertFalse(mTestSet.add(1));
+		assertEquals(mTestSet.size(), 1);
+
+		for(int i = -3000; i < 3000; i++)
+			mTestSet.add(i);
+
+		assertEquals(mTestSet.size(), 6000);
+		for(int i = -3000; i < 3000; i++)
+			assertTrue(mTestSet.contains(i));
+		assertFalse(mTestSet.contains(3000));
+	}
+
+	/**
+	 * Test method for {@link HashSet#remove(Object)}
+	 */
+	@Test
+	public void testRemove(){
+		assertFalse(mTestSet.remove(1));
+
+		for(int i = 0; i < 1000; i++)
+			mTestSet.add(i);
+		for(int i = 0; i < 1000; i += 2)
+			assertTrue(mTestSet.remove(i));
+
+		assertEquals(mTestSet.size(), 500);
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestSet.contains(i), i % 2 == 1);
+	}
+
+	/**
+	 * Test method for {@link HashSet#union(HashSet)} and
+	 * {@link HashSet#intersect(HashSet)}
+	 */
+	@Test
+	public void testUnionIntersect(){
+		HashSet<Integer> other = new HashSet<Integer>();
+
+		for(int i = 0; i < 2000; i++){
+			mTestSet.add(i);
+			other.add(i + 1000);
+		}
+
+		assertTrue(mTestSet.union(other));
+		assertEquals(mTestSet.size(), 3000);
+		assertFalse(mTestSet.union(other));
+
+		HashSet<Integer> odd = new HashSet<Integer>();
+		for(int i = 1; i < 6000; i += 2)
+			odd.add(i);
+
+		assertTrue(mTestSet.intersect(odd));
+		assertEquals(mTestSet.size(), 1500);
+
+		int count = 0;
+		for(Integer key : mTestSet){
+			assertTrue(key % 2 == 1 && key < 3000);
+			count++;
+		}
+		assertEquals(count, 1500);
+	}
+}
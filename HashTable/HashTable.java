@@ -1,18 +1,30 @@
 package HashTable;
 
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * This class implements a Hash Table data structure.
  * It maps identifying keys to their associated values.
- * This class implements the Hash Table using quadratic probing.
+ * This class implements the Hash Table using quadratic probing
+ * by default; see {@link ProbeStrategy} for the alternatives.
+ * 
+ * The slots of the table are stored in fixed size chunks so that
+ * {@link #snapshot()} can hand out a read-only view of the table
+ * without copying it. After a snapshot the writer copies a chunk
+ * the first time it modifies it, leaving the chunks seen by the
+ * snapshot untouched. Entries are never changed once they are
+ * stored; updates and removals replace them.
  * 
  * @author Arjun Passi
  *
  * @param <K>
  * @param <V>
  */
-public class HashTable<K, V> {
+public class HashTable<K, V> implements Iterable<K> {
 	
 	// Nested Classes -------------------------------------
 	/**
@@ -25,16 +37,17 @@ public class HashTable<K, V> {
 	private class Entry {
 		
 		/** Reference to the key that maps the value*/
-		private K key;
+		private final K key;
 		
 		/** Reference to the value stored in the hash table*/
-		private V value;
+		private final V value;
 		
 		/** Reference to flag to keep track of the entry in the table*/
-		private boolean isActive;
+		private final boolean isActive;
 		
 		/**
-		 * Constructs a new instance of Entry.
+		 * Constructs a new instance of Entry that marks
+		 * a removed key/value pair.
 		 */
 		public Entry() {
 			key = null;
@@ -51,7 +64,7 @@ public class HashTable<K, V> {
 		public Entry(K key, V value) {
 			this.key = key;
 			this.value = value;
-			isActive = false;
+			isActive = true;
 		}
 		
 		/**
@@ -65,12 +78,51 @@ public class HashTable<K, V> {
 	
 	// -------------------------------------------------------------------------
 	
-	/** Reference to an array containing the key/value pairs */
-	private Entry [] elements;
+	/** Reference to the number of slots in a chunk, as a power of two */
+	private static final int CHUNK_BITS = 6;
+	
+	/** Reference to the number of slots in a chunk */
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	
+	/** Reference to the number of pairs below which {@link #build}
+	 * inserts them one by one
+	 */
+	private static final int PARALLEL_BUILD_THRESHOLD = 1 << 14;
+	
+	/** Reference to the chunks containing the key/value pairs */
+	private Entry [][] chunks;
+	
+	/** Reference to the version at which each chunk was last copied */
+	private int [] chunkVersions;
+	
+	/** Reference to the current version. It is increased by every
+	 * snapshot so that chunks shared with a snapshot are copied
+	 * before they are modified.
+	 */
+	private int version;
+	
+	/** Reference to the flag set when the chunk array itself is
+	 * shared with a snapshot
+	 */
+	private boolean chunksShared;
+	
+	/** Reference to the probe sequence of the table */
+	private final ProbeStrategy probe;
+	
+	/** Reference to the flag set on read-only snapshots */
+	private final boolean readOnly;
+	
+	/** Reference to the marker stored in the slot of a removed entry */
+	private final Entry removed = new Entry();
 	
 	/** Reference to the number of key/value pairs stored in the table */
 	private int currentItems;
 	
+	/** Reference to the number of slots that are not null, including
+	 * the slots of removed entries
+	 */
+	private int usedSlots;
+	
 	/** Reference to the size of the table*/
 	private int size;
 	
@@ -79,25 +131,59 @@ public class HashTable<K, V> {
 	 */
 	private float loadFactor = 0.7f;
 	
-	/** Reference to precomputed values for to increase the size of the table */
-    private int primeSizeValues[] = {1019, 2027, 4079, 8123, 16267, 32503,
-    									65011, 130027, 260111, 520279, 1040387, 
-    									2080763, 4161539, 8323151, 16646323};
-    
     /**
-     * Constructs a hash table object.
+     * Constructs a hash table object that uses quadratic probing.
      */
     public HashTable() {
+    	this(ProbeStrategy.QUADRATIC);
+    }
+    
+    /**
+     * Constructs a hash table object that uses the provided
+     * probe sequence.
+     * 
+     * Throws an IllegalArgumentException if the strategy is null.
+     * 
+     * @param probe : probe sequence of the table
+     */
+    public HashTable(ProbeStrategy probe) {
+    	if (probe == null)
+    		throw new IllegalArgumentException("Probe strategy is null");
+    	
+    	this.probe = probe;
     	currentItems = 0;
-    	size = primeSizeValues[0];
-    	elements = new HashTable.Entry[size];
+    	size = Probing.initialSize();
+    	readOnly = false;
+    	allocate(size);
     }
     
     /**
-     * Method to inserts key/value pair in the table.
+     * Constructs a read-only snapshot of the provided table.
+     * The snapshot shares the chunks of the table.
+     * 
+     * @param table : table to take the snapshot of
+     */
+    private HashTable(HashTable<K, V> table) {
+    	chunks = table.chunks;
+    	chunkVersions = table.chunkVersions;
+    	version = table.version;
+    	currentItems = table.currentItems;
+    	usedSlots = table.usedSlots;
+    	size = table.size;
+    	loadFactor = table.loadFactor;
+    	probe = table.probe;
+    	readOnly = true;
+    }
+    
+    /**
+     * Method to inserts key/value pair in the table. An existing
+     * mapping for the key is replaced.
      * 
      * Throws an IllegalArgumentExcpetion if the key or value 
      * is null.
+     * 
+     * Throws an UnsupportedOperationException if the table
+     * is a snapshot.
 	 * 
      * @param key
      * @param value
@@ -109,26 +195,63 @@ public class HashTable<K, V> {
     	if (value == null)
     		throw new IllegalArgumentException("Value is null");
     	
+    	checkWritable();
+    	
     	if (isReHashable())
     		reHash();
     	
     	Entry e = new Entry(key, value);
-    	e.isActive = true;
     	
-    	put(e);
-    	currentItems++;
+    	while (!put(e))
+    		reHash();
     }
     
     /**
      * Helper method that inserts the Entry object
-     * in the hash table.
+     * in the hash table, replacing the entry with
+     * the same key if there is one.
      * 
      * @param entry
+     * @return false if the probe sequence of the key
+     * has no free slot, otherwise true
      */
-    private void put(Entry entry) {
+    private boolean put(Entry entry) {
     	
-    	int index = index(entry.key);
-    	elements[index] = entry;
+    	int hash = Probing.hash(entry.key);
+    	int index = hash % size;
+    	int stride = probe.stride(hash, size);
+    	int free = -1;
+    	
+    	for (int offset = 1; offset <= size; offset++) {
+    		Entry e = slot(index);
+    		
+    		if (e == null) {
+    			if (free < 0) {
+    				free = index;
+    				usedSlots++;
+    			}
+    			break;
+    		}
+    		
+    		if (!e.isActive) {
+    			if (free < 0)
+    				free = index;
+    		}
+    		else if (e.key.equals(entry.key)) {
+    			setSlot(index, entry);
+    			return true;
+    		}
+    		
+    		index = (index + stride) % size;
+    		stride += probe.growth;
+    	}
+    	
+    	if (free < 0)
+    		return false;
+    	
+    	setSlot(free, entry);
+    	currentItems++;
+    	return true;
     }
     
     /**
@@ -136,19 +259,97 @@ public class HashTable<K, V> {
      * of the Entry associated with the provided key.
      * 
      * @param key
-     * @return index where the key maps to.
+     * @return index where the key maps to, or -1 if
+     * the key is not in the table.
      */
     private int index(K key) {
     	
-    	int offset = 1;
-    	int hash = key.hashCode() % size;
+    	int hash = Probing.hash(key);
+    	int index = hash % size;
+    	int stride = probe.stride(hash, size);
     	
-    	while (elements[hash] != null && elements[hash].isActive) {
-    		hash = (key.hashCode() + ((offset * (offset + 1)) / 2)) % size;
-    		offset++;
+    	for (int offset = 1; offset <= size; offset++) {
+    		Entry e = slot(index);
+    		
+    		if (e == null)
+    			return -1;
+    		if (e.isActive && e.key.equals(key))
+    			return index;
+    		
+    		index = (index + stride) % size;
+    		stride += probe.growth;
     	}
     	
-    	return hash;
+    	return -1;
+    }
+    
+    /**
+     * Helper method to retrieve the Entry stored
+     * at the provided index.
+     * 
+     * @param index
+     * @return Entry or null
+     */
+    private Entry slot(int index) {
+    	return chunks[index >>> CHUNK_BITS][index & (CHUNK_SIZE - 1)];
+    }
+    
+    /**
+     * Helper method to store an Entry at the provided
+     * index. The chunk holding the index is copied first
+     * if a snapshot may still be reading it.
+     * 
+     * @param index
+     * @param entry
+     */
+    private void setSlot(int index, Entry entry) {
+    	
+    	int chunk = index >>> CHUNK_BITS;
+    	
+    	if (chunksShared) {
+    		chunks = chunks.clone();
+    		chunkVersions = chunkVersions.clone();
+    		chunksShared = false;
+    	}
+    	
+    	if (chunkVersions[chunk] != version) {
+    		chunks[chunk] = chunks[chunk].clone();
+    		chunkVersions[chunk] = version;
+    	}
+    	
+    	chunks[chunk][index & (CHUNK_SIZE - 1)] = entry;
+    }
+    
+    /**
+     * Helper method that allocates empty chunks for
+     * the provided number of slots.
+     * 
+     * @param slots
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+	private void allocate(int slots) {
+    	
+    	int count = (slots + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+    	
+    	chunks = new HashTable.Entry[count][];
+    	chunkVersions = new int[count];
+    	
+    	for (int i = 0; i < count; i++) {
+    		chunks[i] = new HashTable.Entry[CHUNK_SIZE];
+    		chunkVersions[i] = version;
+    	}
+    	
+    	chunksShared = false;
+    	usedSlots = 0;
+    }
+    
+    /**
+     * Helper method that throws an UnsupportedOperationException
+     * if the table is a read-only snapshot.
+     */
+    private void checkWritable() {
+    	if (readOnly)
+    		throw new UnsupportedOperationException("Snapshot is read-only");
     }
     
     /**
@@ -158,30 +359,275 @@ public class HashTable<K, V> {
      * @return true if table needs to be resized otherwise false
      */
     private boolean isReHashable() {
-    	return currentItems >= loadFactor * size;
+    	return usedSlots >= loadFactor * size;
     }
     
     /**
-     * Helper method that resizes/rehashes the table.
+     * Helper method that resizes/rehashes the table. The
+     * table only grows when the active key/value pairs fill
+     * more than half of the load factor, otherwise the slots
+     * of removed entries are reclaimed at the same size.
      */
     private void reHash(){
     	
-    	Entry[] oldElements = elements;
+    	Entry[][] oldChunks = chunks;
+    	
+    	if (Probing.grows(currentItems, usedSlots, size, loadFactor))
+    		size = Probing.nextSize(size);
+    	
+    	allocate(size);
+    	currentItems = 0;
+    	
+    	for (int i = 0; i < oldChunks.length; i++) {
+    		for (int j = 0; j < CHUNK_SIZE; j++) {
+    			Entry e = oldChunks[i][j];
+    			if (e != null && e.isActive)
+    				put(e);
+    		}
+    	}
+    }
+    
+    /**
+     * Method that builds a table from the provided key/value
+     * arrays using all the processors. When a key occurs more
+     * than once the last value wins, as with repeated puts.
+     * 
+     * The pairs are partitioned by the region of the table their
+     * hash maps to and every region is filled by its own fork-join
+     * worker. A pair whose probe sequence leaves its region is
+     * inserted afterwards by the calling thread.
+     * 
+     * Throws an IllegalArgumentException if the arrays are null,
+     * differ in length, or contain a null key or value.
+     * 
+     * @param keys
+     * @param values : value of the key at the same position
+     * @return new table holding the pairs
+     */
+    public static <K, V> HashTable<K, V> build(final K[] keys, final V[] values) {
+    	
+    	if (keys == null || values == null)
+    		throw new IllegalArgumentException("Keys or values are null");
+    	if (keys.length != values.length)
+    		throw new IllegalArgumentException("Keys and values differ in length");
+    	
+    	final HashTable<K, V> table = new HashTable<K, V>();
+    	final int n = keys.length;
+    	
+    	if (n < PARALLEL_BUILD_THRESHOLD) {
+    		for (int i = 0; i < n; i++)
+    			table.put(keys[i], values[i]);
+    		return table;
+    	}
+    	
+    	table.size = Probing.sizeFor(n, table.loadFactor);
+    	table.allocate(table.size);
+    	
+    	final int regions = Math.min(Runtime.getRuntime().availableProcessors() * 4,
+    			table.size / CHUNK_SIZE);
+    	final int tasks = regions;
+    	final int[] hashes = new int[n];
+    	final int[][] counts = new int[tasks][regions];
+    	
+    	//Hash every pair and count the pairs of each region per task
+    	IntStream.range(0, tasks).parallel().forEach(t -> {
+    		for (int i = n * t / tasks; i < n * (t + 1L) / tasks; i++) {
+    			if (keys[i] == null)
+    				throw new IllegalArgumentException("Key is null");
+    			if (values[i] == null)
+    				throw new IllegalArgumentException("Value is null");
+    			
+    			hashes[i] = Probing.hash(keys[i]);
+    			counts[t][table.region(hashes[i] % table.size, regions)]++;
+    		}
+    	});
+    	
+    	//Turn the counts into the positions each task writes to
+    	final int[] regionStart = new int[regions + 1];
+    	int position = 0;
+    	for (int r = 0; r < regions; r++) {
+    		regionStart[r] = position;
+    		for (int t = 0; t < tasks; t++) {
+    			int count = counts[t][r];
+    			counts[t][r] = position;
+    			position += count;
+    		}
+    	}
+    	regionStart[regions] = position;
+    	
+    	//Group the pairs by region, keeping their input order
+    	final int[] order = new int[n];
+    	IntStream.range(0, tasks).parallel().forEach(t -> {
+    		for (int i = n * t / tasks; i < n * (t + 1L) / tasks; i++)
+    			order[counts[t][table.region(hashes[i] % table.size, regions)]++] = i;
+    	});
+    	
+    	final int[] inserted = new int[regions];
+    	final int[] deferred = new int[regions];
+    	IntStream.range(0, regions).parallel().forEach(r ->
+    		table.buildRegion(r, regions, keys, values, hashes, order,
+    				regionStart[r], regionStart[r + 1], inserted, deferred));
+    	
+    	for (int r = 0; r < regions; r++) {
+    		table.currentItems += inserted[r];
+    		table.usedSlots += inserted[r];
+    	}
     	
-    	for (int i = 0; i < primeSizeValues.length - 1; i++) {
-    		if (size == primeSizeValues[i]) {
-    			size = primeSizeValues[i+1];
+    	for (int r = 0; r < regions; r++) {
+    		for (int p = regionStart[r]; p < regionStart[r] + deferred[r]; p++) {
+    			int i = order[p];
+    			if (table.isReHashable())
+    				table.reHash();
+    			while (!table.put(table.new Entry(keys[i], values[i])))
+    				table.reHash();
+    		}
+    	}
+    	
+    	return table;
+    }
+    
+    /**
+     * Method that builds a table from the elements of the stream,
+     * using the provided functions to extract the key and value
+     * of each element. See {@link #build(Object[], Object[])}.
+     * 
+     * Throws an IllegalArgumentException if an element yields
+     * a null key or value.
+     * 
+     * @param stream : elements to build the table from
+     * @param key : function returning the key of an element
+     * @param value : function returning the value of an element
+     * @return new table holding the pairs
+     */
+    @SuppressWarnings("unchecked")
+	public static <E, K, V> HashTable<K, V> build(Stream<E> stream,
+    		final Function<? super E, ? extends K> key,
+    		final Function<? super E, ? extends V> value) {
+    	
+    	if (stream == null || key == null || value == null)
+    		throw new IllegalArgumentException("Stream or function is null");
+    	
+    	final Object[] elements = stream.toArray();
+    	final K[] keys = (K[]) new Object[elements.length];
+    	final V[] values = (V[]) new Object[elements.length];
+    	
+    	IntStream.range(0, elements.length).parallel().forEach(i -> {
+    		keys[i] = key.apply((E) elements[i]);
+    		values[i] = value.apply((E) elements[i]);
+    	});
+    	
+    	return build(keys, values);
+    }
+    
+    /**
+     * Helper method that inserts the pairs of one region of
+     * the table being built. Slots outside the region are never
+     * written; pairs that would need them are moved to the front
+     * of the region's part of the order array instead.
+     * 
+     * @param r : region being filled
+     * @param regions : number of regions
+     * @param from : first position of the region in the order array
+     * @param to : end of the region in the order array
+     * @param inserted : receives the number of pairs inserted
+     * @param deferred : receives the number of pairs left over
+     */
+    private void buildRegion(int r, int regions, K[] keys, V[] values, int[] hashes,
+    		int[] order, int from, int to, int[] inserted, int[] deferred) {
+    	
+    	int added = 0;
+    	int left = 0;
+    	
+    	for (int p = from; p < to; p++) {
+    		int i = order[p];
+    		int index = hashes[i] % size;
+    		int stride = probe.stride(hashes[i], size);
+    		boolean placed = false;
+    		
+    		for (int offset = 1; offset <= size && region(index, regions) == r; offset++) {
+    			Entry e = slot(index);
+    			
+    			if (e == null) {
+    				added++;
+    			}
+    			else if (!e.key.equals(keys[i])) {
+    				index = (index + stride) % size;
+    				stride += probe.growth;
+    				continue;
+    			}
+    			
+    			chunks[index >>> CHUNK_BITS][index & (CHUNK_SIZE - 1)] = new Entry(keys[i], values[i]);
+    			placed = true;
     			break;
     		}
+    		
+    		if (!placed)
+    			order[from + left++] = i;
     	}
     	
-    	elements = new HashTable.Entry[size];
+    	inserted[r] = added;
+    	deferred[r] = left;
+    }
+    
+    /**
+     * Helper method that returns the region of the table
+     * the index belongs to when building in parallel.
+     * 
+     * @param index
+     * @param regions : number of regions
+     * @return region of the index
+     */
+    private int region(int index, int regions) {
+    	return (int) ((long) index * regions / size);
+    }
+    
+    /**
+     * Method that returns a read-only view of the table
+     * consistent with its current contents. The table can
+     * keep being modified while the snapshot is read from
+     * other threads; the snapshot must be handed to them
+     * through a thread safe channel.
+     * 
+     * Taking a snapshot does not copy the slots. Instead the
+     * next modification of each chunk copies that chunk.
+     * 
+     * @return read-only snapshot of the table
+     */
+    public HashTable<K, V> snapshot() {
+    	
+    	if (readOnly)
+    		return this;
     	
-    	for (int i = 0; i < oldElements.length; i++) {
-    		if (oldElements[i] != null) {
-    			put(oldElements[i]);
+    	HashTable<K, V> snapshot = new HashTable<K, V>(this);
+    	version++;
+    	chunksShared = true;
+    	return snapshot;
+    }
+    
+    /**
+     * Method that returns an immutable copy of the table that
+     * locates each key with a minimal perfect hash function.
+     * Tables that are built once and then only read answer
+     * lookups faster in this form. This table is left unchanged.
+     * 
+     * @return frozen copy of the table
+     */
+    public FrozenHashTable<K, V> freeze() {
+    	
+    	Object[] keys = new Object[currentItems];
+    	Object[] values = new Object[currentItems];
+    	int count = 0;
+    	
+    	for (int i = 0; i < size; i++) {
+    		Entry e = slot(i);
+    		if (e != null && e.isActive) {
+    			keys[count] = e.key;
+    			values[count] = e.value;
+    			count++;
     		}
     	}
+    	
+    	return new FrozenHashTable<K, V>(keys, values, count);
     }
     
     /**
@@ -193,6 +639,9 @@ public class HashTable<K, V> {
      * Throws a No such element exception if the key is not present
      * in the table.
      * 
+     * Throws an UnsupportedOperationException if the table
+     * is a snapshot.
+     * 
      * @param key
      * @return
      */
@@ -201,14 +650,18 @@ public class HashTable<K, V> {
     	if (key == null)
     		throw new IllegalArgumentException("Key is null");
     	
+    	checkWritable();
+    	
     	int index = index(key);
     	
-    	if (elements[index] == null || !elements[index].isActive)
+    	if (index < 0)
     		throw new NoSuchElementException("Key doesn't map to any value.");
     	
+    	V value = slot(index).value;
+    	
     	currentItems--;
-    	elements[index].isActive = false;
-    	return elements[index].value;
+    	setSlot(index, removed);
+    	return value;
     }
     
     /**
@@ -230,10 +683,23 @@ public class HashTable<K, V> {
     	
     	int index = index(key);
     	
-    	if (elements[index] == null || !elements[index].isActive)
+    	if (index < 0)
     		throw new NoSuchElementException("Key doesn't map to any value.");
     	
-    	return elements[index].value;
+    	return slot(index).value;
+    }
+    
+    /**
+     * Helper method that returns the value the key maps to,
+     * or null if the key is not in the table.
+     * 
+     * @param key : key that is not null
+     * @return value the key maps to or null
+     */
+    V find(K key) {
+    	
+    	int index = index(key);
+    	return (index < 0) ? null : slot(index).value;
     }
     
     /**
@@ -248,9 +714,10 @@ public class HashTable<K, V> {
     	if (value == null)
     		return false;
     	
-    	for (int i = 0; i < elements.length; i++) {
-    		if (elements[i] != null && elements[i].isActive) {
-    			if (elements[i].value.equals(value))
+    	for (int i = 0; i < size; i++) {
+    		Entry e = slot(i);
+    		if (e != null && e.isActive) {
+    			if (e.value.equals(value))
     				return true;
     		}
     	}
@@ -270,7 +737,67 @@ public class HashTable<K, V> {
     	if (key == null)
     		return false;
     	
-    	return get(key) != null;
+    	return index(key) >= 0;
+    }
+    
+    /**
+     * Method to retrieve the number of key/value pairs
+     * stored in the table.
+     * 
+     * @return number of key/value pairs
+     */
+    public int size() {
+    	return currentItems;
+    }
+    
+    /**
+     * Method that returns an iterator over the keys of the
+     * table. The iterator does not support removal; iterate
+     * over a {@link #snapshot()} to modify the table while
+     * iterating.
+     * 
+     * @return iterator over the keys
+     */
+    public Iterator<K> iterator() {
+    	
+    	final Entry[][] view = chunks;
+    	final int slots = size;
+    	
+    	return new Iterator<K>() {
+    		
+    		/** Reference to the slot of the next key */
+    		private int next = advance(0);
+    		
+    		public boolean hasNext() {
+    			return next < slots;
+    		}
+    		
+    		public K next() {
+    			if (!hasNext())
+    				throw new NoSuchElementException("There is no next!");
+    			
+    			K key = view[next >>> CHUNK_BITS][next & (CHUNK_SIZE - 1)].key;
+    			next = advance(next + 1);
+    			return key;
+    		}
+    		
+    		public void remove() {
+    			throw new UnsupportedOperationException();
+    		}
+    		
+    		/**
+    		 * Helper method to find the next active slot.
+    		 */
+    		private int advance(int i) {
+    			while (i < slots) {
+    				Entry e = view[i >>> CHUNK_BITS][i & (CHUNK_SIZE - 1)];
+    				if (e != null && e.isActive)
+    					break;
+    				i++;
+    			}
+    			return i;
+    		}
+    	};
     }
     
     /**
@@ -281,9 +808,10 @@ public class HashTable<K, V> {
     	StringBuilder build = new StringBuilder();
     	
     	for (int i = 0; i < size; i++) {
-    		if(elements[i] != null) {
-    			if(elements[i].isActive)
-    				build.append(i + ":  " + elements[i].toString() + "\n");
+    		Entry e = slot(i);
+    		if(e != null) {
+    			if(e.isActive)
+    				build.append(i + ":  " + e.toString() + "\n");
     				
     		}
     	}
@@ -0,0 +1,184 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for HashTable
+ * @author Arjun Passi
+ *
+ */
+public class HashTableTest {
+
+	/** Reference to the table on which testing will be performed*/
+	private HashTable<Integer, String> mTestTable;
+
+	@Before
+	public void setUp(){
+		mTestTable = new HashTable<Integer, String>();
+	}
+
+	/**
+	 * Test method for {@link HashTable#put(Object, Object)}
+	 */
+	@Test
+	public void testPut(){
+		mTestTable.put(1, "one");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get(1), "one");
+
+		mTestTable.put(1, "uno");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get(1), "uno");
+
+		for(int i = -5000; i < 5000; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		assertEquals(mTestTable.size(), 10000);
+		for(int i = -5000; i < 5000; i++)
+			assertEquals(mTestTable.get(i), Integer.toString(i));
+	}
+
+	/**
+	 * Test method for {@link HashTable#remove(Object)}
+	 */
+	@Test
+	public void testRemove(){
+		for(int i = 0; i < 1000; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		for(int i = 0; i < 1000; i += 2)
+			assertEquals(mTestTable.remove(i), Integer.toString(i));
+
+		assertEquals(mTestTable.size(), 500);
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestTable.containsKey(i), i % 2 == 1);
+
+		try{
+			mTestTable.remove(0);
+			fail("Removed key must not be found");
+		} catch(NoSuchElementException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link HashTable#snapshot()}
+	 */
+	@Test
+	public void testSnapshot(){
+		for(int i = 0; i < 100; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		HashTable<Integer, String> snapshot = mTestTable.snapshot();
+
+		mTestTable.remove(0);
+		mTestTable.put(1, "one");
+		for(int i = 100; i < 5000; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		assertEquals(snapshot.size(), 100);
+		assertEquals(snapshot.get(0), "0");
+		assertEquals(snapshot.get(1), "1");
+		assertFalse(snapshot.containsKey(100));
+
+		int count = 0;
+		for(Integer key : snapshot){
+			assertTrue(key < 100);
+			count++;
+		}
+		assertEquals(count, 100);
+
+		assertFalse(mTestTable.containsKey(0));
+		assertEquals(mTestTable.get(1), "one");
+		assertEquals(mTestTable.size(), 4999);
+
+		try{
+			snapshot.put(1, "one");
+			fail("Snapshot must be read-only");
+		} catch(UnsupportedOperationException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link HashTable#build(Object[], Object[])}
+	 */
+	@Test
+	public void testBuild(){
+		int n = 100000;
+		Integer[] keys = new Integer[n];
+		String[] values = new String[n];
+
+		for(int i = 0; i < n; i++){
+			keys[i] = i % 60000;
+			values[i] = Integer.toString(i);
+		}
+
+		HashTable<Integer, String> table = HashTable.build(keys, values);
+
+		assertEquals(table.size(), 60000);
+		for(int i = 0; i < 60000; i++){
+			String expected = Integer.toString(i < 40000 ? i + 60000 : i);
+			assertEquals(table.get(i), expected);
+		}
+
+		table.put(-1, "minus one");
+		assertEquals(table.get(-1), "minus one");
+
+		HashTable<String, Integer> streamed = HashTable.build(IntStream.range(0, n).boxed(),
+				i -> "key" + i, i -> i);
+		assertEquals(streamed.size(), n);
+		assertEquals(streamed.get("key12345"), (Integer) 12345);
+	}
+
+	/**
+	 * Test method for {@link HashTable#freeze()}
+	 */
+	@Test
+	public void testFreeze(){
+		for(int i = 0; i < 10000; i++)
+			mTestTable.put(i, Integer.toString(i));
+		mTestTable.remove(5);
+
+		FrozenHashTable<Integer, String> frozen = mTestTable.freeze();
+
+		assertEquals(frozen.size(), 9999);
+		for(int i = 0; i < 10000; i++){
+			if(i == 5)
+				assertFalse(frozen.containsKey(i));
+			else
+				assertEquals(frozen.get(i), Integer.toString(i));
+		}
+		assertFalse(frozen.containsKey(10000));
+		assertTrue(frozen.bitsPerKey() > 0);
+
+		mTestTable.put(5, "five");
+		assertFalse(frozen.containsKey(5));
+	}
+
+	/**
+	 * Test method for {@link HashTable#HashTable(ProbeStrategy)}
+	 */
+	@Test
+	public void testProbeStrategy(){
+		for(ProbeStrategy probe : ProbeStrategy.values()){
+			HashTable<Integer, String> table = new HashTable<Integer, String>(probe);
+
+			for(int i = 0; i < 20000; i++)
+				table.put(i * 1019, Integer.toString(i));
+			for(int i = 0; i < 20000; i += 3)
+				table.remove(i * 1019);
+
+			for(int i = 0; i < 20000; i++){
+				if(i % 3 == 0)
+					assertFalse(table.containsKey(i * 1019));
+				else
+					assertEquals(table.get(i * 1019), Integer.toString(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,752 @@
+package HashTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * This class implements a Hash Table whose mutations are durable.
+ * The key/value pairs are held in a HashTable in memory and every
+ * put and remove is appended to a journal in a directory before
+ * the method returns.
+ *
+ * Writer threads are group committed: the records of every writer
+ * that is waiting are written and forced to the disk together, so
+ * concurrent writers share the cost of one FileChannel.force.
+ *
+ * The journal is split into segments. After a number of segments
+ * a checkpoint holding every key/value pair is written from a
+ * snapshot of the table and the segments it covers are deleted.
+ * Opening a directory that holds a journal recovers the table from
+ * the last checkpoint and the segments after it; the files are
+ * decoded in parallel and applied in order. A record that was only
+ * partly written when the process stopped is ignored.
+ *
+ * If writing the journal fails, the journal stops: the mutations
+ * whose records were not forced to the disk and every later one
+ * throw an UncheckedIOException. The table in memory may already
+ * hold those mutations, so it has to be reopened to get back to
+ * the durable state.
+ *
+ * This is a thread safe implementation.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class JournaledHashTable<K, V> implements Closeable {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Record is a nested class holding one decoded
+	 * journal record during recovery.
+	 *
+	 * @author Arjun Passi
+	 *
+	 * @param <K>
+	 * @param <V>
+	 */
+	private static class Record<K, V> {
+
+		/** Reference to the key of the record */
+		private final K key;
+
+		/** Reference to the value of a put, or null for a remove */
+		private final V value;
+
+		private Record(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the operation code of a put record */
+	private static final byte PUT = 1;
+
+	/** Reference to the operation code of a remove record */
+	private static final byte REMOVE = 2;
+
+	/** Reference to the size of the record header: length and checksum */
+	private static final int RECORD_HEADER = 8;
+
+	/** Reference to the default size a segment grows to before a new one is started */
+	private static final long DEFAULT_SEGMENT_BYTES = 16 << 20;
+
+	/** Reference to the number of segments written between checkpoints */
+	private static final int SEGMENTS_PER_CHECKPOINT = 4;
+
+	/** Reference to the directory holding the journal */
+	private final Path directory;
+
+	/** Reference to the encoder of the keys */
+	private final Codec<K> keyCodec;
+
+	/** Reference to the encoder of the values */
+	private final Codec<V> valueCodec;
+
+	/** Reference to the size a segment grows to before a new one is started */
+	private final long segmentBytes;
+
+	/** Reference to the key/value pairs, guarded by this object */
+	private final HashTable<K, V> table;
+
+	/** Reference to the records not yet written, guarded by this object */
+	private ByteBuffer pending;
+
+	/** Reference to the number of records appended, guarded by this object */
+	private long appended;
+
+	/** Reference to the emptied buffer swapped in for the pending records, guarded by commitLock */
+	private ByteBuffer spare;
+
+	/** Reference to the lock held by the thread committing the pending records */
+	private final Object commitLock = new Object();
+
+	/** Reference to the lock held by the thread writing a checkpoint */
+	private final Object checkpointLock = new Object();
+
+	/** Reference to the number of records forced to the disk */
+	private volatile long durable;
+
+	/** Reference to the error that stopped the journal, or null while it works */
+	private volatile IOException failure;
+
+	/** Reference to the channel of the current segment, guarded by commitLock */
+	private FileChannel segment;
+
+	/** Reference to the number of the current segment, guarded by commitLock */
+	private long segmentNumber;
+
+	/** Reference to the number of segments since the last checkpoint, guarded by commitLock */
+	private int segmentsSinceCheckpoint;
+
+	/**
+	 * Constructs a table journaled in the provided directory.
+	 * If the directory already holds a journal the table is
+	 * recovered from it.
+	 *
+	 * Throws an IllegalArgumentException if a codec is null.
+	 *
+	 * @param directory : directory holding the journal
+	 * @param keyCodec : encoder of the keys
+	 * @param valueCodec : encoder of the values
+	 * @throws IOException if the journal can not be read or created
+	 */
+	public JournaledHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+		this(directory, keyCodec, valueCodec, DEFAULT_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Constructs a table journaled in the provided directory
+	 * whose segments grow to the provided number of bytes.
+	 *
+	 * Throws an IllegalArgumentException if a codec is null or
+	 * the segment size is not positive.
+	 *
+	 * @param directory : directory holding the journal
+	 * @param keyCodec : encoder of the keys
+	 * @param valueCodec : encoder of the values
+	 * @param segmentBytes : size of a segment before a new one is started
+	 * @throws IOException if the journal can not be read or created
+	 */
+	public JournaledHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec,
+			long segmentBytes) throws IOException {
+
+		if (keyCodec == null || valueCodec == null)
+			throw new IllegalArgumentException("Codec is null");
+		if (segmentBytes <= 0)
+			throw new IllegalArgumentException("Segment size must be positive");
+
+		this.directory = directory;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.segmentBytes = segmentBytes;
+		this.table = new HashTable<K, V>();
+		this.pending = ByteBuffer.allocate(4096);
+		this.spare = ByteBuffer.allocate(4096);
+
+		Files.createDirectories(directory);
+		segmentNumber = recover();
+		segment = openSegment(segmentNumber);
+	}
+
+	/**
+	 * Method to inserts key/value pair in the table. An existing
+	 * mapping for the key is replaced. The pair is durable once
+	 * the method returns.
+	 *
+	 * Throws an IllegalArgumentExcpetion if the key or value
+	 * is null.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+		if (value == null)
+			throw new IllegalArgumentException("Value is null");
+
+		checkFailure();
+
+		byte[] keyBytes = keyCodec.encode(key);
+		byte[] valueBytes = valueCodec.encode(value);
+		long sequence;
+
+		synchronized (this) {
+			table.put(key, value);
+			sequence = append(PUT, keyBytes, valueBytes);
+		}
+
+		commit(sequence);
+	}
+
+	/**
+	 * Method to remove a specific key/value pair from the table.
+	 * The removal is durable once the method returns.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key mapped to
+	 */
+	public V remove(K key) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		checkFailure();
+
+		byte[] keyBytes = keyCodec.encode(key);
+		long sequence;
+		V value;
+
+		synchronized (this) {
+			value = table.remove(key);
+			sequence = append(REMOVE, keyBytes, null);
+		}
+
+		commit(sequence);
+		return value;
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key maps to.
+	 */
+	public synchronized V get(K key) {
+		return table.get(key);
+	}
+
+	/**
+	 * Method returns true if the provided key is in the table
+	 * otherwise it returns false.
+	 *
+	 * @param key : key to search for in the table
+	 * @return true if the key is in the table otherwise false
+	 */
+	public synchronized boolean containsKey(K key) {
+		return table.containsKey(key);
+	}
+
+	/**
+	 * Method to retrieve the number of key/value pairs
+	 * stored in the table.
+	 *
+	 * @return number of key/value pairs
+	 */
+	public synchronized int size() {
+		return table.size();
+	}
+
+	/**
+	 * Method that writes a checkpoint of the table and deletes
+	 * the segments it covers. The table is only locked while a
+	 * snapshot is taken and the commit lock while the current
+	 * segment is closed; writers continue in a new segment while
+	 * the checkpoint is written.
+	 */
+	public void checkpoint() {
+
+		synchronized (checkpointLock) {
+			HashTable<K, V> snapshot;
+			long covered;
+
+			try {
+				synchronized (commitLock) {
+					ByteBuffer records;
+					long sequence;
+
+					synchronized (this) {
+						records = swapPending();
+						sequence = appended;
+						snapshot = table.snapshot();
+					}
+
+					writeRecords(records, sequence);
+					covered = roll();
+					segmentsSinceCheckpoint = 0;
+				}
+
+				writeCheckpoint(snapshot, covered);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Method that closes the journal. The table can not be
+	 * used afterwards.
+	 *
+	 * @throws IOException if the pending records can not be written
+	 * or the segment can not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (commitLock) {
+			try {
+				if (failure == null)
+					flushPending();
+			}
+			finally {
+				segment.close();
+			}
+		}
+	}
+
+	/**
+	 * Helper method that throws an UncheckedIOException if
+	 * the journal stopped after a failed write.
+	 */
+	private void checkFailure() {
+		IOException failure = this.failure;
+		if (failure != null)
+			throw new UncheckedIOException("Journal failed", failure);
+	}
+
+	/**
+	 * Helper method that encodes a record into the pending
+	 * records. The caller holds the lock of this object, so the
+	 * records are in the order the mutations were applied.
+	 *
+	 * @param op : operation code
+	 * @param key : bytes of the key
+	 * @param value : bytes of the value, or null
+	 * @return sequence number of the record
+	 */
+	private long append(byte op, byte[] key, byte[] value) {
+		pending = encode(pending, op, key, value);
+		return ++appended;
+	}
+
+	/**
+	 * Helper method that encodes a record at the position of the
+	 * buffer: its length, the checksum of the rest of the record,
+	 * the operation code, the key length, the key and the value.
+	 *
+	 * @param buffer
+	 * @param op : operation code
+	 * @param key : bytes of the key
+	 * @param value : bytes of the value, or null
+	 * @return the buffer, or a larger copy if it was full
+	 */
+	private static ByteBuffer encode(ByteBuffer buffer, byte op, byte[] key, byte[] value) {
+
+		int valueLength = (value == null) ? 0 : value.length;
+		int length = 5 + key.length + valueLength;
+
+		if (buffer.remaining() < RECORD_HEADER + length) {
+			int capacity = Math.max(buffer.capacity() * 2, buffer.position() + RECORD_HEADER + length);
+			ByteBuffer grown = ByteBuffer.allocate(capacity);
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+
+		int start = buffer.position();
+		buffer.putInt(length);
+		buffer.putInt(0);
+		buffer.put(op);
+		buffer.putInt(key.length);
+		buffer.put(key);
+		if (value != null)
+			buffer.put(value);
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), start + RECORD_HEADER, length);
+		buffer.putInt(start + 4, (int) crc.getValue());
+
+		return buffer;
+	}
+
+	/**
+	 * Helper method that returns once the record with the
+	 * provided sequence number is on the disk. The first waiting
+	 * thread writes the records of every writer that appended so
+	 * far and forces them with a single call; the other threads
+	 * find their record already durable. If the journal stopped
+	 * before the record was forced an UncheckedIOException is thrown.
+	 *
+	 * @param sequence : sequence number of the record
+	 */
+	private void commit(long sequence) {
+
+		if (durable >= sequence)
+			return;
+
+		boolean checkpoint = false;
+
+		synchronized (commitLock) {
+			if (durable >= sequence)
+				return;
+
+			checkFailure();
+
+			try {
+				flushPending();
+
+				if (segment.size() >= segmentBytes) {
+					roll();
+					checkpoint = ++segmentsSinceCheckpoint >= SEGMENTS_PER_CHECKPOINT;
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		if (checkpoint)
+			checkpoint();
+	}
+
+	/**
+	 * Helper method that writes the pending records to the
+	 * current segment and forces them to the disk. The lock of
+	 * this object is only held while the pending records are
+	 * swapped out, so readers and writers are not blocked while
+	 * the disk is written. The caller holds the commit lock.
+	 */
+	private void flushPending() throws IOException {
+
+		ByteBuffer records;
+		long sequence;
+
+		synchronized (this) {
+			records = swapPending();
+			sequence = appended;
+		}
+
+		writeRecords(records, sequence);
+	}
+
+	/**
+	 * Helper method that replaces the pending records with the
+	 * spare buffer, or a new one if the last write failed. The
+	 * caller holds the commit lock and the lock of this object.
+	 *
+	 * @return the pending records, or null if there are none
+	 */
+	private ByteBuffer swapPending() {
+
+		if (pending.position() == 0)
+			return null;
+
+		ByteBuffer records = pending;
+		pending = (spare != null) ? spare : ByteBuffer.allocate(records.capacity());
+		spare = null;
+		return records;
+	}
+
+	/**
+	 * Helper method that writes swapped out records to the
+	 * current segment, forces them to the disk and keeps their
+	 * buffer as the spare one. If the write fails the journal is
+	 * stopped, so durable never covers records that were lost.
+	 * The caller holds the commit lock.
+	 *
+	 * @param records : records swapped out, or null if there are none
+	 * @param sequence : sequence number of the last of the records
+	 */
+	private void writeRecords(ByteBuffer records, long sequence) throws IOException {
+
+		if (failure != null)
+			throw new IOException("Journal failed", failure);
+		if (records == null)
+			return;
+
+		try {
+			records.flip();
+			while (records.hasRemaining())
+				segment.write(records);
+			segment.force(false);
+		}
+		catch (IOException e) {
+			failure = e;
+			throw e;
+		}
+
+		records.clear();
+		spare = records;
+		durable = sequence;
+	}
+
+	/**
+	 * Helper method that closes the current segment and starts
+	 * the next one. If that fails the journal is stopped.
+	 * The caller holds the commit lock.
+	 *
+	 * @return number of the new segment
+	 */
+	private long roll() throws IOException {
+		try {
+			segment.close();
+			segment = openSegment(++segmentNumber);
+		}
+		catch (IOException e) {
+			failure = e;
+			throw e;
+		}
+		return segmentNumber;
+	}
+
+	/**
+	 * Helper method that writes every key/value pair of the
+	 * snapshot as a checkpoint covering the segments before the
+	 * provided one, then deletes the files it replaces. The
+	 * checkpoint is written to a temporary file and moved in
+	 * place, so a partial checkpoint is never recovered. The
+	 * caller holds the checkpoint lock.
+	 *
+	 * @param snapshot : read-only copy of the table
+	 * @param covered : number of the first segment not covered
+	 */
+	private void writeCheckpoint(HashTable<K, V> snapshot, long covered) throws IOException {
+
+		Path file = checkpointFile(covered);
+		Path temporary = directory.resolve(file.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+			for (K key : snapshot) {
+				buffer = encode(buffer, PUT, keyCodec.encode(key), valueCodec.encode(snapshot.get(key)));
+				if (buffer.position() >= (1 << 16)) {
+					buffer.flip();
+					while (buffer.hasRemaining())
+						channel.write(buffer);
+					buffer.clear();
+				}
+			}
+
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(true);
+		}
+
+		Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+		for (Path path : journalFiles()) {
+			if (number(path) < covered)
+				Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Helper method that rebuilds the table from the last
+	 * checkpoint and the segments after it. The files are read
+	 * and decoded in parallel, then applied in order.
+	 *
+	 * @return number of the segment to continue the journal in
+	 */
+	private long recover() throws IOException {
+
+		List<Path> files = journalFiles();
+		long checkpoint = -1;
+		long last = -1;
+
+		for (Path path : files) {
+			if (isCheckpoint(path))
+				checkpoint = Math.max(checkpoint, number(path));
+			else
+				last = Math.max(last, number(path));
+		}
+
+		final long first = checkpoint;
+		List<Path> replay = new ArrayList<Path>();
+		if (first >= 0)
+			replay.add(checkpointFile(first));
+		for (Path path : files) {
+			if (!isCheckpoint(path) && number(path) >= first)
+				replay.add(path);
+		}
+
+		List<List<Record<K, V>>> decoded;
+		try {
+			decoded = replay.parallelStream().map(path -> {
+				try {
+					return decode(Files.readAllBytes(path));
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).collect(Collectors.toList());
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		for (List<Record<K, V>> records : decoded) {
+			for (Record<K, V> record : records) {
+				if (record.value != null)
+					table.put(record.key, record.value);
+				else if (table.containsKey(record.key))
+					table.remove(record.key);
+			}
+		}
+
+		for (Path path : files) {
+			if (number(path) < first || (isCheckpoint(path) && number(path) != first))
+				Files.deleteIfExists(path);
+		}
+
+		//A new segment is always started so nothing is appended after a partial record
+		return Math.max(last + 1, Math.max(first, 0));
+	}
+
+	/**
+	 * Helper method that decodes the records of a journal file.
+	 * Decoding stops at the first record that is incomplete or
+	 * whose checksum does not match.
+	 *
+	 * @param bytes : contents of the file
+	 * @return records in the order they were written
+	 */
+	private List<Record<K, V>> decode(byte[] bytes) {
+
+		List<Record<K, V>> records = new ArrayList<Record<K, V>>();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		CRC32 crc = new CRC32();
+
+		while (buffer.remaining() >= RECORD_HEADER) {
+			int start = buffer.position();
+			int length = buffer.getInt(start);
+
+			if (length < 5 || length > buffer.remaining() - RECORD_HEADER)
+				break;
+
+			crc.reset();
+			crc.update(bytes, start + RECORD_HEADER, length);
+			if ((int) crc.getValue() != buffer.getInt(start + 4))
+				break;
+
+			int body = start + RECORD_HEADER;
+			byte op = bytes[body];
+			int keyLength = buffer.getInt(body + 1);
+
+			if (keyLength < 0 || keyLength > length - 5)
+				break;
+
+			K key = keyCodec.decode(bytes, body + 5, keyLength);
+			V value = (op == PUT)
+					? valueCodec.decode(bytes, body + 5 + keyLength, length - 5 - keyLength)
+					: null;
+
+			records.add(new Record<K, V>(key, value));
+			buffer.position(body + length);
+		}
+
+		return records;
+	}
+
+	/**
+	 * Helper method that lists the segments and checkpoints
+	 * in the directory.
+	 *
+	 * @return journal files in no particular order
+	 */
+	private List<Path> journalFiles() throws IOException {
+
+		List<Path> files = new ArrayList<Path>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				if ((name.startsWith("segment-") && name.endsWith(".log"))
+						|| (name.startsWith("checkpoint-") && name.endsWith(".dat")))
+					files.add(path);
+			}
+		}
+
+		Path[] sorted = files.toArray(new Path[files.size()]);
+		Arrays.sort(sorted);
+		return Arrays.asList(sorted);
+	}
+
+	private boolean isCheckpoint(Path path) {
+		return path.getFileName().toString().startsWith("checkpoint-");
+	}
+
+	/**
+	 * Helper method that returns the number in the name
+	 * of a journal file.
+	 */
+	private long number(Path path) {
+		String name = path.getFileName().toString();
+		return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+	}
+
+	private Path checkpointFile(long number) {
+		return directory.resolve(String.format("checkpoint-%016d.dat", number));
+	}
+
+	/**
+	 * Helper method that opens the segment with the provided
+	 * number for appending. Tests override it to make the
+	 * journal fail.
+	 */
+	FileChannel openSegment(long number) throws IOException {
+		return FileChannel.open(directory.resolve(String.format("segment-%016d.log", number)),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Method that returns a string representation of the table.
+	 */
+	@Override
+	public synchronized String toString() {
+		return table.toString();
+	}
+}
@@ -0,0 +1,316 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for JournaledHashTable
+ * @author Arjun Passi
+ *
+ */
+public class JournaledHashTableTest {
+
+	/**
+	 * Codec storing strings as UTF-8.
+	 */
+	private static class StringCodec implements Codec<String> {
+
+		public byte[] encode(String object){
+			return object.getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String decode(byte[] bytes, int offset, int length){
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * FailingChannel is a nested class that passes every call to
+	 * a FileChannel, except for the writes that are made to fail.
+	 */
+	private class FailingChannel extends FileChannel {
+
+		/** Reference to the channel the calls are passed to */
+		private final FileChannel mChannel;
+
+		private FailingChannel(FileChannel channel){
+			mChannel = channel;
+		}
+
+		public int write(ByteBuffer src) throws IOException{
+			if(mFailedWrites > 0){
+				mFailedWrites--;
+				throw new IOException("Injected write failure");
+			}
+			return mChannel.write(src);
+		}
+
+		public int read(ByteBuffer dst) throws IOException{
+			return mChannel.read(dst);
+		}
+
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException{
+			return mChannel.read(dsts, offset, length);
+		}
+
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException{
+			return mChannel.write(srcs, offset, length);
+		}
+
+		public long position() throws IOException{
+			return mChannel.position();
+		}
+
+		public FileChannel position(long newPosition) throws IOException{
+			mChannel.position(newPosition);
+			return this;
+		}
+
+		public long size() throws IOException{
+			return mChannel.size();
+		}
+
+		public FileChannel truncate(long size) throws IOException{
+			mChannel.truncate(size);
+			return this;
+		}
+
+		public void force(boolean metaData) throws IOException{
+			mChannel.force(metaData);
+		}
+
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException{
+			return mChannel.transferTo(position, count, target);
+		}
+
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException{
+			return mChannel.transferFrom(src, position, count);
+		}
+
+		public int read(ByteBuffer dst, long position) throws IOException{
+			return mChannel.read(dst, position);
+		}
+
+		public int write(ByteBuffer src, long position) throws IOException{
+			return mChannel.write(src, position);
+		}
+
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException{
+			return mChannel.map(mode, position, size);
+		}
+
+		public FileLock lock(long position, long size, boolean shared) throws IOException{
+			return mChannel.lock(position, size, shared);
+		}
+
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException{
+			return mChannel.tryLock(position, size, shared);
+		}
+
+		protected void implCloseChannel() throws IOException{
+			mChannel.close();
+		}
+	}
+
+	/** Reference to the number of segment writes left to fail */
+	private int mFailedWrites;
+
+	/** Reference to the directory holding the journal */
+	private Path mDirectory;
+
+	/** Reference to the table on which testing will be performed*/
+	private JournaledHashTable<String, String> mTestTable;
+
+	@Before
+	public void setUp() throws IOException{
+		mDirectory = Files.createTempDirectory("JournaledHashTableTest");
+		mTestTable = open(512);
+	}
+
+	@After
+	public void tearDown() throws IOException{
+		mTestTable.close();
+		for(Path path : files())
+			Files.delete(path);
+		Files.delete(mDirectory);
+	}
+
+	/**
+	 * Test method for {@link JournaledHashTable#put(Object, Object)}
+	 * and {@link JournaledHashTable#remove(Object)} across a reopen
+	 */
+	@Test
+	public void testRecover() throws IOException{
+		for(int i = 0; i < 1000; i++)
+			mTestTable.put("key" + i, "value" + i);
+		for(int i = 0; i < 1000; i += 2)
+			assertEquals(mTestTable.remove("key" + i), "value" + i);
+		mTestTable.put("key1", "changed");
+
+		mTestTable.close();
+		mTestTable = open(512);
+
+		assertEquals(mTestTable.size(), 500);
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestTable.containsKey("key" + i), i % 2 == 1);
+		assertEquals(mTestTable.get("key1"), "changed");
+		assertEquals(mTestTable.get("key3"), "value3");
+	}
+
+	/**
+	 * Test method for {@link JournaledHashTable#checkpoint()}
+	 */
+	@Test
+	public void testCheckpoint() throws IOException{
+		for(int i = 0; i < 5000; i++)
+			mTestTable.put("key" + (i % 300), "value" + i);
+
+		//Old segments were compacted into a checkpoint
+		assertTrue(files().size() < 10);
+
+		mTestTable.checkpoint();
+		mTestTable.put("last", "value");
+		mTestTable.close();
+		mTestTable = open(512);
+
+		assertEquals(mTestTable.size(), 301);
+		for(int i = 4700; i < 5000; i++)
+			assertEquals(mTestTable.get("key" + (i % 300)), "value" + i);
+		assertEquals(mTestTable.get("last"), "value");
+	}
+
+	/**
+	 * A record that was only partly written is ignored
+	 */
+	@Test
+	public void testPartialRecord() throws IOException{
+		mTestTable.put("a", "1");
+		mTestTable.put("b", "2");
+		mTestTable.close();
+
+		Path last = null;
+		for(Path path : files())
+			if(path.getFileName().toString().startsWith("segment-"))
+				last = path;
+		Files.write(last, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+		mTestTable = open(512);
+		assertEquals(mTestTable.size(), 2);
+		mTestTable.put("c", "3");
+		mTestTable.close();
+
+		mTestTable = open(512);
+		assertEquals(mTestTable.size(), 3);
+		assertEquals(mTestTable.get("c"), "3");
+	}
+
+	/**
+	 * Concurrent writers are committed together
+	 */
+	@Test
+	public void testConcurrentWriters() throws Exception{
+		Thread[] writers = new Thread[4];
+		for(int t = 0; t < writers.length; t++){
+			final int id = t;
+			writers[t] = new Thread(new Runnable(){
+				public void run(){
+					for(int i = 0; i < 250; i++)
+						mTestTable.put(id + ":" + i, "value" + i);
+				}
+			});
+			writers[t].start();
+		}
+		for(Thread writer : writers)
+			writer.join();
+
+		mTestTable.close();
+		mTestTable = open(512);
+
+		assertEquals(mTestTable.size(), 1000);
+		for(int t = 0; t < writers.length; t++)
+			for(int i = 0; i < 250; i++)
+				assertEquals(mTestTable.get(t + ":" + i), "value" + i);
+	}
+
+	/**
+	 * A failed write stops the journal and is never reported
+	 * as durable
+	 */
+	@Test
+	public void testFailedWrite() throws IOException{
+		mTestTable.close();
+		mTestTable = new JournaledHashTable<String, String>(mDirectory, new StringCodec(), new StringCodec(), 512){
+			@Override
+			FileChannel openSegment(long number) throws IOException{
+				return new FailingChannel(super.openSegment(number));
+			}
+		};
+
+		mTestTable.put("a", "1");
+
+		mFailedWrites = 1;
+		try{
+			mTestTable.put("b", "2");
+			fail("Failed write must be reported");
+		} catch(UncheckedIOException e){
+		}
+
+		//The journal stays stopped even though the channel works again
+		assertEquals(mFailedWrites, 0);
+		try{
+			mTestTable.put("c", "3");
+			fail("Stopped journal must reject mutations");
+		} catch(UncheckedIOException e){
+		}
+		try{
+			mTestTable.remove("a");
+			fail("Stopped journal must reject mutations");
+		} catch(UncheckedIOException e){
+		}
+		try{
+			mTestTable.checkpoint();
+			fail("Stopped journal must not checkpoint");
+		} catch(UncheckedIOException e){
+		}
+
+		mTestTable.close();
+		mTestTable = open(512);
+
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get("a"), "1");
+		assertFalse(mTestTable.containsKey("b"));
+		assertFalse(mTestTable.containsKey("c"));
+	}
+
+	private JournaledHashTable<String, String> open(long segmentBytes) throws IOException{
+		return new JournaledHashTable<String, String>(mDirectory, new StringCodec(), new StringCodec(), segmentBytes);
+	}
+
+	private List<Path> files() throws IOException{
+		List<Path> files = new ArrayList<Path>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory)){
+			for(Path path : stream)
+				files.add(path);
+		}
+		return files;
+	}
+}
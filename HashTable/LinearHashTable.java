@@ -0,0 +1,615 @@
+package HashTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a Hash Table whose buckets are stored in
+ * fixed size pages of a file, so it can hold more key/value pairs
+ * than fit in memory. Only a bounded number of pages are cached
+ * in memory; the least recently used page is written back to the
+ * file when the cache is full.
+ *
+ * The table grows by linear hashing: whenever the pages get too
+ * full the next bucket in turn is split in two, so the table never
+ * has to be rehashed as a whole. A bucket whose page is full links
+ * to overflow pages.
+ *
+ * Keys and values are turned into bytes by the provided codecs.
+ * The file is scratch space for this table only; its contents can
+ * not be reopened once the table is closed.
+ *
+ * This is not a thread safe implementation.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class LinearHashTable<K, V> implements Closeable {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Page is a nested class holding the bytes of one page of
+	 * the file while it is in the cache.
+	 *
+	 * Layout: record count (int), bytes used (int), next page of
+	 * the bucket (long, -1 if none), then the records. A record is
+	 * the hash of its key (int), key length (int), value length
+	 * (int), the key bytes and the value bytes.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Page {
+
+		/** Reference to the number of the page in the file */
+		private final long id;
+
+		/** Reference to the bytes of the page */
+		private final byte[] data;
+
+		/** Reference to a buffer over the bytes of the page */
+		private final ByteBuffer buffer;
+
+		/** Reference to the flag set when the page differs from the file */
+		private boolean dirty;
+
+		/**
+		 * Constructs a new page.
+		 *
+		 * @param id : number of the page in the file
+		 */
+		private Page(long id) {
+			this.id = id;
+			this.data = new byte[PAGE_SIZE];
+			this.buffer = ByteBuffer.wrap(data);
+		}
+
+		private int count() {
+			return buffer.getInt(0);
+		}
+
+		private int used() {
+			return buffer.getInt(4);
+		}
+
+		private long next() {
+			return buffer.getLong(8);
+		}
+
+		/**
+		 * Method that empties the page.
+		 */
+		private void clear() {
+			buffer.putInt(0, 0);
+			buffer.putInt(4, HEADER_SIZE);
+			buffer.putLong(8, -1);
+			dirty = true;
+		}
+
+		private void setNext(long next) {
+			buffer.putLong(8, next);
+			dirty = true;
+		}
+
+		/**
+		 * Method to find the record of a key in the page.
+		 *
+		 * @param hash : hash of the key
+		 * @param key : bytes of the key
+		 * @return position of the record, or -1
+		 */
+		private int find(int hash, byte[] key) {
+			int used = used();
+			for (int pos = HEADER_SIZE; pos < used; pos += recordLength(pos)) {
+				if (buffer.getInt(pos) == hash && buffer.getInt(pos + 4) == key.length
+						&& Arrays.mismatch(data, pos + RECORD_HEADER, pos + RECORD_HEADER + key.length,
+								key, 0, key.length) < 0)
+					return pos;
+			}
+			return -1;
+		}
+
+		/**
+		 * Method that returns the length of the record at pos.
+		 */
+		private int recordLength(int pos) {
+			return RECORD_HEADER + buffer.getInt(pos + 4) + buffer.getInt(pos + 8);
+		}
+
+		/**
+		 * Method that appends a record if the page has room.
+		 *
+		 * @return true if the record was added otherwise false
+		 */
+		private boolean append(int hash, byte[] key, byte[] value) {
+			int used = used();
+			int length = RECORD_HEADER + key.length + value.length;
+
+			if (used + length > PAGE_SIZE)
+				return false;
+
+			buffer.putInt(used, hash);
+			buffer.putInt(used + 4, key.length);
+			buffer.putInt(used + 8, value.length);
+			System.arraycopy(key, 0, data, used + RECORD_HEADER, key.length);
+			System.arraycopy(value, 0, data, used + RECORD_HEADER + key.length, value.length);
+
+			buffer.putInt(0, count() + 1);
+			buffer.putInt(4, used + length);
+			dirty = true;
+			return true;
+		}
+
+		/**
+		 * Method that deletes the record at pos.
+		 */
+		private void delete(int pos) {
+			int used = used();
+			int length = recordLength(pos);
+
+			System.arraycopy(data, pos + length, data, pos, used - pos - length);
+			buffer.putInt(0, count() - 1);
+			buffer.putInt(4, used - length);
+			dirty = true;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the size of a page in bytes */
+	private static final int PAGE_SIZE = 4096;
+
+	/** Reference to the size of the page header in bytes */
+	private static final int HEADER_SIZE = 16;
+
+	/** Reference to the size of the record header in bytes */
+	private static final int RECORD_HEADER = 12;
+
+	/** Reference to the number of buckets the table starts with */
+	private static final int INITIAL_BUCKETS = 4;
+
+	/** Reference to the load factor. A bucket is split when the records
+	 * fill more than this fraction of the bucket pages
+	 */
+	private float loadFactor = 0.75f;
+
+	/** Reference to the channel of the file holding the pages */
+	private final FileChannel channel;
+
+	/** Reference to the encoder of the keys */
+	private final Codec<K> keyCodec;
+
+	/** Reference to the encoder of the values */
+	private final Codec<V> valueCodec;
+
+	/** Reference to the cached pages in least recently used order */
+	private final LinkedHashMap<Long, Page> cache;
+
+	/** Reference to the first page of every bucket */
+	private long [] bucketPages;
+
+	/** Reference to the number of buckets */
+	private int buckets;
+
+	/** Reference to the number of doublings of the initial buckets */
+	private int level;
+
+	/** Reference to the next bucket to split */
+	private int split;
+
+	/** Reference to the number of pages in the file */
+	private long pageCount;
+
+	/** Reference to the pages that were freed and can be reused */
+	private long [] freePages;
+
+	/** Reference to the number of free pages */
+	private int freeCount;
+
+	/** Reference to the number of record bytes stored in the table */
+	private long usedBytes;
+
+	/** Reference to the number of key/value pairs stored in the table */
+	private int currentItems;
+
+	/**
+	 * Constructs a table whose pages are stored in the provided
+	 * file. The file is created or truncated.
+	 *
+	 * Throws an IllegalArgumentException if a codec is null or
+	 * fewer than two pages may be cached.
+	 *
+	 * @param file : file holding the pages
+	 * @param keyCodec : encoder of the keys
+	 * @param valueCodec : encoder of the values
+	 * @param cachedPages : maximum number of pages kept in memory
+	 * @throws IOException if the file can not be opened
+	 */
+	public LinearHashTable(Path file, Codec<K> keyCodec, Codec<V> valueCodec,
+			final int cachedPages) throws IOException {
+
+		if (keyCodec == null || valueCodec == null)
+			throw new IllegalArgumentException("Codec is null");
+		if (cachedPages < 2)
+			throw new IllegalArgumentException("At least two pages must be cached");
+
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		this.cache = new LinkedHashMap<Long, Page>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Page> eldest) {
+				if (size() <= cachedPages)
+					return false;
+				write(eldest.getValue());
+				return true;
+			}
+		};
+
+		bucketPages = new long[INITIAL_BUCKETS];
+		freePages = new long[16];
+		for (int i = 0; i < INITIAL_BUCKETS; i++)
+			bucketPages[i] = allocatePage().id;
+		buckets = INITIAL_BUCKETS;
+	}
+
+	/**
+	 * Method to inserts key/value pair in the table. An existing
+	 * mapping for the key is replaced.
+	 *
+	 * Throws an IllegalArgumentExcpetion if the key or value
+	 * is null or the pair does not fit in a page.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+		if (value == null)
+			throw new IllegalArgumentException("Value is null");
+
+		byte[] keyBytes = keyCodec.encode(key);
+		byte[] valueBytes = valueCodec.encode(value);
+		int length = RECORD_HEADER + keyBytes.length + valueBytes.length;
+
+		if (length > PAGE_SIZE - HEADER_SIZE)
+			throw new IllegalArgumentException("Key/value pair does not fit in a page");
+
+		int hash = Probing.hash(key);
+		long first = bucketPages[bucket(hash)];
+
+		if (delete(first, hash, keyBytes))
+			currentItems--;
+
+		insert(first, hash, keyBytes, valueBytes);
+		currentItems++;
+		usedBytes += length;
+
+		if (usedBytes > loadFactor * buckets * (PAGE_SIZE - HEADER_SIZE))
+			splitBucket();
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key maps to.
+	 */
+	public V get(K key) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		byte[] keyBytes = keyCodec.encode(key);
+		int hash = Probing.hash(key);
+
+		for (long id = bucketPages[bucket(hash)]; id >= 0; ) {
+			Page page = page(id);
+			int pos = page.find(hash, keyBytes);
+
+			if (pos >= 0) {
+				int valueLength = page.buffer.getInt(pos + 8);
+				return valueCodec.decode(page.data, pos + RECORD_HEADER + keyBytes.length, valueLength);
+			}
+
+			id = page.next();
+		}
+
+		throw new NoSuchElementException("Key doesn't map to any value.");
+	}
+
+	/**
+	 * Method returns true if the provided key is in the table
+	 * otherwise it returns false.
+	 *
+	 * @param key : key to search for in the table
+	 * @return true if the key is in the table otherwise false
+	 */
+	public boolean containsKey(K key) {
+
+		if (key == null)
+			return false;
+
+		byte[] keyBytes = keyCodec.encode(key);
+		int hash = Probing.hash(key);
+
+		for (long id = bucketPages[bucket(hash)]; id >= 0; ) {
+			Page page = page(id);
+			if (page.find(hash, keyBytes) >= 0)
+				return true;
+			id = page.next();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Method to remove a specific key/value pair from the table.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key mapped to
+	 */
+	public V remove(K key) {
+
+		V value = get(key);
+		byte[] keyBytes = keyCodec.encode(key);
+
+		delete(bucketPages[bucket(Probing.hash(key))], Probing.hash(key), keyBytes);
+		currentItems--;
+		return value;
+	}
+
+	/**
+	 * Method to retrieve the number of key/value pairs
+	 * stored in the table.
+	 *
+	 * @return number of key/value pairs
+	 */
+	public int size() {
+		return currentItems;
+	}
+
+	/**
+	 * Method that writes every modified cached page to the file.
+	 */
+	public void flush() {
+		for (Page page : cache.values())
+			write(page);
+	}
+
+	/**
+	 * Method that closes the file of the table. The table can
+	 * not be used afterwards.
+	 *
+	 * @throws IOException if the file can not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		cache.clear();
+		channel.close();
+	}
+
+	/**
+	 * Helper method that returns the bucket of a hash. Buckets
+	 * before the split pointer were already split at this level
+	 * and use one more bit of the hash.
+	 *
+	 * @param hash
+	 * @return bucket of the hash
+	 */
+	private int bucket(int hash) {
+		int bucket = hash % (INITIAL_BUCKETS << level);
+		if (bucket < split)
+			bucket = hash % (INITIAL_BUCKETS << (level + 1));
+		return bucket;
+	}
+
+	/**
+	 * Helper method that deletes the record of a key from
+	 * a bucket.
+	 *
+	 * @param first : first page of the bucket
+	 * @return true if a record was deleted otherwise false
+	 */
+	private boolean delete(long first, int hash, byte[] key) {
+
+		for (long id = first; id >= 0; ) {
+			Page page = page(id);
+			int pos = page.find(hash, key);
+
+			if (pos >= 0) {
+				usedBytes -= page.recordLength(pos);
+				page.delete(pos);
+				return true;
+			}
+
+			id = page.next();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Helper method that adds a record to the first page of the
+	 * bucket with room for it, linking a new page if none has.
+	 *
+	 * @param first : first page of the bucket
+	 */
+	private void insert(long first, int hash, byte[] key, byte[] value) {
+
+		Page page = page(first);
+
+		while (!page.append(hash, key, value)) {
+			if (page.next() < 0) {
+				Page overflow = allocatePage();
+				page(page.id).setNext(overflow.id);
+				page = overflow;
+			}
+			else
+				page = page(page.next());
+		}
+	}
+
+	/**
+	 * Helper method that splits the bucket at the split pointer
+	 * into itself and a new bucket at the end of the table.
+	 */
+	private void splitBucket() {
+
+		int low = split;
+		int high = split + (INITIAL_BUCKETS << level);
+
+		if (high == bucketPages.length)
+			bucketPages = Arrays.copyOf(bucketPages, bucketPages.length * 2);
+
+		//Detach the pages of the bucket, then put their records back
+		long id = bucketPages[low];
+		bucketPages[low] = allocatePage().id;
+		bucketPages[high] = allocatePage().id;
+		buckets++;
+
+		split++;
+		if (split == (INITIAL_BUCKETS << level)) {
+			level++;
+			split = 0;
+		}
+
+		while (id >= 0) {
+			Page page = page(id);
+			byte[] data = page.data.clone();
+			long next = page.next();
+			freePage(page);
+
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			int used = buffer.getInt(4);
+
+			for (int pos = HEADER_SIZE; pos < used; ) {
+				int hash = buffer.getInt(pos);
+				int keyLength = buffer.getInt(pos + 4);
+				int valueLength = buffer.getInt(pos + 8);
+				int start = pos + RECORD_HEADER;
+
+				insert(bucketPages[bucket(hash)], hash,
+						Arrays.copyOfRange(data, start, start + keyLength),
+						Arrays.copyOfRange(data, start + keyLength, start + keyLength + valueLength));
+
+				pos = start + keyLength + valueLength;
+			}
+
+			id = next;
+		}
+	}
+
+	/**
+	 * Helper method that returns a page, reading it from the
+	 * file if it is not cached.
+	 *
+	 * @param id : number of the page
+	 * @return page
+	 */
+	private Page page(long id) {
+
+		Page page = cache.get(id);
+
+		if (page == null) {
+			page = new Page(id);
+			try {
+				page.buffer.clear();
+				while (page.buffer.hasRemaining()) {
+					if (channel.read(page.buffer, id * PAGE_SIZE + page.buffer.position()) < 0)
+						throw new IOException("Page " + id + " is past the end of the file");
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			page.buffer.clear();
+			cache.put(id, page);
+		}
+
+		return page;
+	}
+
+	/**
+	 * Helper method that returns an empty page, reusing a freed
+	 * page if there is one.
+	 *
+	 * @return empty page
+	 */
+	private Page allocatePage() {
+
+		long id = (freeCount > 0) ? freePages[--freeCount] : pageCount++;
+		Page page = cache.get(id);
+
+		if (page == null) {
+			page = new Page(id);
+			cache.put(id, page);
+		}
+
+		page.clear();
+		return page;
+	}
+
+	/**
+	 * Helper method that marks a page as free.
+	 *
+	 * @param page
+	 */
+	private void freePage(Page page) {
+		if (freeCount == freePages.length)
+			freePages = Arrays.copyOf(freePages, freePages.length * 2);
+		freePages[freeCount++] = page.id;
+		page.clear();
+	}
+
+	/**
+	 * Helper method that writes a page to the file if it
+	 * was modified.
+	 *
+	 * @param page
+	 */
+	private void write(Page page) {
+
+		if (!page.dirty)
+			return;
+
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(page.data);
+			while (buffer.hasRemaining())
+				channel.write(buffer, page.id * PAGE_SIZE + buffer.position());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		page.dirty = false;
+	}
+}
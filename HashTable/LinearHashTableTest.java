@@ -0,0 +1,94 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for LinearHashTable
+ * @author Arjun Passi
+ *
+ */
+public class LinearHashTableTest {
+
+	/**
+	 * Codec storing strings as UTF-8.
+	 */
+	private static class StringCodec implements Codec<String> {
+
+		public byte[] encode(String object){
+			return object.getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String decode(byte[] bytes, int offset, int length){
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+		}
+	}
+
+	/** Reference to the file holding the pages */
+	private Path mFile;
+
+	/** Reference to the table on which testing will be performed*/
+	private LinearHashTable<String, String> mTestTable;
+
+	@Before
+	public void setUp() throws IOException{
+		mFile = Files.createTempFile("LinearHashTableTest", ".pages");
+		mTestTable = new LinearHashTable<String, String>(mFile, new StringCodec(), new StringCodec(), 4);
+	}
+
+	@After
+	public void tearDown() throws IOException{
+		mTestTable.close();
+		Files.deleteIfExists(mFile);
+	}
+
+	/**
+	 * Test method for {@link LinearHashTable#put(Object, Object)}
+	 */
+	@Test
+	public void testPut(){
+		mTestTable.put("a", "1");
+		mTestTable.put("a", "2");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get("a"), "2");
+
+		//Far more pages than the cache holds
+		for(int i = 0; i < 20000; i++)
+			mTestTable.put("key" + i, "value" + i);
+
+		assertEquals(mTestTable.size(), 20001);
+		for(int i = 0; i < 20000; i++)
+			assertEquals(mTestTable.get("key" + i), "value" + i);
+	}
+
+	/**
+	 * Test method for {@link LinearHashTable#remove(Object)}
+	 */
+	@Test
+	public void testRemove(){
+		for(int i = 0; i < 5000; i++)
+			mTestTable.put("key" + i, "value" + i);
+
+		for(int i = 0; i < 5000; i += 2)
+			assertEquals(mTestTable.remove("key" + i), "value" + i);
+
+		assertEquals(mTestTable.size(), 2500);
+		for(int i = 0; i < 5000; i++)
+			assertEquals(mTestTable.containsKey("key" + i), i % 2 == 1);
+
+		try{
+			mTestTable.remove("key0");
+			fail("Removed key must not be found");
+		} catch(NoSuchElementException e){
+		}
+	}
+}
@@ -0,0 +1,821 @@
+package HashTable;
+
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements an immutable hash table based on a
+ * hash array mapped trie (HAMT). Every update returns a new
+ * version of the table that shares all untouched nodes with
+ * the previous one, so an update only copies the O(log32 n)
+ * nodes on the path from the root to the changed key.
+ *
+ * Because a version can never change, taking a snapshot is
+ * free and a version can be handed to any number of reader
+ * threads without copying or locking.
+ *
+ * For bulk builds a {@link Transient} view can be obtained
+ * with {@link #asTransient()}. It mutates the nodes it owns in
+ * place and is turned back into an immutable table with
+ * {@link Transient#persistent()}.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class PersistentHashTable<K, V> {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Transient is a mutable view of a PersistentHashTable that
+	 * updates the nodes it has created in place. It is meant to
+	 * be used by a single thread to build a table quickly and
+	 * is discarded by calling {@link #persistent()}.
+	 *
+	 * @author Arjun Passi
+	 *
+	 * @param <K>
+	 * @param <V>
+	 */
+	public static class Transient<K, V> {
+
+		/** Reference to the token marking the nodes owned by this transient */
+		private Object edit;
+
+		/** Reference to the root of the trie */
+		private Node root;
+
+		/** Reference to the number of key/value pairs stored in the table */
+		private int currentItems;
+
+		/** Reference to the flag set by the nodes when an update succeeded */
+		private final Box box;
+
+		/**
+		 * Constructs a new transient view of the provided trie.
+		 *
+		 * @param root : root of the trie
+		 * @param currentItems : number of key/value pairs in the trie
+		 */
+		private Transient(Node root, int currentItems) {
+			this.edit = new Object();
+			this.root = root;
+			this.currentItems = currentItems;
+			this.box = new Box();
+		}
+
+		/**
+		 * Method to insert key/value pair in the table. An existing
+		 * mapping for the key is replaced.
+		 *
+		 * Throws an IllegalArgumentExcpetion if the key or value
+		 * is null.
+		 *
+		 * Throws an IllegalStateException if {@link #persistent()}
+		 * was already called.
+		 *
+		 * @param key
+		 * @param value
+		 */
+		public void put(K key, V value) {
+			ensureEditable();
+			checkKeyValue(key, value);
+
+			box.reset();
+			Node node = (root == null) ? BitmapNode.EMPTY : root;
+			root = node.put(edit, 0, hash(key), key, value, box);
+
+			if (box.added)
+				currentItems++;
+		}
+
+		/**
+		 * Method to remove a specific key/value pair from the table.
+		 *
+		 * Throws an IllegalArgumentException if the key is null.
+		 *
+		 * Throws a NoSuchElementException if the key is not present
+		 * in the table.
+		 *
+		 * Throws an IllegalStateException if {@link #persistent()}
+		 * was already called.
+		 *
+		 * @param key
+		 * @return value the key mapped to.
+		 */
+		@SuppressWarnings("unchecked")
+		public V remove(K key) {
+			ensureEditable();
+			if (key == null)
+				throw new IllegalArgumentException("Key is null");
+
+			box.reset();
+			if (root != null)
+				root = root.remove(edit, 0, hash(key), key, box);
+
+			if (!box.removed)
+				throw new NoSuchElementException("Key doesn't map to any value.");
+
+			currentItems--;
+			return (V) box.value;
+		}
+
+		/**
+		 * Method to find what value does the provided key map to.
+		 *
+		 * Throws an IllegalArgumentException if the key is null.
+		 *
+		 * Throws a NoSuchElementException if the key is not present
+		 * in the table.
+		 *
+		 * @param key
+		 * @return value the key maps to.
+		 */
+		public V get(K key) {
+			ensureEditable();
+			return PersistentHashTable.<V>get(root, key);
+		}
+
+		/**
+		 * Method returns true if the provided key is in the table
+		 * otherwise it returns false.
+		 *
+		 * @param key : key to search for in the table
+		 * @return true if the key is in the table otherwise false
+		 */
+		public boolean containsKey(K key) {
+			ensureEditable();
+			return PersistentHashTable.containsKey(root, key);
+		}
+
+		/**
+		 * Method to retrieve the number of key/value pairs
+		 * in the table.
+		 *
+		 * @return size
+		 */
+		public int size() {
+			ensureEditable();
+			return currentItems;
+		}
+
+		/**
+		 * Method that ends the transient and returns an immutable
+		 * table holding its contents. The transient can not be
+		 * used afterwards.
+		 *
+		 * @return immutable table
+		 */
+		public PersistentHashTable<K, V> persistent() {
+			ensureEditable();
+			edit = null;
+			return new PersistentHashTable<K, V>(root, currentItems);
+		}
+
+		/**
+		 * Helper method that throws an IllegalStateException
+		 * once the transient has been made persistent.
+		 */
+		private void ensureEditable() {
+			if (edit == null)
+				throw new IllegalStateException("Transient used after persistent()");
+		}
+	}
+
+	/**
+	 * Box is a nested class used by the nodes to report
+	 * whether an update added or removed a key/value pair.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Box {
+
+		/** Reference to the flag set when a key/value pair was added */
+		private boolean added;
+
+		/** Reference to the flag set when a key/value pair was removed */
+		private boolean removed;
+
+		/** Reference to the value of the removed key/value pair */
+		private Object value;
+
+		/**
+		 * Clears the box before an update.
+		 */
+		private void reset() {
+			added = false;
+			removed = false;
+			value = null;
+		}
+	}
+
+	/**
+	 * Node is the base class of the trie nodes. Keys and values
+	 * are stored as plain objects; the table casts them back.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static abstract class Node {
+
+		/**
+		 * Method to find the value the key maps to.
+		 *
+		 * @param shift : bits of the hash consumed by the parents
+		 * @param hash : hash of the key
+		 * @param key
+		 * @return value or NOT_FOUND
+		 */
+		abstract Object find(int shift, int hash, Object key);
+
+		/**
+		 * Method to insert or replace a key/value pair.
+		 *
+		 * @param edit : owner token of a transient or null
+		 * @param shift : bits of the hash consumed by the parents
+		 * @param hash : hash of the key
+		 * @param key
+		 * @param value
+		 * @param box : set when a new pair was added
+		 * @return updated node
+		 */
+		abstract Node put(Object edit, int shift, int hash, Object key, Object value, Box box);
+
+		/**
+		 * Method to remove a key/value pair.
+		 *
+		 * @param edit : owner token of a transient or null
+		 * @param shift : bits of the hash consumed by the parents
+		 * @param hash : hash of the key
+		 * @param key
+		 * @param box : set when a pair was removed
+		 * @return updated node or null if it became empty
+		 */
+		abstract Node remove(Object edit, int shift, int hash, Object key, Box box);
+	}
+
+	/**
+	 * BitmapNode is a trie node holding up to 32 children. The
+	 * bitmap tells which of the 32 positions are used, and the
+	 * array stores them compressed as key/value pairs. A pair
+	 * with a null key holds a child node in its value slot.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static final class BitmapNode extends Node {
+
+		/** Reference to the shared empty node */
+		private static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+		/** Reference to the owner token of a transient or null */
+		private final Object edit;
+
+		/** Reference to the bitmap of used positions */
+		private int bitmap;
+
+		/** Reference to the compressed key/value pairs */
+		private Object[] array;
+
+		/**
+		 * Constructs a new BitmapNode.
+		 *
+		 * @param edit : owner token
+		 * @param bitmap : used positions
+		 * @param array : compressed key/value pairs
+		 */
+		private BitmapNode(Object edit, int bitmap, Object[] array) {
+			this.edit = edit;
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = bitpos(hash, shift);
+
+			if ((bitmap & bit) == 0)
+				return NOT_FOUND;
+
+			int idx = index(bit);
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+
+			if (k == null)
+				return ((Node) v).find(shift + BITS, hash, key);
+
+			return key.equals(k) ? v : NOT_FOUND;
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Box box) {
+			int bit = bitpos(hash, shift);
+			int idx = index(bit);
+
+			if ((bitmap & bit) != 0) {
+				Object k = array[2 * idx];
+				Object v = array[2 * idx + 1];
+
+				if (k == null) {
+					Node n = ((Node) v).put(edit, shift + BITS, hash, key, value, box);
+					return (n == v) ? this : editAndSet(edit, 2 * idx + 1, n);
+				}
+
+				if (key.equals(k))
+					return (v == value) ? this : editAndSet(edit, 2 * idx + 1, value);
+
+				box.added = true;
+				Node child = createNode(edit, shift + BITS, k, v, hash, key, value);
+				BitmapNode editable = ensureEditable(edit);
+				editable.array[2 * idx] = null;
+				editable.array[2 * idx + 1] = child;
+				return editable;
+			}
+
+			box.added = true;
+			int n = Integer.bitCount(bitmap);
+
+			//A transient node may have spare room at the end of its array
+			if (edit != null && this.edit == edit && array.length > 2 * n) {
+				System.arraycopy(array, 2 * idx, array, 2 * (idx + 1), 2 * (n - idx));
+				array[2 * idx] = key;
+				array[2 * idx + 1] = value;
+				bitmap |= bit;
+				return this;
+			}
+
+			int spare = (edit == null) ? 0 : 2;
+			Object[] newArray = new Object[2 * (n + 1) + spare];
+			System.arraycopy(array, 0, newArray, 0, 2 * idx);
+			newArray[2 * idx] = key;
+			newArray[2 * idx + 1] = value;
+			System.arraycopy(array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx));
+
+			if (edit != null && this.edit == edit) {
+				array = newArray;
+				bitmap |= bit;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap | bit, newArray);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Box box) {
+			int bit = bitpos(hash, shift);
+
+			if ((bitmap & bit) == 0)
+				return this;
+
+			int idx = index(bit);
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+
+			if (k == null) {
+				Node n = ((Node) v).remove(edit, shift + BITS, hash, key, box);
+				if (n == v)
+					return this;
+				if (n != null)
+					return editAndSet(edit, 2 * idx + 1, n);
+			}
+			else if (key.equals(k)) {
+				box.removed = true;
+				box.value = v;
+			}
+			else
+				return this;
+
+			//The pair at idx is gone, drop it from the node
+			if (bitmap == bit)
+				return null;
+
+			int count = Integer.bitCount(bitmap);
+
+			if (edit != null && this.edit == edit) {
+				System.arraycopy(array, 2 * (idx + 1), array, 2 * idx, 2 * (count - idx - 1));
+				array[2 * count - 2] = null;
+				array[2 * count - 1] = null;
+				bitmap ^= bit;
+				return this;
+			}
+
+			Object[] newArray = new Object[2 * (count - 1)];
+			System.arraycopy(array, 0, newArray, 0, 2 * idx);
+			System.arraycopy(array, 2 * (idx + 1), newArray, 2 * idx, 2 * (count - idx - 1));
+			return new BitmapNode(edit, bitmap ^ bit, newArray);
+		}
+
+		/**
+		 * Helper method to find the position in the compressed
+		 * array of the provided bit.
+		 *
+		 * @param bit
+		 * @return index of the key/value pair
+		 */
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		/**
+		 * Helper method that returns this node if it is owned by
+		 * the provided transient, otherwise a copy owned by it.
+		 *
+		 * @param edit : owner token
+		 * @return node that can be changed in place
+		 */
+		private BitmapNode ensureEditable(Object edit) {
+			if (edit != null && this.edit == edit)
+				return this;
+
+			int n = Integer.bitCount(bitmap);
+			int spare = (edit == null) ? 0 : 2;
+			Object[] newArray = new Object[2 * n + spare];
+			System.arraycopy(array, 0, newArray, 0, 2 * n);
+			return new BitmapNode(edit, bitmap, newArray);
+		}
+
+		/**
+		 * Helper method to set a single slot of the array.
+		 *
+		 * @param edit : owner token
+		 * @param i : slot of the array
+		 * @param a : new content of the slot
+		 * @return updated node
+		 */
+		private BitmapNode editAndSet(Object edit, int i, Object a) {
+			BitmapNode editable = ensureEditable(edit);
+			editable.array[i] = a;
+			return editable;
+		}
+	}
+
+	/**
+	 * CollisionNode stores the key/value pairs whose keys have
+	 * exactly the same hash.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static final class CollisionNode extends Node {
+
+		/** Reference to the owner token of a transient or null */
+		private final Object edit;
+
+		/** Reference to the hash shared by all keys */
+		private final int hash;
+
+		/** Reference to the number of key/value pairs */
+		private int count;
+
+		/** Reference to the key/value pairs */
+		private Object[] array;
+
+		/**
+		 * Constructs a new CollisionNode.
+		 *
+		 * @param edit : owner token
+		 * @param hash : hash shared by all keys
+		 * @param count : number of key/value pairs
+		 * @param array : key/value pairs
+		 */
+		private CollisionNode(Object edit, int hash, int count, Object[] array) {
+			this.edit = edit;
+			this.hash = hash;
+			this.count = count;
+			this.array = array;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int idx = indexOf(key);
+			return (idx < 0) ? NOT_FOUND : array[idx + 1];
+		}
+
+		@Override
+		Node put(Object edit, int shift, int hash, Object key, Object value, Box box) {
+			if (hash != this.hash) {
+				//Push this node one level down next to the new key
+				Object[] pair = {null, this};
+				return new BitmapNode(edit, bitpos(this.hash, shift), pair)
+					.put(edit, shift, hash, key, value, box);
+			}
+
+			int idx = indexOf(key);
+
+			if (idx >= 0) {
+				if (array[idx + 1] == value)
+					return this;
+				CollisionNode editable = ensureEditable(edit, array.length);
+				editable.array[idx + 1] = value;
+				return editable;
+			}
+
+			box.added = true;
+			CollisionNode editable = ensureEditable(edit, 2 * (count + 1));
+			editable.array[2 * count] = key;
+			editable.array[2 * count + 1] = value;
+			editable.count++;
+			return editable;
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object key, Box box) {
+			int idx = indexOf(key);
+
+			if (idx < 0)
+				return this;
+
+			box.removed = true;
+			box.value = array[idx + 1];
+
+			if (count == 1)
+				return null;
+
+			CollisionNode editable = ensureEditable(edit, array.length);
+			Object[] a = editable.array;
+			a[idx] = a[2 * count - 2];
+			a[idx + 1] = a[2 * count - 1];
+			a[2 * count - 2] = null;
+			a[2 * count - 1] = null;
+			editable.count--;
+			return editable;
+		}
+
+		/**
+		 * Helper method to find the slot of the provided key.
+		 *
+		 * @param key
+		 * @return slot of the key or -1
+		 */
+		private int indexOf(Object key) {
+			for (int i = 0; i < 2 * count; i += 2) {
+				if (key.equals(array[i]))
+					return i;
+			}
+			return -1;
+		}
+
+		/**
+		 * Helper method that returns this node if it is owned by
+		 * the provided transient, otherwise a copy owned by it.
+		 * The array is grown to hold at least the provided length.
+		 *
+		 * @param edit : owner token
+		 * @param length : minimum length of the array
+		 * @return node that can be changed in place
+		 */
+		private CollisionNode ensureEditable(Object edit, int length) {
+			if (edit != null && this.edit == edit) {
+				if (array.length < length) {
+					Object[] newArray = new Object[Math.max(length, 2 * array.length)];
+					System.arraycopy(array, 0, newArray, 0, 2 * count);
+					array = newArray;
+				}
+				return this;
+			}
+
+			Object[] newArray = new Object[Math.max(length, 2 * count)];
+			System.arraycopy(array, 0, newArray, 0, 2 * count);
+			return new CollisionNode(edit, hash, count, newArray);
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the number of hash bits consumed per level */
+	private static final int BITS = 5;
+
+	/** Reference to the marker returned when a key is not present */
+	private static final Object NOT_FOUND = new Object();
+
+	/** Reference to the shared empty table */
+	@SuppressWarnings("rawtypes")
+	private static final PersistentHashTable EMPTY = new PersistentHashTable(null, 0);
+
+	/** Reference to the root of the trie, null if the table is empty */
+	private final Node root;
+
+	/** Reference to the number of key/value pairs stored in the table */
+	private final int currentItems;
+
+	/**
+	 * Constructs a new version of the table.
+	 *
+	 * @param root : root of the trie
+	 * @param currentItems : number of key/value pairs in the trie
+	 */
+	private PersistentHashTable(Node root, int currentItems) {
+		this.root = root;
+		this.currentItems = currentItems;
+	}
+
+	/**
+	 * Method that returns the empty table.
+	 *
+	 * @return empty table
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashTable<K, V> empty() {
+		return (PersistentHashTable<K, V>) EMPTY;
+	}
+
+	/**
+	 * Method that returns a new version of the table with the
+	 * key/value pair inserted. An existing mapping for the key
+	 * is replaced. This table is left unchanged.
+	 *
+	 * Throws an IllegalArgumentExcpetion if the key or value
+	 * is null.
+	 *
+	 * @param key
+	 * @param value
+	 * @return new version of the table
+	 */
+	public PersistentHashTable<K, V> put(K key, V value) {
+		checkKeyValue(key, value);
+
+		Box box = new Box();
+		Node node = (root == null) ? BitmapNode.EMPTY : root;
+		Node newRoot = node.put(null, 0, hash(key), key, value, box);
+
+		if (newRoot == root)
+			return this;
+
+		return new PersistentHashTable<K, V>(newRoot, box.added ? currentItems + 1 : currentItems);
+	}
+
+	/**
+	 * Method that returns a new version of the table without
+	 * the provided key. This table is left unchanged.
+	 *
+	 * Throws an IllegalArgumentException if the key is null.
+	 *
+	 * Throws a NoSuchElementException if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return new version of the table
+	 */
+	public PersistentHashTable<K, V> remove(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		Box box = new Box();
+		Node newRoot = (root == null) ? null : root.remove(null, 0, hash(key), key, box);
+
+		if (!box.removed)
+			throw new NoSuchElementException("Key doesn't map to any value.");
+
+		return new PersistentHashTable<K, V>(newRoot, currentItems - 1);
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an IllegalArgumentException if the key is null.
+	 *
+	 * Throws a NoSuchElementException if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key maps to.
+	 */
+	public V get(K key) {
+		return PersistentHashTable.<V>get(root, key);
+	}
+
+	/**
+	 * Method returns true if the provided key is in the table
+	 * otherwise it returns false.
+	 *
+	 * @param key : key to search for in the table
+	 * @return true if the key is in the table otherwise false
+	 */
+	public boolean containsKey(K key) {
+		return containsKey(root, key);
+	}
+
+	/**
+	 * Method to retrieve the number of key/value pairs
+	 * in the table.
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return currentItems;
+	}
+
+	/**
+	 * Method that returns a snapshot of the table. Since the
+	 * table is immutable this is the table itself.
+	 *
+	 * @return snapshot of the table
+	 */
+	public PersistentHashTable<K, V> snapshot() {
+		return this;
+	}
+
+	/**
+	 * Method that returns a mutable view of this table for bulk
+	 * updates. This table is left unchanged.
+	 *
+	 * @return transient view of the table
+	 */
+	public Transient<K, V> asTransient() {
+		return new Transient<K, V>(root, currentItems);
+	}
+
+	/**
+	 * Helper method to look up a key in the provided trie.
+	 *
+	 * @param root : root of the trie
+	 * @param key
+	 * @return value the key maps to
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> V get(Node root, Object key) {
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		Object value = (root == null) ? NOT_FOUND : root.find(0, hash(key), key);
+
+		if (value == NOT_FOUND)
+			throw new NoSuchElementException("Key doesn't map to any value.");
+
+		return (V) value;
+	}
+
+	/**
+	 * Helper method to find out whether the provided trie
+	 * contains the key.
+	 *
+	 * @param root : root of the trie
+	 * @param key
+	 * @return true if the key is in the trie otherwise false
+	 */
+	private static boolean containsKey(Node root, Object key) {
+		if (key == null || root == null)
+			return false;
+
+		return root.find(0, hash(key), key) != NOT_FOUND;
+	}
+
+	/**
+	 * Helper method that throws an IllegalArgumentException
+	 * if the key or value is null.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	private static void checkKeyValue(Object key, Object value) {
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+		if (value == null)
+			throw new IllegalArgumentException("Value is null");
+	}
+
+	/**
+	 * Helper method that spreads the hash code of the key so
+	 * the high bits take part in the first levels of the trie.
+	 *
+	 * @param key
+	 * @return hash of the key
+	 */
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Helper method that returns the bit of the hash chunk
+	 * used at the provided level.
+	 *
+	 * @param hash
+	 * @param shift : bits of the hash consumed by the parents
+	 * @return bit in the bitmap
+	 */
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & 0x1f);
+	}
+
+	/**
+	 * Helper method to create a node holding two key/value
+	 * pairs that collided at the previous level.
+	 *
+	 * @param edit : owner token
+	 * @param shift : bits of the hash consumed by the parents
+	 * @return new node
+	 */
+	private static Node createNode(Object edit, int shift, Object key1, Object value1,
+			int hash2, Object key2, Object value2) {
+		int hash1 = hash(key1);
+
+		if (hash1 == hash2)
+			return new CollisionNode(edit, hash1, 2, new Object[] {key1, value1, key2, value2});
+
+		Box box = new Box();
+		return BitmapNode.EMPTY
+			.put(edit, shift, hash1, key1, value1, box)
+			.put(edit, shift, hash2, key2, value2, box);
+	}
+}
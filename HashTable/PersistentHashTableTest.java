@@ -0,0 +1,105 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for PersistentHashTable
+ * @author Arjun Passi
+ *
+ */
+public class PersistentHashTableTest {
+
+	/** Reference to the table on which testing will be performed*/
+	private PersistentHashTable<Integer, String> mTestTable;
+
+	@Before
+	public void setUp(){
+		mTestTable = PersistentHashTable.empty();
+	}
+
+	/**
+	 * Test method for {@link PersistentHashTable#put(Object, Object)}
+	 */
+	@Test
+	public void testPut(){
+		PersistentHashTable<Integer, String> table = mTestTable.put(1, "one");
+
+		assertEquals(mTestTable.size(), 0);
+		assertFalse(mTestTable.containsKey(1));
+		assertEquals(table.size(), 1);
+		assertEquals(table.get(1), "one");
+
+		PersistentHashTable<Integer, String> replaced = table.put(1, "uno");
+		assertEquals(replaced.size(), 1);
+		assertEquals(replaced.get(1), "uno");
+		assertEquals(table.get(1), "one");
+
+		for(int i = 0; i < 5000; i++)
+			table = table.put(i, Integer.toString(i));
+
+		assertEquals(table.size(), 5000);
+		for(int i = 0; i < 5000; i++)
+			assertEquals(table.get(i), Integer.toString(i));
+	}
+
+	/**
+	 * Test method for {@link PersistentHashTable#remove(Object)}
+	 */
+	@Test
+	public void testRemove(){
+		PersistentHashTable<Integer, String> table = mTestTable;
+		for(int i = 0; i < 1000; i++)
+			table = table.put(i, Integer.toString(i));
+
+		PersistentHashTable<Integer, String> removed = table;
+		for(int i = 0; i < 1000; i += 2)
+			removed = removed.remove(i);
+
+		assertEquals(removed.size(), 500);
+		assertEquals(table.size(), 1000);
+
+		for(int i = 0; i < 1000; i++){
+			assertEquals(removed.containsKey(i), i % 2 == 1);
+			assertTrue(table.containsKey(i));
+		}
+	}
+
+	/**
+	 * Test method for {@link PersistentHashTable#get(Object)}
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testGetMissing(){
+		mTestTable.put(1, "one").get(2);
+	}
+
+	/**
+	 * Test method for {@link PersistentHashTable#asTransient()}
+	 */
+	@Test
+	public void testTransient(){
+		PersistentHashTable<Integer, String> base = mTestTable.put(-1, "minus one");
+		PersistentHashTable.Transient<Integer, String> builder = base.asTransient();
+
+		for(int i = 0; i < 2000; i++)
+			builder.put(i, Integer.toString(i));
+		assertEquals(builder.remove(-1), "minus one");
+
+		PersistentHashTable<Integer, String> table = builder.persistent();
+
+		assertEquals(table.size(), 2000);
+		assertEquals(base.size(), 1);
+		assertEquals(base.get(-1), "minus one");
+		assertFalse(table.containsKey(-1));
+
+		try{
+			builder.put(1, "one");
+			fail("Transient must not be usable after persistent()");
+		} catch(IllegalStateException e){
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package HashTable;
+
+/**
+ * This enum lists the probe sequences a hash table can use to
+ * find a free slot when the slot of a key is taken.
+ *
+ * Every strategy is described by two numbers: the stride of the
+ * first step and how much the stride grows on each step. The
+ * tables read them once per operation and run the same probe
+ * loop for all strategies, so choosing a strategy adds no call
+ * to the loop itself.
+ *
+ * The table sizes are prime, so linear probing and double
+ * hashing visit every slot. Quadratic probing visits about
+ * half of them before repeating.
+ *
+ * @author Arjun Passi
+ *
+ */
+public enum ProbeStrategy {
+
+	/** Probes hash, hash + 1, hash + 2, ... Neighbouring slots share
+	 * cache lines, which makes it fast for well spread keys. */
+	LINEAR(0),
+
+	/** Probes hash, hash + 1, hash + 3, hash + 6, ... (triangular
+	 * numbers). This is the sequence HashTable always used. */
+	QUADRATIC(1),
+
+	/** Probes with a fixed stride derived from the hash, so keys
+	 * with the same first slot follow different sequences. */
+	DOUBLE_HASHING(0);
+
+	/** Reference to the amount the stride grows on each step */
+	final int growth;
+
+	/**
+	 * Constructs a strategy.
+	 *
+	 * @param growth : amount the stride grows on each step
+	 */
+	private ProbeStrategy(int growth) {
+		this.growth = growth;
+	}
+
+	/**
+	 * Method that returns the stride of the first step of the
+	 * probe sequence of a hash.
+	 *
+	 * @param hash : non-negative hash of the key
+	 * @param size : size of the table, a prime
+	 * @return stride of the first step
+	 */
+	int stride(int hash, int size) {
+		if (this != DOUBLE_HASHING)
+			return 1;
+
+		//The quotient is independent of the first slot, hash % size
+		return 1 + (hash / size) % (size - 2);
+	}
+}
@@ -0,0 +1,164 @@
+package HashTable;
+
+/**
+ * This class holds the probing and resizing logic
+ * shared by the hash tables of this package.
+ *
+ * The tables that store their keys in a flat array mark the
+ * slot of a removed key with {@link #REMOVED} and use the
+ * {@link #index} and {@link #insertionIndex} helpers to probe it
+ * with the sequence of the provided {@link ProbeStrategy}.
+ *
+ * @author Arjun Passi
+ *
+ */
+final class Probing {
+
+	/** Reference to the marker stored in the key slot of a removed key */
+	static final Object REMOVED = new Object();
+
+	/** Reference to precomputed values for to increase the size of the table */
+	private static final int primeSizeValues[] = {1019, 2027, 4079, 8123, 16267, 32503,
+									65011, 130027, 260111, 520279, 1040387,
+									2080763, 4161539, 8323151, 16646323};
+
+	/**
+	 * This class only has static helpers.
+	 */
+	private Probing() {
+	}
+
+	/**
+	 * Method that returns the size of a new table.
+	 *
+	 * @return initial size
+	 */
+	static int initialSize() {
+		return primeSizeValues[0];
+	}
+
+	/**
+	 * Method that returns the size a table grows to.
+	 *
+	 * @param size : current size of the table
+	 * @return next size, or the same size if it is the largest
+	 */
+	static int nextSize(int size) {
+		for (int i = 0; i < primeSizeValues.length - 1; i++) {
+			if (size == primeSizeValues[i])
+				return primeSizeValues[i+1];
+		}
+		return size;
+	}
+
+	/**
+	 * Method that returns the smallest size able to hold the
+	 * provided number of keys without exceeding the load factor.
+	 *
+	 * @param items : number of keys
+	 * @param loadFactor
+	 * @return size of the table
+	 */
+	static int sizeFor(int items, float loadFactor) {
+		for (int i = 0; i < primeSizeValues.length; i++) {
+			if (items < loadFactor * primeSizeValues[i])
+				return primeSizeValues[i];
+		}
+		return primeSizeValues[primeSizeValues.length - 1];
+	}
+
+	/**
+	 * Method to determine whether a rehash should grow the table.
+	 * The table only grows when the active keys fill more than
+	 * half of the load factor, or when a probe sequence ran out of
+	 * slots before the load factor was reached. Otherwise the slots
+	 * of removed keys are reclaimed at the same size.
+	 *
+	 * @param currentItems : number of keys
+	 * @param usedSlots : number of slots that are not null
+	 * @param size : size of the table
+	 * @param loadFactor
+	 * @return true if the table should grow otherwise false
+	 */
+	static boolean grows(int currentItems, int usedSlots, int size, float loadFactor) {
+		return currentItems >= loadFactor * size / 2 || usedSlots < loadFactor * size;
+	}
+
+	/**
+	 * Method that returns the non-negative hash code of the key.
+	 *
+	 * @param key
+	 * @return hash of the key
+	 */
+	static int hash(Object key) {
+		return key.hashCode() & 0x7fffffff;
+	}
+
+	/**
+	 * Method to find the slot of the key in a flat key array.
+	 *
+	 * @param keys
+	 * @param size : size of the table
+	 * @param key
+	 * @param probe : probe sequence of the table
+	 * @return index of the key, or -1 if the key
+	 * is not in the table.
+	 */
+	static int index(Object[] keys, int size, Object key, ProbeStrategy probe) {
+
+		int hash = hash(key);
+		int index = hash % size;
+		int stride = probe.stride(hash, size);
+
+		for (int offset = 1; offset <= size; offset++) {
+			Object k = keys[index];
+
+			if (k == null)
+				return -1;
+			if (k == key || (k != REMOVED && key.equals(k)))
+				return index;
+
+			index = (index + stride) % size;
+			stride += probe.growth;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Method to find the slot the key is stored in, or the
+	 * slot it should be inserted in, in a flat key array.
+	 *
+	 * @param keys
+	 * @param size : size of the table
+	 * @param key
+	 * @param probe : probe sequence of the table
+	 * @return index of the slot, or -1 if the probe sequence
+	 * of the key has no free slot.
+	 */
+	static int insertionIndex(Object[] keys, int size, Object key, ProbeStrategy probe) {
+
+		int hash = hash(key);
+		int index = hash % size;
+		int stride = probe.stride(hash, size);
+		int free = -1;
+
+		for (int offset = 1; offset <= size; offset++) {
+			Object k = keys[index];
+
+			if (k == null)
+				return (free < 0) ? index : free;
+			if (k == REMOVED) {
+				if (free < 0)
+					free = index;
+			}
+			else if (k == key || key.equals(k))
+				return index;
+
+			index = (index + stride) % size;
+			stride += probe.growth;
+		}
+
+		return free;
+	}
+}
@@ -0,0 +1,169 @@
+package HashTable;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class wraps a HashTable so it can be shared by many
+ * threads when almost all operations are reads.
+ *
+ * Lookups first read the table without locking under an
+ * optimistic StampedLock stamp and only take the read lock if a
+ * writer got in the way. Writers, including the rehashes they
+ * trigger, hold the write lock. Since entries of the table never
+ * change once stored, a lookup that validates its stamp has seen
+ * a consistent table.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ReadMostlyHashTable<K, V> {
+
+	/** Reference to the table holding the key/value pairs */
+	private final HashTable<K, V> table;
+
+	/** Reference to the lock guarding the table */
+	private final StampedLock lock;
+
+	/**
+	 * Constructs an empty table.
+	 */
+	public ReadMostlyHashTable() {
+		table = new HashTable<K, V>();
+		lock = new StampedLock();
+	}
+
+	/**
+	 * Method to inserts key/value pair in the table. An existing
+	 * mapping for the key is replaced.
+	 *
+	 * Throws an IllegalArgumentExcpetion if the key or value
+	 * is null.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		long stamp = lock.writeLock();
+		try {
+			table.put(key, value);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Method to remove a specific key/value pair from the table.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key mapped to
+	 */
+	public V remove(K key) {
+		long stamp = lock.writeLock();
+		try {
+			return table.remove(key);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in the table.
+	 *
+	 * @param key
+	 * @return value the key maps to
+	 */
+	public V get(K key) {
+
+		if (key == null)
+			throw new IllegalArgumentException("Key is null");
+
+		V value = find(key);
+
+		if (value == null)
+			throw new NoSuchElementException("Key doesn't map to any value.");
+
+		return value;
+	}
+
+	/**
+	 * Method returns true if the provided key is in the table
+	 * otherwise it returns false.
+	 *
+	 * @param key : key to search for in the table
+	 * @return true if the key is in the table otherwise false
+	 */
+	public boolean containsKey(K key) {
+
+		if (key == null)
+			return false;
+
+		return find(key) != null;
+	}
+
+	/**
+	 * Method to retrieve the number of key/value pairs
+	 * stored in the table.
+	 *
+	 * @return number of key/value pairs
+	 */
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		int size = table.size();
+
+		if (lock.validate(stamp))
+			return size;
+
+		stamp = lock.readLock();
+		try {
+			return table.size();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Helper method that looks up a key, optimistically first.
+	 * A read that raced with a writer may see a half updated
+	 * table and fail in any way; its result is then discarded.
+	 *
+	 * @param key : key that is not null
+	 * @return value the key maps to or null
+	 */
+	private V find(K key) {
+
+		long stamp = lock.tryOptimisticRead();
+
+		if (stamp != 0) {
+			try {
+				V value = table.find(key);
+				if (lock.validate(stamp))
+					return value;
+			} catch (RuntimeException e) {
+				if (lock.validate(stamp))
+					throw e;
+			}
+		}
+
+		stamp = lock.readLock();
+		try {
+			return table.find(key);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for ReadMostlyHashTable
+ * @author Arjun Passi
+ *
+ */
+public class ReadMostlyHashTableTest {
+
+	/** Reference to the table on which testing will be performed*/
+	private ReadMostlyHashTable<Integer, String> mTestTable;
+
+	@Before
+	public void setUp(){
+		mTestTable = new ReadMostlyHashTable<Integer, String>();
+	}
+
+	/**
+	 * Test method for {@link ReadMostlyHashTable#put(Object, Object)}
+	 */
+	@Test
+	public void testPut(){
+		mTestTable.put(1, "one");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get(1), "one");
+
+		mTestTable.put(1, "uno");
+		assertEquals(mTestTable.size(), 1);
+		assertEquals(mTestTable.get(1), "uno");
+
+		for(int i = -5000; i < 5000; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		assertEquals(mTestTable.size(), 10000);
+		for(int i = -5000; i < 5000; i++)
+			assertEquals(mTestTable.get(i), Integer.toString(i));
+
+		try{
+			mTestTable.put(null, "one");
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link ReadMostlyHashTable#remove(Object)}
+	 */
+	@Test
+	public void testRemove(){
+		for(int i = 0; i < 1000; i++)
+			mTestTable.put(i, Integer.toString(i));
+
+		for(int i = 0; i < 1000; i += 2)
+			assertEquals(mTestTable.remove(i), Integer.toString(i));
+
+		assertEquals(mTestTable.size(), 500);
+		for(int i = 0; i < 1000; i++)
+			assertEquals(mTestTable.containsKey(i), i % 2 == 1);
+
+		try{
+			mTestTable.remove(0);
+			fail("Removed key must not be found");
+		} catch(NoSuchElementException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link ReadMostlyHashTable#get(Object)}
+	 */
+	@Test
+	public void testGet(){
+		mTestTable.put(1, "one");
+
+		try{
+			mTestTable.get(2);
+			fail("Missing key must not be found");
+		} catch(NoSuchElementException e){
+		}
+
+		try{
+			mTestTable.get(null);
+			fail("Null key must be rejected");
+		} catch(IllegalArgumentException e){
+		}
+
+		assertFalse(mTestTable.containsKey(null));
+		assertFalse(mTestTable.containsKey(2));
+		assertTrue(mTestTable.containsKey(1));
+	}
+
+	/**
+	 * Test method for {@link ReadMostlyHashTable#get(Object)}
+	 * with readers running while a writer keeps rehashing
+	 * the table
+	 */
+	@Test
+	public void testConcurrentReads() throws Exception{
+		for(int i = 1; i <= 500; i++)
+			mTestTable.put(-i, Integer.toString(-i));
+
+		final AtomicBoolean failed = new AtomicBoolean();
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread[] threads = new Thread[4];
+
+		for(int t = 0; t < threads.length; t++){
+			final int id = t;
+			threads[t] = new Thread(new Runnable(){
+				public void run(){
+					Random random = new Random(id);
+					try{
+						while(!done.get()){
+							int key = -1 - random.nextInt(500);
+							if(!mTestTable.containsKey(key) || !mTestTable.get(key).equals(Integer.toString(key)))
+								failed.set(true);
+						}
+					} catch(RuntimeException e){
+						failed.set(true);
+					}
+				}
+			});
+			threads[t].start();
+		}
+
+		//Growing the table and emptying it again rehashes it many times
+		for(int round = 0; round < 10; round++){
+			for(int i = 0; i < 20000; i++)
+				mTestTable.put(i, Integer.toString(i));
+			for(int i = 0; i < 20000; i++)
+				mTestTable.remove(i);
+		}
+		done.set(true);
+
+		for(Thread thread : threads)
+			thread.join();
+
+		assertFalse(failed.get());
+		assertEquals(mTestTable.size(), 500);
+	}
+}
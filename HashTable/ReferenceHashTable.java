@@ -0,0 +1,452 @@
+package HashTable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a Hash Table meant for caches that
+ * must not keep their keys or values alive. With weak keys a
+ * key/value pair is dropped once its key is no longer referenced
+ * outside of the table; with soft values it is dropped once the
+ * garbage collector clears its value under memory pressure.
+ *
+ * Keys, values and their hashes are kept in flat arrays, probed
+ * with the quadratic sequence of HashTable. Weak keys are matched
+ * with equals, like strong keys. The references cleared by the
+ * garbage collector are taken off a ReferenceQueue a few at a time
+ * during the normal operations of the table, so their slots are
+ * freed without scanning the table.
+ *
+ * A pair whose reference was cleared is never returned, but it is
+ * counted by {@link #size()} until its reference is drained.
+ *
+ * This is not a thread safe implementation.
+ *
+ * @author Arjun Passi
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ReferenceHashTable<K, V> {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * WeakKey is a nested class holding a key weakly
+	 * together with its hash.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class WeakKey extends WeakReference<Object> {
+
+		/** Reference to the hash of the key */
+		private final int hash;
+
+		private WeakKey(Object key, int hash, ReferenceQueue<Object> queue) {
+			super(key, queue);
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * SoftValue is a nested class holding a value softly
+	 * together with the hash of its key.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class SoftValue extends SoftReference<Object> {
+
+		/** Reference to the hash of the key */
+		private final int hash;
+
+		private SoftValue(Object value, int hash, ReferenceQueue<Object> queue) {
+			super(value, queue);
+			this.hash = hash;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the maximum number of cleared references drained per operation */
+	private static final int DRAIN_PER_OPERATION = 16;
+
+	/** Reference to the flag set when the keys are held weakly */
+	private final boolean weakKeys;
+
+	/** Reference to the flag set when the values are held softly */
+	private final boolean softValues;
+
+	/** Reference to the queue the cleared references are added to */
+	private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+
+	/** Reference to an array containing the keys, or their weak references */
+	private Object [] keys;
+
+	/** Reference to an array containing the values, or their soft references */
+	private Object [] values;
+
+	/** Reference to an array containing the hash of every key */
+	private int [] hashes;
+
+	/** Reference to the number of key/value pairs stored in the table */
+	private int currentItems;
+
+	/** Reference to the number of key slots that are not null */
+	private int usedSlots;
+
+	/** Reference to the size of the table*/
+	private int size;
+
+	/** Reference to the load factor. It is used to resize the table
+	 * and rehash the keys
+	 */
+	private float loadFactor = 0.7f;
+
+    /**
+     * Constructs a table that holds its keys weakly and
+     * its values strongly.
+     */
+    public ReferenceHashTable() {
+    	this(true, false);
+    }
+
+    /**
+     * Constructs a table that holds its keys and values
+     * as requested.
+     *
+     * @param weakKeys : true to hold the keys weakly
+     * @param softValues : true to hold the values softly
+     */
+    public ReferenceHashTable(boolean weakKeys, boolean softValues) {
+    	this.weakKeys = weakKeys;
+    	this.softValues = softValues;
+    	size = Probing.initialSize();
+    	allocate(size);
+    }
+
+    /**
+     * Method to inserts key/value pair in the table. An existing
+     * mapping for the key is replaced.
+     *
+     * Throws an IllegalArgumentExcpetion if the key or value
+     * is null.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+    	if (value == null)
+    		throw new IllegalArgumentException("Value is null");
+
+    	drain();
+
+    	if (usedSlots >= loadFactor * size)
+    		reHash();
+
+    	int hash = Probing.hash(key);
+    	int index;
+    	while ((index = insertionIndex(key, hash)) < 0)
+    		reHash();
+
+    	Object k = keys[index];
+
+    	if (k == null || k == Probing.REMOVED) {
+    		if (k == null)
+    			usedSlots++;
+    		keys[index] = weakKeys ? new WeakKey(key, hash, queue) : key;
+    		hashes[index] = hash;
+    		currentItems++;
+    	}
+    	else
+    		clearValue(index);
+
+    	values[index] = softValues ? new SoftValue(value, hash, queue) : value;
+    }
+
+    /**
+     * Method to find what value does the provided key map to.
+     *
+     * Throws an illegal argument exception if the key provided
+     * is null.
+     *
+     * Throws a No such element exception if the key is not present
+     * in the table, or its value was cleared.
+     *
+     * @param key
+     * @return value the key maps to.
+     */
+    @SuppressWarnings("unchecked")
+	public V get(K key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	drain();
+
+    	int index = index(key);
+    	Object value = (index < 0) ? null : referent(values[index]);
+
+    	if (value == null)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	return (V) value;
+    }
+
+    /**
+     * Method returns true if the provided key is in the table
+     * otherwise it returns false.
+     *
+     * @param key : key to search for in the table
+     * @return true if the key is in the table otherwise false
+     */
+    public boolean containsKey(K key) {
+
+    	if (key == null)
+    		return false;
+
+    	drain();
+
+    	int index = index(key);
+    	return index >= 0 && referent(values[index]) != null;
+    }
+
+    /**
+     * Method to remove a specific key/value pair from the table.
+     *
+     * Throws an illegal argument exception if the key provided
+     * is null.
+     *
+     * Throws a No such element exception if the key is not present
+     * in the table, or its value was cleared.
+     *
+     * @param key
+     * @return value the key mapped to
+     */
+    @SuppressWarnings("unchecked")
+	public V remove(K key) {
+
+    	if (key == null)
+    		throw new IllegalArgumentException("Key is null");
+
+    	drain();
+
+    	int index = index(key);
+
+    	if (index < 0)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	Object value = referent(values[index]);
+    	clear(index);
+
+    	if (value == null)
+    		throw new NoSuchElementException("Key doesn't map to any value.");
+
+    	return (V) value;
+    }
+
+    /**
+     * Method to retrieve the number of key/value pairs
+     * stored in the table. Pairs whose key or value was
+     * cleared are counted until they are drained.
+     *
+     * @return number of key/value pairs
+     */
+    public int size() {
+    	return currentItems;
+    }
+
+    /**
+     * Helper method that frees the slots of a bounded number
+     * of references cleared by the garbage collector. A cleared
+     * reference is found by probing from its hash for the slot
+     * holding that very reference; references of pairs that were
+     * already removed or rehashed away are not found.
+     */
+    private void drain() {
+
+    	for (int i = 0; i < DRAIN_PER_OPERATION; i++) {
+    		Reference<?> ref = queue.poll();
+
+    		if (ref == null)
+    			return;
+
+    		int hash = (ref instanceof WeakKey) ? ((WeakKey) ref).hash : ((SoftValue) ref).hash;
+    		int index = hash % size;
+    		int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    		for (int offset = 1; offset <= size; offset++) {
+    			Object k = keys[index];
+
+    			if (k == null)
+    				break;
+    			if (k == ref || values[index] == ref) {
+    				clear(index);
+    				break;
+    			}
+
+    			index = (index + stride) % size;
+    			stride += ProbeStrategy.QUADRATIC.growth;
+    		}
+    	}
+    }
+
+    /**
+     * Helper method to find the slot of the key. A weak key
+     * whose referent was cleared matches no key.
+     *
+     * @param key
+     * @return index of the key, or -1 if the key
+     * is not in the table.
+     */
+    private int index(Object key) {
+
+    	int hash = Probing.hash(key);
+    	int index = hash % size;
+    	int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    	for (int offset = 1; offset <= size; offset++) {
+    		Object k = keys[index];
+
+    		if (k == null)
+    			return -1;
+    		if (k != Probing.REMOVED && hashes[index] == hash && matches(k, key))
+    			return index;
+
+    		index = (index + stride) % size;
+    		stride += ProbeStrategy.QUADRATIC.growth;
+    	}
+
+    	return -1;
+    }
+
+    /**
+     * Helper method to find the slot the key is stored in, or
+     * the slot it should be inserted in.
+     *
+     * @param key
+     * @param hash : hash of the key
+     * @return index of the slot, or -1 if the probe sequence
+     * of the key has no free slot.
+     */
+    private int insertionIndex(Object key, int hash) {
+
+    	int index = hash % size;
+    	int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+    	int free = -1;
+
+    	for (int offset = 1; offset <= size; offset++) {
+    		Object k = keys[index];
+
+    		if (k == null)
+    			return (free < 0) ? index : free;
+    		if (k == Probing.REMOVED) {
+    			if (free < 0)
+    				free = index;
+    		}
+    		else if (hashes[index] == hash && matches(k, key))
+    			return index;
+
+    		index = (index + stride) % size;
+    		stride += ProbeStrategy.QUADRATIC.growth;
+    	}
+
+    	return free;
+    }
+
+    /**
+     * Helper method that compares a stored key with a key.
+     */
+    private boolean matches(Object stored, Object key) {
+    	Object k = referent(stored);
+    	return k == key || (k != null && key.equals(k));
+    }
+
+    /**
+     * Helper method that returns the object held in a slot,
+     * or null if it was held by a reference that was cleared.
+     */
+    private Object referent(Object stored) {
+    	return (stored instanceof Reference) ? ((Reference<?>) stored).get() : stored;
+    }
+
+    /**
+     * Helper method that removes the pair stored at the index.
+     * Its references are cleared so they are never queued.
+     *
+     * @param index
+     */
+    private void clear(int index) {
+    	if (keys[index] instanceof Reference)
+    		((Reference<?>) keys[index]).clear();
+    	clearValue(index);
+    	keys[index] = Probing.REMOVED;
+    	values[index] = null;
+    	currentItems--;
+    }
+
+    private void clearValue(int index) {
+    	if (values[index] instanceof Reference)
+    		((Reference<?>) values[index]).clear();
+    }
+
+    /**
+     * Helper method that allocates empty arrays for the
+     * provided number of slots.
+     *
+     * @param slots
+     */
+    private void allocate(int slots) {
+    	keys = new Object[slots];
+    	values = new Object[slots];
+    	hashes = new int[slots];
+    	usedSlots = 0;
+    }
+
+    /**
+     * Helper method that resizes/rehashes the table. Pairs
+     * whose key or value was cleared are dropped; their queued
+     * references find no slot when they are drained.
+     */
+    private void reHash() {
+
+    	Object[] oldKeys = keys;
+    	Object[] oldValues = values;
+    	int[] oldHashes = hashes;
+
+    	if (Probing.grows(currentItems, usedSlots, size, loadFactor))
+    		size = Probing.nextSize(size);
+
+    	allocate(size);
+    	currentItems = 0;
+
+    	for (int i = 0; i < oldKeys.length; i++) {
+    		Object k = oldKeys[i];
+
+    		if (k == null || k == Probing.REMOVED
+    				|| referent(k) == null || referent(oldValues[i]) == null)
+    			continue;
+
+    		int hash = oldHashes[i];
+    		int index = hash % size;
+    		int stride = ProbeStrategy.QUADRATIC.stride(hash, size);
+
+    		while (keys[index] != null) {
+    			index = (index + stride) % size;
+    			stride += ProbeStrategy.QUADRATIC.growth;
+    		}
+
+    		keys[index] = k;
+    		values[index] = oldValues[i];
+    		hashes[index] = hash;
+    		usedSlots++;
+    		currentItems++;
+    	}
+    }
+}
@@ -0,0 +1,74 @@
+package HashTable;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * This is a test class for ReferenceHashTable
+ * @author Arjun Passi
+ *
+ */
+public class ReferenceHashTableTest {
+
+	/**
+	 * Test method for {@link ReferenceHashTable#put(Object, Object)}
+	 * and {@link ReferenceHashTable#remove(Object)} in every mode
+	 */
+	@Test
+	public void testPutRemove(){
+		for(int mode = 0; mode < 4; mode++){
+			ReferenceHashTable<String, String> table =
+					new ReferenceHashTable<String, String>(mode / 2 == 1, mode % 2 == 1);
+			String[] keys = new String[5000];
+
+			for(int i = 0; i < keys.length; i++){
+				keys[i] = "key" + i;
+				table.put(keys[i], "value" + i);
+			}
+			table.put(keys[0], "changed");
+
+			assertEquals(table.size(), 5000);
+			assertEquals(table.get("key0"), "changed");
+
+			for(int i = 0; i < keys.length; i += 2)
+				table.remove(keys[i]);
+
+			assertEquals(table.size(), 2500);
+			for(int i = 0; i < keys.length; i++)
+				assertEquals(table.containsKey(keys[i]), i % 2 == 1);
+			assertEquals(table.get("key1"), "value1");
+
+			try{
+				table.get("key0");
+				fail("Removed key must not be found");
+			} catch(NoSuchElementException e){
+			}
+		}
+	}
+
+	/**
+	 * Pairs whose keys are no longer referenced are dropped
+	 */
+	@Test
+	public void testWeakKeys() throws InterruptedException{
+		ReferenceHashTable<Object, String> table = new ReferenceHashTable<Object, String>();
+		Object kept = new Object();
+
+		table.put(kept, "kept");
+		for(int i = 0; i < 1000; i++)
+			table.put(new Object(), "dropped");
+
+		for(int attempt = 0; attempt < 50 && table.size() > 1; attempt++){
+			System.gc();
+			Thread.sleep(10);
+			for(int i = 0; i < 100; i++)
+				table.containsKey(kept);
+		}
+
+		assertEquals(table.size(), 1);
+		assertEquals(table.get(kept), "kept");
+	}
+}
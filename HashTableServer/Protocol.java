@@ -0,0 +1,111 @@
+package HashTableServer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class holds the binary protocol spoken between
+ * ShardClient and ShardServer.
+ *
+ * A request is the length of the rest of the request (int), the
+ * operation (byte), the key length (int), the key bytes and, for a
+ * put, the value bytes. A response is the length of the rest of the
+ * response (int), the status (byte) and, for a found value, the
+ * value bytes. Responses are sent in the order of the requests, so
+ * a client can send many requests before reading any response.
+ *
+ * @author Arjun Passi
+ *
+ */
+final class Protocol {
+
+	/** Reference to the operation codes */
+	static final byte GET = 1;
+	static final byte PUT = 2;
+	static final byte REMOVE = 3;
+
+	/** Reference to the status of a response carrying a value or acknowledging a put */
+	static final byte OK = 0;
+
+	/** Reference to the status of a response for a key that is not present */
+	static final byte NOT_FOUND = 1;
+
+	/** Reference to the status of a response to a malformed request */
+	static final byte ERROR = 2;
+
+	/** Reference to the size of the request header after the length */
+	static final int REQUEST_HEADER = 5;
+
+	/** Reference to the largest frame accepted */
+	static final int MAX_FRAME = 1 << 24;
+
+	/**
+	 * This class only has static helpers.
+	 */
+	private Protocol() {
+	}
+
+	/**
+	 * Method that appends a request to the buffer.
+	 *
+	 * @param buffer : buffer in write mode
+	 * @param op : operation code
+	 * @param key
+	 * @param value : value of a put, or null
+	 * @return the buffer, or a larger copy if it was full
+	 */
+	static ByteBuffer writeRequest(ByteBuffer buffer, byte op, byte[] key, byte[] value) {
+
+		int length = REQUEST_HEADER + key.length + ((value == null) ? 0 : value.length);
+
+		if (length > MAX_FRAME)
+			throw new IllegalArgumentException("Key/value pair is too large");
+
+		buffer = ensure(buffer, 4 + length);
+		buffer.putInt(length);
+		buffer.put(op);
+		buffer.putInt(key.length);
+		buffer.put(key);
+		if (value != null)
+			buffer.put(value);
+		return buffer;
+	}
+
+	/**
+	 * Method that appends a response to the buffer.
+	 *
+	 * @param buffer : buffer in write mode
+	 * @param status
+	 * @param value : value found, or null
+	 * @return the buffer, or a larger copy if it was full
+	 */
+	static ByteBuffer writeResponse(ByteBuffer buffer, byte status, byte[] value) {
+
+		int length = 1 + ((value == null) ? 0 : value.length);
+
+		buffer = ensure(buffer, 4 + length);
+		buffer.putInt(length);
+		buffer.put(status);
+		if (value != null)
+			buffer.put(value);
+		return buffer;
+	}
+
+	/**
+	 * Method that returns a buffer with room for the provided
+	 * number of bytes after its position.
+	 *
+	 * @param buffer : buffer in write mode
+	 * @param bytes : number of bytes needed
+	 * @return the buffer, or a larger copy holding its bytes
+	 */
+	static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+
+		if (buffer.remaining() >= bytes)
+			return buffer;
+
+		ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+		buffer.flip();
+		grown.put(buffer);
+		return grown;
+	}
+}
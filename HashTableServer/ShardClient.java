@@ -0,0 +1,368 @@
+package HashTableServer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * This class implements a client of a key space that is split
+ * across several ShardServer processes.
+ *
+ * Keys are assigned to shards by consistent hashing: every shard
+ * is placed on a ring of hashes at a number of points derived from
+ * its socket file name, and a key belongs to the first shard point
+ * at or after the hash of the key. Adding or removing a shard only
+ * moves the keys next to its points.
+ *
+ * Single operations wait for their response. A {@link Batch}
+ * pipelines its operations instead: the requests for every shard
+ * are sent in one write before any response is read.
+ *
+ * This is not a thread safe implementation.
+ *
+ * @author Arjun Passi
+ *
+ */
+public class ShardClient implements Closeable {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Batch is a nested class that collects operations and
+	 * sends them pipelined. Every batch queues its requests in
+	 * its own buffers, so nothing is sent until it is executed
+	 * and other operations of the client can run meanwhile.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	public class Batch {
+
+		/** Reference to the shard of every queued operation */
+		private int [] order = new int[16];
+
+		/** Reference to the operation code of every queued operation */
+		private byte [] ops = new byte[16];
+
+		/** Reference to the number of queued operations */
+		private int count;
+
+		/** Reference to the requests queued for every shard, allocated on first use */
+		private final ByteBuffer [] requests = new ByteBuffer[channels.length];
+
+		/**
+		 * Method that queues a get of the key.
+		 *
+		 * @param key
+		 * @return this batch
+		 */
+		public Batch get(byte[] key) {
+			return add(Protocol.GET, key, null);
+		}
+
+		/**
+		 * Method that queues a put of the key/value pair.
+		 *
+		 * @param key
+		 * @param value
+		 * @return this batch
+		 */
+		public Batch put(byte[] key, byte[] value) {
+			if (value == null)
+				throw new IllegalArgumentException("Value is null");
+			return add(Protocol.PUT, key, value);
+		}
+
+		/**
+		 * Method that queues a removal of the key.
+		 *
+		 * @param key
+		 * @return this batch
+		 */
+		public Batch remove(byte[] key) {
+			return add(Protocol.REMOVE, key, null);
+		}
+
+		/**
+		 * Method that sends the queued operations and returns
+		 * their results in the order they were queued: the value
+		 * found by a get or remove, null for a key that is not
+		 * present and for a put. The batch is empty afterwards.
+		 *
+		 * @return results of the operations
+		 */
+		public List<byte[]> execute() {
+
+			List<byte[]> results = new ArrayList<byte[]>(count);
+
+			try {
+				for (int shard = 0; shard < channels.length; shard++)
+					send(shard, requests[shard]);
+
+				for (int i = 0; i < count; i++) {
+					ByteBuffer response = receive(order[i]);
+					boolean found = response.get() == Protocol.OK && ops[i] != Protocol.PUT;
+					results.add(found ? remaining(response) : null);
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			count = 0;
+			return results;
+		}
+
+		private Batch add(byte op, byte[] key, byte[] value) {
+
+			if (key == null)
+				throw new IllegalArgumentException("Key is null");
+
+			int shard = shardFor(key);
+
+			if (count == order.length) {
+				order = Arrays.copyOf(order, count * 2);
+				ops = Arrays.copyOf(ops, count * 2);
+			}
+			order[count] = shard;
+			ops[count++] = op;
+			if (requests[shard] == null)
+				requests[shard] = ByteBuffer.allocate(256);
+			requests[shard] = Protocol.writeRequest(requests[shard], op, key, value);
+			return this;
+		}
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the number of points every shard has on the ring */
+	private static final int POINTS_PER_SHARD = 128;
+
+	/** Reference to the connections to the shards */
+	private final SocketChannel [] channels;
+
+	/** Reference to the responses received from every shard and not yet read */
+	private final ByteBuffer [] responses;
+
+	/** Reference to the ring mapping hashes to shards */
+	private final TreeMap<Integer, Integer> ring = new TreeMap<Integer, Integer>();
+
+	/**
+	 * Constructs a client connected to the servers listening
+	 * on the provided socket files.
+	 *
+	 * Throws an IllegalArgumentException if no socket is provided.
+	 *
+	 * @param sockets : socket files of the shards
+	 * @throws IOException if a server can not be reached
+	 */
+	public ShardClient(List<Path> sockets) throws IOException {
+
+		if (sockets == null || sockets.isEmpty())
+			throw new IllegalArgumentException("No shard provided");
+
+		channels = new SocketChannel[sockets.size()];
+		responses = new ByteBuffer[sockets.size()];
+
+		try {
+			for (int shard = 0; shard < channels.length; shard++) {
+				Path socket = sockets.get(shard);
+
+				channels[shard] = SocketChannel.open(StandardProtocolFamily.UNIX);
+				channels[shard].connect(UnixDomainSocketAddress.of(socket));
+				responses[shard] = ByteBuffer.allocate(8192);
+				responses[shard].flip();
+
+				for (int point = 0; point < POINTS_PER_SHARD; point++) {
+					byte[] name = (socket.getFileName() + "#" + point).getBytes(StandardCharsets.UTF_8);
+					ring.put(hash(name), shard);
+				}
+			}
+		}
+		catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Method that returns a new empty batch.
+	 *
+	 * @return batch of operations
+	 */
+	public Batch batch() {
+		return new Batch();
+	}
+
+	/**
+	 * Method to inserts key/value pair in its shard. An existing
+	 * mapping for the key is replaced.
+	 *
+	 * Throws an IllegalArgumentExcpetion if the key or value
+	 * is null.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void put(byte[] key, byte[] value) {
+		batch().put(key, value).execute();
+	}
+
+	/**
+	 * Method to find what value does the provided key map to.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in its shard.
+	 *
+	 * @param key
+	 * @return value the key maps to.
+	 */
+	public byte[] get(byte[] key) {
+
+		byte[] value = batch().get(key).execute().get(0);
+
+		if (value == null)
+			throw new NoSuchElementException("Key doesn't map to any value.");
+
+		return value;
+	}
+
+	/**
+	 * Method to remove a specific key/value pair from its shard.
+	 *
+	 * Throws an illegal argument exception if the key provided
+	 * is null.
+	 *
+	 * Throws a No such element exception if the key is not present
+	 * in its shard.
+	 *
+	 * @param key
+	 * @return value the key mapped to
+	 */
+	public byte[] remove(byte[] key) {
+
+		byte[] value = batch().remove(key).execute().get(0);
+
+		if (value == null)
+			throw new NoSuchElementException("Key doesn't map to any value.");
+
+		return value;
+	}
+
+	/**
+	 * Method that closes the connections to the shards.
+	 */
+	@Override
+	public void close() throws IOException {
+		for (SocketChannel channel : channels) {
+			if (channel != null)
+				channel.close();
+		}
+	}
+
+	/**
+	 * Helper method that returns the shard of a key.
+	 *
+	 * @param key
+	 * @return index of the shard
+	 */
+	int shardFor(byte[] key) {
+		Map.Entry<Integer, Integer> point = ring.ceilingEntry(hash(key));
+		return (point != null) ? point.getValue() : ring.firstEntry().getValue();
+	}
+
+	/**
+	 * Helper method that writes the requests a batch queued
+	 * for a shard.
+	 *
+	 * @param buffer : requests of the batch, or null if none
+	 */
+	private void send(int shard, ByteBuffer buffer) throws IOException {
+
+		if (buffer == null || buffer.position() == 0)
+			return;
+
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channels[shard].write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Helper method that reads the next response of a shard.
+	 *
+	 * @return buffer positioned at the status, limited
+	 * to the end of the response
+	 */
+	private ByteBuffer receive(int shard) throws IOException {
+
+		ByteBuffer buffer = fill(shard, 4);
+		int length = buffer.getInt();
+
+		buffer = fill(shard, length);
+		ByteBuffer response = buffer.slice();
+		response.limit(length);
+		buffer.position(buffer.position() + length);
+		return response;
+	}
+
+	/**
+	 * Helper method that reads from a shard until the provided
+	 * number of bytes can be read from its response buffer.
+	 *
+	 * @return the response buffer in read mode
+	 */
+	private ByteBuffer fill(int shard, int bytes) throws IOException {
+
+		ByteBuffer buffer = responses[shard];
+
+		if (buffer.remaining() >= bytes)
+			return buffer;
+
+		buffer.compact();
+		buffer = Protocol.ensure(buffer, bytes - buffer.position());
+
+		while (buffer.position() < bytes) {
+			if (channels[shard].read(buffer) < 0)
+				throw new EOFException("Shard closed the connection");
+		}
+
+		buffer.flip();
+		responses[shard] = buffer;
+		return buffer;
+	}
+
+	private static byte[] remaining(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Helper method that hashes bytes with FNV-1a, finished
+	 * with a multiplicative mix so close keys spread on the ring.
+	 */
+	private static int hash(byte[] bytes) {
+		int hash = 0x811c9dc5;
+		for (byte b : bytes)
+			hash = (hash ^ (b & 0xff)) * 0x01000193;
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		return hash ^ (hash >>> 13);
+	}
+}
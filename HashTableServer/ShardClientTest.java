@@ -0,0 +1,153 @@
+package HashTableServer;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This is a test class for ShardClient and ShardServer
+ * @author Arjun Passi
+ *
+ */
+public class ShardClientTest {
+
+	/** Reference to the directory holding the socket files */
+	private Path mDirectory;
+
+	/** Reference to the servers of the shards */
+	private List<ShardServer> mServers;
+
+	/** Reference to the client on which testing will be performed*/
+	private ShardClient mTestClient;
+
+	@Before
+	public void setUp() throws IOException{
+		mDirectory = Files.createTempDirectory("ShardClientTest");
+		mServers = new ArrayList<ShardServer>();
+		List<Path> sockets = new ArrayList<Path>();
+
+		for(int i = 0; i < 3; i++){
+			Path socket = mDirectory.resolve("shard" + i + ".sock");
+			ShardServer server = new ShardServer(socket);
+			new Thread(server).start();
+			mServers.add(server);
+			sockets.add(socket);
+		}
+
+		mTestClient = new ShardClient(sockets);
+	}
+
+	@After
+	public void tearDown() throws Exception{
+		mTestClient.close();
+		for(ShardServer server : mServers)
+			server.close();
+		for(int i = 0; i < 3 && Files.list(mDirectory).count() > 0; i++)
+			Thread.sleep(100);
+		Files.delete(mDirectory);
+	}
+
+	/**
+	 * Test method for {@link ShardClient#put(byte[], byte[])}
+	 * and {@link ShardClient#remove(byte[])}
+	 */
+	@Test
+	public void testPutRemove(){
+		int[] perShard = new int[3];
+
+		for(int i = 0; i < 1000; i++){
+			mTestClient.put(bytes("key" + i), bytes("value" + i));
+			perShard[mTestClient.shardFor(bytes("key" + i))]++;
+		}
+
+		//Every shard holds part of the keys
+		for(int count : perShard)
+			assertTrue(count > 100);
+
+		mTestClient.put(bytes("key0"), bytes("changed"));
+		assertArrayEquals(mTestClient.get(bytes("key0")), bytes("changed"));
+		assertArrayEquals(mTestClient.remove(bytes("key1")), bytes("value1"));
+		assertArrayEquals(mTestClient.get(bytes("key999")), bytes("value999"));
+
+		try{
+			mTestClient.get(bytes("key1"));
+			fail("Removed key must not be found");
+		} catch(NoSuchElementException e){
+		}
+	}
+
+	/**
+	 * Test method for {@link ShardClient.Batch#execute()}
+	 */
+	@Test
+	public void testBatch(){
+		ShardClient.Batch batch = mTestClient.batch();
+
+		for(int i = 0; i < 20000; i++)
+			batch.put(bytes("key" + i), bytes("value" + i));
+		batch.remove(bytes("key7"));
+		for(int i = 0; i < 20000; i++)
+			batch.get(bytes("key" + i));
+
+		List<byte[]> results = batch.execute();
+
+		assertEquals(results.size(), 40001);
+		assertNull(results.get(0));
+		assertArrayEquals(results.get(20000), bytes("value7"));
+		for(int i = 0; i < 20000; i++){
+			if(i == 7)
+				assertNull(results.get(20001 + i));
+			else
+				assertArrayEquals(results.get(20001 + i), bytes("value" + i));
+		}
+	}
+
+	/**
+	 * Test method for single operations and a second batch
+	 * run while a batch is being built
+	 */
+	@Test
+	public void testBatchInterleaved(){
+		mTestClient.put(bytes("a"), bytes("A"));
+		mTestClient.put(bytes("b"), bytes("B"));
+
+		ShardClient.Batch batch = mTestClient.batch();
+		batch.get(bytes("a"));
+		batch.put(bytes("c"), bytes("C"));
+
+		assertArrayEquals(mTestClient.get(bytes("b")), bytes("B"));
+		assertArrayEquals(mTestClient.batch().get(bytes("a")).get(bytes("b")).execute().get(1), bytes("B"));
+
+		//The pending put is not sent before its batch is executed
+		try{
+			mTestClient.get(bytes("c"));
+			fail("Queued put must not be applied yet");
+		} catch(NoSuchElementException e){
+		}
+
+		//An abandoned batch leaves nothing behind
+		mTestClient.batch().put(bytes("d"), bytes("D")).get(bytes("a"));
+		assertArrayEquals(mTestClient.get(bytes("a")), bytes("A"));
+
+		List<byte[]> results = batch.get(bytes("c")).execute();
+		assertArrayEquals(results.get(0), bytes("A"));
+		assertNull(results.get(1));
+		assertArrayEquals(results.get(2), bytes("C"));
+		assertArrayEquals(mTestClient.get(bytes("c")), bytes("C"));
+		assertTrue(batch.execute().isEmpty());
+	}
+
+	private static byte[] bytes(String string){
+		return string.getBytes(StandardCharsets.UTF_8);
+	}
+}
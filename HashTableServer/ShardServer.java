@@ -0,0 +1,288 @@
+package HashTableServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import HashTable.BytesKeyHashTable;
+
+/**
+ * This class implements a server hosting one shard of a
+ * key space on a Unix domain socket. The shard is a
+ * BytesKeyHashTable mapping keys to values, both byte arrays.
+ *
+ * A single thread serves every connection with a Selector. The
+ * requests of a connection are answered in order, and every
+ * complete request that arrived is handled before the responses
+ * are written, so pipelined requests are answered together.
+ * Keys are looked up straight from the receive buffer.
+ *
+ * Run one process per shard:
+ * java HashTableServer.ShardServer /tmp/shard0.sock
+ *
+ * @author Arjun Passi
+ *
+ */
+public class ShardServer implements Runnable, Closeable {
+
+	// Nested Classes -------------------------------------
+	/**
+	 * Connection is a nested class holding the buffers
+	 * of one client connection.
+	 *
+	 * @author Arjun Passi
+	 *
+	 */
+	private static class Connection {
+
+		/** Reference to the bytes received and not yet handled */
+		private ByteBuffer in = ByteBuffer.allocate(8192);
+
+		/** Reference to the responses not yet sent */
+		private ByteBuffer out = ByteBuffer.allocate(8192);
+	}
+
+	// -------------------------------------------------------------------------
+
+	/** Reference to the socket file the server listens on */
+	private final Path socket;
+
+	/** Reference to the channel accepting connections */
+	private final ServerSocketChannel server;
+
+	/** Reference to the selector of the serving thread */
+	private final Selector selector;
+
+	/** Reference to the key/value pairs of the shard */
+	private final BytesKeyHashTable<byte[]> shard = new BytesKeyHashTable<byte[]>();
+
+	/** Reference to the flag set once the server is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Constructs a server listening on the provided socket file.
+	 * An existing file at that path is replaced. Requests are not
+	 * served until {@link #run()} is called.
+	 *
+	 * @param socket : path of the socket file
+	 * @throws IOException if the socket can not be bound
+	 */
+	public ShardServer(Path socket) throws IOException {
+		this.socket = socket;
+		Files.deleteIfExists(socket);
+		this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		this.server.bind(UnixDomainSocketAddress.of(socket));
+		this.server.configureBlocking(false);
+		this.selector = Selector.open();
+		this.server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+	/**
+	 * Method that serves requests until the server is closed.
+	 */
+	@Override
+	public void run() {
+
+		try {
+			while (!closed) {
+				selector.select();
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+
+					try {
+						if (key.isAcceptable())
+							accept();
+						else {
+							if (key.isReadable())
+								read(key);
+							if (key.isValid() && key.isWritable())
+								write(key);
+						}
+					}
+					catch (IOException e) {
+						//A failing connection does not stop the others
+						key.cancel();
+						key.channel().close();
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			if (!closed)
+				throw new UncheckedIOException(e);
+		}
+		finally {
+			try {
+				for (SelectionKey key : selector.keys())
+					key.channel().close();
+				selector.close();
+				Files.deleteIfExists(socket);
+			}
+			catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 * Method that stops the server. The serving thread closes
+	 * every connection and removes the socket file.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+	}
+
+	/**
+	 * Helper method that accepts a pending connection.
+	 */
+	private void accept() throws IOException {
+
+		SocketChannel channel = server.accept();
+
+		if (channel == null)
+			return;
+
+		channel.configureBlocking(false);
+		channel.register(selector, SelectionKey.OP_READ, new Connection());
+	}
+
+	/**
+	 * Helper method that reads from a connection and handles
+	 * every complete request received.
+	 */
+	private void read(SelectionKey key) throws IOException {
+
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection connection = (Connection) key.attachment();
+
+		if (channel.read(connection.in) < 0) {
+			key.cancel();
+			channel.close();
+			return;
+		}
+
+		ByteBuffer in = connection.in;
+		in.flip();
+
+		while (in.remaining() >= 4) {
+			int start = in.position();
+			int length = in.getInt(start);
+
+			if (length < Protocol.REQUEST_HEADER || length > Protocol.MAX_FRAME)
+				throw new IOException("Malformed request");
+
+			if (in.remaining() < 4 + length) {
+				//Make room for the rest of a large request
+				if (in.capacity() < 4 + length) {
+					ByteBuffer grown = ByteBuffer.allocate(4 + length);
+					grown.put(in);
+					grown.flip();
+					in = grown;
+				}
+				break;
+			}
+
+			connection.out = handle(connection.out, in, start + 4, length);
+			in.position(start + 4 + length);
+		}
+
+		in.compact();
+		connection.in = in;
+
+		write(key);
+	}
+
+	/**
+	 * Helper method that handles one request and appends
+	 * its response.
+	 *
+	 * @param out : responses not yet sent
+	 * @param in : received bytes holding the request
+	 * @param offset : position of the operation code
+	 * @param length : length of the request
+	 * @return the responses, or a larger copy of them
+	 */
+	private ByteBuffer handle(ByteBuffer out, ByteBuffer in, int offset, int length) {
+
+		byte[] bytes = in.array();
+		byte op = bytes[offset];
+		int keyLength = in.getInt(offset + 1);
+		int key = offset + Protocol.REQUEST_HEADER;
+		int valueLength = length - Protocol.REQUEST_HEADER - keyLength;
+
+		if (keyLength < 0 || valueLength < 0)
+			return Protocol.writeResponse(out, Protocol.ERROR, null);
+
+		switch (op) {
+		case Protocol.GET:
+			if (!shard.containsKey(bytes, key, keyLength))
+				return Protocol.writeResponse(out, Protocol.NOT_FOUND, null);
+			return Protocol.writeResponse(out, Protocol.OK, shard.get(bytes, key, keyLength));
+
+		case Protocol.PUT:
+			byte[] value = Arrays.copyOfRange(bytes, key + keyLength, key + keyLength + valueLength);
+			shard.put(bytes, key, keyLength, value);
+			return Protocol.writeResponse(out, Protocol.OK, null);
+
+		case Protocol.REMOVE:
+			if (!shard.containsKey(bytes, key, keyLength))
+				return Protocol.writeResponse(out, Protocol.NOT_FOUND, null);
+			return Protocol.writeResponse(out, Protocol.OK, shard.remove(bytes, key, keyLength));
+
+		default:
+			return Protocol.writeResponse(out, Protocol.ERROR, null);
+		}
+	}
+
+	/**
+	 * Helper method that sends the pending responses of a
+	 * connection, waiting for the channel to be writable if
+	 * they do not fit.
+	 */
+	private void write(SelectionKey key) throws IOException {
+
+		Connection connection = (Connection) key.attachment();
+		ByteBuffer out = connection.out;
+
+		out.flip();
+		((SocketChannel) key.channel()).write(out);
+		out.compact();
+
+		key.interestOps(out.position() > 0
+				? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+				: SelectionKey.OP_READ);
+	}
+
+	/**
+	 * Method that starts a server on the socket file
+	 * given as the only argument.
+	 *
+	 * @param args : path of the socket file
+	 * @throws IOException if the socket can not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length != 1) {
+			System.err.println("Usage: java HashTableServer.ShardServer <socket file>");
+			System.exit(1);
+		}
+
+		new ShardServer(Paths.get(args[0])).run();
+	}
+}